@@ -0,0 +1,29 @@
+package com.logicalpractice.collections.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar, accepts the usual JMH command line and always
+ * adds the GC profiler so allocation rates are reported alongside the timings.
+ * <pre>
+ *    java -jar target/benchmarks.jar SelectBenchmark -p size=1000
+ * </pre>
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {
+        // main only
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,50 @@
+package com.logicalpractice.collections.benchmarks;
+
+import static com.logicalpractice.collections.Selector.by;
+import static com.logicalpractice.collections.Selector.property;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.base.Function;
+import com.logicalpractice.collections.support.CapturingProxy;
+import com.logicalpractice.collections.support.MethodCapture;
+
+/**
+ * The fixed cost every clause pays before the first element is looked at:
+ * creating the capturing proxy, recording the calls and compiling the chain.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-XX:+IgnoreUnrecognizedVMOptions", "--add-opens=java.base/java.lang=ALL-UNNAMED", "--add-opens=java.base/java.util=ALL-UNNAMED"})
+public class CaptureBenchmark {
+
+    @Benchmark
+    public CapturingProxy<?, ?> capture() {
+        MethodCapture.capture(Employee.class);
+        return MethodCapture.clearAndReturn();
+    }
+
+    @Benchmark
+    public CapturingProxy<?, ?> recordChain() {
+        by(Employee.class).getDepartment().getName();
+        return MethodCapture.clearAndReturn();
+    }
+
+    @Benchmark
+    public Function<Employee, String> compileChain() {
+        return property(by(Employee.class).getDepartment().getName());
+    }
+}
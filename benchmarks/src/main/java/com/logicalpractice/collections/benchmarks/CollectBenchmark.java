@@ -0,0 +1,86 @@
+package com.logicalpractice.collections.benchmarks;
+
+import static com.logicalpractice.collections.Selector.by;
+import static com.logicalpractice.collections.Selector.collect;
+import static com.logicalpractice.collections.Selector.from;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.base.Function;
+import com.logicalpractice.collections.Expression;
+
+/**
+ * Projecting the department name of every employee in each of the styles the
+ * Selector supports, against the loop it replaces.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-XX:+IgnoreUnrecognizedVMOptions", "--add-opens=java.base/java.lang=ALL-UNNAMED", "--add-opens=java.base/java.util=ALL-UNNAMED"})
+public class CollectBenchmark {
+
+    @Param({"10", "1000", "100000", "10000000"})
+    int size;
+
+    List<Employee> employees;
+
+    final Function<Employee, String> departmentName = new Function<Employee, String>() {
+        public String apply(Employee employee) {
+            return employee.getDepartment().getName();
+        }
+    };
+
+    final Expression<Employee, String> departmentNameExpression = new Expression<Employee, String>() {{
+        each(Employee.class).getDepartment().getName();
+    }};
+
+    @Setup
+    public void setUp() {
+        employees = Staff.employees(size);
+    }
+
+    @Benchmark
+    public List<String> handWritten() {
+        List<String> result = new ArrayList<String>(employees.size());
+        for (Employee employee : employees) {
+            result.add(employee.getDepartment().getName());
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Iterable<String> function() {
+        return collect(employees, departmentName);
+    }
+
+    @Benchmark
+    public Iterable<String> expression() {
+        return collect(employees, departmentNameExpression);
+    }
+
+    @Benchmark
+    public Iterable<String> byClause() {
+        return collect(employees, by(Employee.class).getDepartment().getName());
+    }
+
+    @Benchmark
+    public Iterable<String> fromClause() {
+        return collect(from(employees).getDepartment().getName());
+    }
+}
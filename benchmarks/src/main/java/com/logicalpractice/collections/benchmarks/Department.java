@@ -0,0 +1,17 @@
+package com.logicalpractice.collections.benchmarks;
+
+/**
+ * Second hop of the property chains the benchmarks select on.
+ */
+public class Department {
+
+    private final String name;
+
+    public Department(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,32 @@
+package com.logicalpractice.collections.benchmarks;
+
+/**
+ * Element type of the benchmarks, non final with public getters so that it can
+ * be captured.
+ */
+public class Employee {
+
+    private final String name;
+
+    private final Department department;
+
+    private final int salary;
+
+    public Employee(String name, Department department, int salary) {
+        this.name = name;
+        this.department = department;
+        this.salary = salary;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Department getDepartment() {
+        return department;
+    }
+
+    public int getSalary() {
+        return salary;
+    }
+}
@@ -0,0 +1,107 @@
+package com.logicalpractice.collections.benchmarks;
+
+import static com.logicalpractice.collections.Selector.from;
+import static com.logicalpractice.collections.Selector.select;
+import static com.logicalpractice.collections.Selector.where;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.hamcrest.Matcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import com.google.common.collect.Lists;
+import com.logicalpractice.collections.Expression;
+
+/**
+ * Selecting the employees of one department in each of the styles the Selector
+ * supports, against the loop it replaces. The Predicate and Function styles
+ * return lazy views so they are drained into a list, as the other styles do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-XX:+IgnoreUnrecognizedVMOptions", "--add-opens=java.base/java.lang=ALL-UNNAMED", "--add-opens=java.base/java.util=ALL-UNNAMED"})
+public class SelectBenchmark {
+
+    @Param({"10", "1000", "100000", "10000000"})
+    int size;
+
+    List<Employee> employees;
+
+    final Matcher<String> sales = equalTo(Staff.SALES);
+
+    final Predicate<Employee> inSales = new Predicate<Employee>() {
+        public boolean apply(Employee employee) {
+            return Staff.SALES.equals(employee.getDepartment().getName());
+        }
+    };
+
+    final Function<Employee, String> departmentName = new Function<Employee, String>() {
+        public String apply(Employee employee) {
+            return employee.getDepartment().getName();
+        }
+    };
+
+    final Expression<Employee, String> departmentNameExpression = new Expression<Employee, String>() {{
+        each(Employee.class).getDepartment().getName();
+    }};
+
+    @Setup
+    public void setUp() {
+        employees = Staff.employees(size);
+    }
+
+    @Benchmark
+    public List<Employee> handWritten() {
+        List<Employee> result = new ArrayList<Employee>();
+        for (Employee employee : employees) {
+            if (sales.matches(employee.getDepartment().getName())) {
+                result.add(employee);
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<Employee> predicate() {
+        return Lists.newArrayList(select(employees, inSales));
+    }
+
+    @Benchmark
+    public List<Employee> function() {
+        return Lists.newArrayList(select(employees, departmentName, sales));
+    }
+
+    @Benchmark
+    public List<Employee> expression() {
+        return Lists.newArrayList(select(employees, departmentNameExpression, sales));
+    }
+
+    @Benchmark
+    public Iterable<Employee> whereClause() {
+        return select(employees, where(Employee.class).getDepartment().getName(), sales);
+    }
+
+    @Benchmark
+    public Iterable<Employee> fromClause() {
+        Iterable<Employee> result = select(from(employees).getDepartment().getName(), sales);
+        return result;
+    }
+}
@@ -0,0 +1,44 @@
+package com.logicalpractice.collections.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic test data, names and departments are drawn from small pools so
+ * that ten million employees still fit comfortably in the heap.
+ */
+final class Staff {
+
+    static final String SALES = "Sales";
+
+    private static final String[] DEPARTMENTS = {SALES, "Engineering", "Finance", "Support", "Marketing", "Legal", "Operations", "Research"};
+
+    private static final int NAMES = 1024;
+
+    private Staff() {
+        // static methods only
+    }
+
+    /**
+     * @return size employees, about one in eight of them in {@link #SALES}
+     */
+    static List<Employee> employees(int size) {
+        Department[] departments = new Department[DEPARTMENTS.length];
+        for (int i = 0; i < departments.length; i++) {
+            departments[i] = new Department(DEPARTMENTS[i]);
+        }
+        String[] names = new String[NAMES];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "Employee " + i;
+        }
+        Random random = new Random(42);
+        List<Employee> employees = new ArrayList<Employee>(size);
+        for (int i = 0; i < size; i++) {
+            employees.add(new Employee(names[random.nextInt(NAMES)],
+                    departments[random.nextInt(departments.length)],
+                    20000 + random.nextInt(80000)));
+        }
+        return employees;
+    }
+}
@@ -0,0 +1,71 @@
+package com.logicalpractice.collections.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.logicalpractice.collections.Selector;
+import com.logicalpractice.collections.support.MethodCapture;
+import com.logicalpractice.collections.typed.TypedUtils;
+
+/**
+ * from() for each kind of collection whose element type it recognises, the
+ * capture it starts is dropped straight away so only the start is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-XX:+IgnoreUnrecognizedVMOptions", "--add-opens=java.base/java.lang=ALL-UNNAMED", "--add-opens=java.base/java.util=ALL-UNNAMED"})
+public class TypeOfIterableBenchmark {
+
+    List<Employee> plain;
+
+    List<Employee> typed;
+
+    List<Employee> checked;
+
+    @Setup
+    public void setUp() {
+        plain = new ArrayList<Employee>();
+        for (int i = 0; i < 100; i++) {
+            plain.add(new Employee("Employee " + i, new Department("Sales"), 20000));
+        }
+        typed = TypedUtils.typedList(plain, Employee.class);
+        checked = Collections.checkedList(plain, Employee.class);
+    }
+
+    @Benchmark
+    public Employee typed() {
+        return start(typed);
+    }
+
+    @Benchmark
+    public Employee checkedCollection() {
+        return start(checked);
+    }
+
+    @Benchmark
+    public Employee firstElement() {
+        return start(plain);
+    }
+
+    private static Employee start(List<Employee> items) {
+        Employee proxy = Selector.from(items);
+        MethodCapture.clearAndReturn();
+        return proxy;
+    }
+}
@@ -0,0 +1,93 @@
+package com.logicalpractice.collections.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.logicalpractice.collections.typed.TypedUtils;
+
+/**
+ * Overhead of the typed wrappers on indexed access and iteration, against the
+ * ArrayList they wrap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-XX:+IgnoreUnrecognizedVMOptions", "--add-opens=java.base/java.lang=ALL-UNNAMED", "--add-opens=java.base/java.util=ALL-UNNAMED"})
+public class TypedListBenchmark {
+
+    @Param({"10", "1000", "100000", "10000000"})
+    int size;
+
+    List<Employee> plain;
+
+    List<Employee> typed;
+
+    List<Employee> enforcing;
+
+    @Setup
+    public void setUp() {
+        plain = Staff.employees(size);
+        typed = TypedUtils.typedList(plain, Employee.class);
+        enforcing = TypedUtils.enforcingTypedList(plain, Employee.class);
+    }
+
+    @Benchmark
+    public long getPlain() {
+        return sumByIndex(plain);
+    }
+
+    @Benchmark
+    public long getTyped() {
+        return sumByIndex(typed);
+    }
+
+    @Benchmark
+    public long getEnforcing() {
+        return sumByIndex(enforcing);
+    }
+
+    @Benchmark
+    public long iteratePlain() {
+        return sumByIterator(plain);
+    }
+
+    @Benchmark
+    public long iterateTyped() {
+        return sumByIterator(typed);
+    }
+
+    @Benchmark
+    public long iterateEnforcing() {
+        return sumByIterator(enforcing);
+    }
+
+    private static long sumByIndex(List<Employee> employees) {
+        long sum = 0;
+        for (int i = 0, n = employees.size(); i < n; i++) {
+            sum += employees.get(i).getSalary();
+        }
+        return sum;
+    }
+
+    private static long sumByIterator(List<Employee> employees) {
+        long sum = 0;
+        for (Employee employee : employees) {
+            sum += employee.getSalary();
+        }
+        return sum;
+    }
+}
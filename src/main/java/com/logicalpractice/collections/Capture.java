@@ -0,0 +1,80 @@
+package com.logicalpractice.collections;
+
+import com.google.common.base.Function;
+
+import com.logicalpractice.collections.support.Accessor;
+import com.logicalpractice.collections.support.CapturingProxy;
+import com.logicalpractice.collections.support.MethodCapture;
+
+/**
+ * Captures clauses without any thread bound state, the alternative to
+ * {@link Selector#by(Class)} when a capture has to be nested inside another or
+ * the clause is frozen once and shared.
+ * <pre>
+ *    private static final Function&lt;Person, String&gt; TOWN;
+ *    static {
+ *       Capture&lt;Person&gt; person = capture(Person.class);
+ *       TOWN = person.freeze(person.each().getAddress().getTown());
+ *    }
+ * </pre>
+ * <p>
+ * A Capture records one clause at a time and belongs to the thread using it, the
+ * frozen Functions are immutable and can be evaluated from any number of threads.
+ * </p>
+ *
+ * @param <T> type the clauses start from
+ */
+public final class Capture<T> {
+
+    // fields ****************************************************************
+
+    private final Class<T> type;
+
+    private CapturingProxy<T, ?> current;
+
+    // constructors **********************************************************
+
+    Capture(Class<T> type) {
+        MethodCapture.checkClass(type);
+        this.type = type;
+    }
+
+    // methods ***************************************************************
+
+    public Class<T> type() {
+        return type;
+    }
+
+    /**
+     * Starts a new clause, replacing any unfinished one.
+     *
+     * @return instance of the type recording the calls made on it
+     */
+    public T each() {
+        CapturingProxy<T, Object> proxy = new CapturingProxy<T, Object>(type);
+        T instance = proxy.proxy(type);
+        current = proxy;
+        return instance;
+    }
+
+    /**
+     * Finishes the clause started by {@link #each()}.
+     *
+     * @param clause should be used as capture.each().getProperty()
+     * @return compiled Function evaluating the clause
+     * @throws IllegalStateException if no clause has been started
+     */
+    public <V> Function<T, V> freeze(V clause) {
+        return accessor(clause);
+    }
+
+    @SuppressWarnings("unchecked")
+    <V> Accessor<T, V> accessor(V clause) {
+        CapturingProxy<T, ?> proxy = current;
+        if (proxy == null) {
+            throw new IllegalStateException("No clause in progress, start one with each()");
+        }
+        current = null;
+        return (Accessor<T, V>) proxy.compile();
+    }
+}
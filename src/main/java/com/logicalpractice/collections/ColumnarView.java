@@ -0,0 +1,551 @@
+package com.logicalpractice.collections;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hamcrest.Matcher;
+
+import com.logicalpractice.collections.support.Accessor;
+import com.logicalpractice.collections.support.KeyRanges;
+import com.logicalpractice.collections.support.MatcherValues;
+
+/**
+ * Column oriented snapshot of some properties of a collection, for repeated
+ * filtering and aggregation without walking the object graph.
+ * <p>
+ * Each property is read once when the view is built: {@code int}, {@code long} and
+ * {@code double} properties into an {@code int[]}, {@code long[]} or {@code double[]},
+ * booleans into a {@code boolean[]} and everything else dictionary encoded, an {@code int[]} of
+ * codes into the distinct values. Selections then scan those arrays:
+ * </p>
+ * <ul>
+ * <li>comparisons that {@link MatcherValues#ranges(Matcher)} can plan are tested
+ * on the primitive values directly, without boxing;</li>
+ * <li>dictionary columns evaluate the matcher once per distinct value, then scan
+ * the codes;</li>
+ * <li>anything else falls back to evaluating the matcher per row.</li>
+ * </ul>
+ * <pre>
+ *    ColumnarView&lt;Person&gt; view = columnar(people)
+ *          .column(by(Person.class).getAge())
+ *          .column(by(Person.class).getAddress().getTown())
+ *          .build();
+ *    int adults = view.count(by(Person.class).getAge(), greaterThanOrEqualTo(18));
+ *    List&lt;Person&gt; locals = view.select(by(Person.class).getAddress().getTown(), equalTo("Brighton"));
+ * </pre>
+ * <p>
+ * The view is a snapshot, later changes to the source or its elements are not
+ * reflected. It is immutable and may be shared between threads.
+ * </p>
+ *
+ * @param <T> type of the elements
+ */
+public final class ColumnarView<T> {
+
+    /**
+     * Collects the columns of a view, obtained from {@link Selector#columnar(Iterable)}.
+     */
+    public static final class Builder<T> {
+        private final Iterable<T> items;
+        private final List<Accessor<T, ?>> accessors = new ArrayList<Accessor<T, ?>>();
+
+        Builder(Iterable<T> items) {
+            this.items = items;
+        }
+
+        /**
+         * @param clause should be used as by(YourClass.class).getProperty()
+         * @return this
+         */
+        public <V> Builder<T> column(V clause) {
+            Accessor<T, V> accessor = Selector.getCurrentAccessor(clause);
+            if (!accessors.contains(accessor)) {
+                accessors.add(accessor);
+            }
+            return this;
+        }
+
+        /**
+         * Reads every column from the items.
+         */
+        public ColumnarView<T> build() {
+            List<T> elements = new ArrayList<T>();
+            for (T item : items) {
+                elements.add(item);
+            }
+            Object[] rows = elements.toArray();
+            Map<Accessor<T, ?>, Column> columns = new LinkedHashMap<Accessor<T, ?>, Column>();
+            try {
+                for (Accessor<T, ?> accessor : accessors) {
+                    columns.put(accessor, extract(accessor, rows));
+                }
+            } catch (Exception e) {
+                throw Selector.launderException(e);
+            }
+            return new ColumnarView<T>(rows, columns);
+        }
+    }
+
+    // fields ****************************************************************
+
+    private final Object[] rows;
+
+    private final Map<Accessor<T, ?>, Column> columns;
+
+    // constructors **********************************************************
+
+    private ColumnarView(Object[] rows, Map<Accessor<T, ?>, Column> columns) {
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    // access ****************************************************************
+
+    public int size() {
+        return rows.length;
+    }
+
+    /**
+     * @return the element at position
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int position) {
+        return (T) rows[position];
+    }
+
+    /**
+     * @return unmodifiable list view of the rows, in source order
+     */
+    public List<T> asList() {
+        return new AbstractList<T>() {
+            @Override
+            public T get(int index) {
+                return ColumnarView.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return rows.length;
+            }
+        };
+    }
+
+    // selection *************************************************************
+
+    /**
+     * @param clause a column of this view, as by(YourClass.class).getProperty()
+     * @return positions of the rows whose value matches, ascending
+     */
+    public <V> int[] positions(V clause, Matcher<V> matcher) {
+        BitSet matches = matching(clause, matcher);
+        int[] positions = new int[matches.cardinality()];
+        for (int i = matches.nextSetBit(0), n = 0; i >= 0; i = matches.nextSetBit(i + 1)) {
+            positions[n++] = i;
+        }
+        return positions;
+    }
+
+    /**
+     * @param clause a column of this view, as by(YourClass.class).getProperty()
+     * @return new list of the elements whose value matches, in source order
+     */
+    @SuppressWarnings("unchecked")
+    public <V> List<T> select(V clause, Matcher<V> matcher) {
+        BitSet matches = matching(clause, matcher);
+        List<T> result = new ArrayList<T>(matches.cardinality());
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            result.add((T) rows[i]);
+        }
+        return result;
+    }
+
+    /**
+     * @param clause a column of this view, as by(YourClass.class).getProperty()
+     * @return number of rows whose value matches
+     */
+    public <V> int count(V clause, Matcher<V> matcher) {
+        return matching(clause, matcher).cardinality();
+    }
+
+    // aggregation ***********************************************************
+
+    /**
+     * @param clause an int or long column of this view
+     */
+    public LongStatistics stats(long clause) {
+        return stats(null, clause);
+    }
+
+    /**
+     * @param positions rows to include, as returned by {@link #positions(Object, Matcher)},
+     *                  null for all rows
+     * @param clause    an int or long column of this view
+     */
+    public LongStatistics stats(int[] positions, long clause) {
+        Column column = column(clause);
+        LongStatistics stats = new LongStatistics();
+        if (positions == null) {
+            for (int i = 0; i < rows.length; i++) {
+                stats.accept(column.getLong(i));
+            }
+        } else {
+            for (int position : positions) {
+                stats.accept(column.getLong(position));
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * @param clause a numeric column of this view
+     */
+    public DoubleStatistics stats(double clause) {
+        return stats(null, clause);
+    }
+
+    /**
+     * @param positions rows to include, as returned by {@link #positions(Object, Matcher)},
+     *                  null for all rows
+     * @param clause    a numeric column of this view
+     */
+    public DoubleStatistics stats(int[] positions, double clause) {
+        Column column = column(clause);
+        DoubleStatistics stats = new DoubleStatistics();
+        if (positions == null) {
+            for (int i = 0; i < rows.length; i++) {
+                stats.accept(column.getDouble(i));
+            }
+        } else {
+            for (int position : positions) {
+                stats.accept(column.getDouble(position));
+            }
+        }
+        return stats;
+    }
+
+    // implementation ********************************************************
+
+    private <V> BitSet matching(V clause, Matcher<V> matcher) {
+        if (matcher == null) {
+            throw new IllegalArgumentException("matcher is required");
+        }
+        return column(clause).matching(matcher);
+    }
+
+    private Column column(Object clause) {
+        Accessor<T, Object> accessor = Selector.getCurrentAccessor(clause);
+        Column column = columns.get(accessor);
+        if (column == null) {
+            throw new IllegalArgumentException("no column for " + accessor + ", the view has " + columns.keySet());
+        }
+        return column;
+    }
+
+    private static <T> Column extract(Accessor<T, ?> accessor, Object[] rows) {
+        Class<?> type = accessor.getChain().getResultType();
+        if (type == Integer.TYPE) {
+            int[] values = new int[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                values[i] = accessor.getInt(ColumnarView.<T>row(rows, i));
+            }
+            return new IntColumn(values);
+        }
+        if (type == Long.TYPE) {
+            long[] values = new long[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                values[i] = accessor.getLong(ColumnarView.<T>row(rows, i));
+            }
+            return new LongColumn(values);
+        }
+        if (type == Double.TYPE) {
+            double[] values = new double[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                values[i] = accessor.getDouble(ColumnarView.<T>row(rows, i));
+            }
+            return new DoubleColumn(values);
+        }
+        if (type == Boolean.TYPE) {
+            boolean[] values = new boolean[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                values[i] = (Boolean) accessor.get(ColumnarView.<T>row(rows, i));
+            }
+            return new BooleanColumn(values);
+        }
+        Map<Object, Integer> codes = new HashMap<Object, Integer>();
+        List<Object> dictionary = new ArrayList<Object>();
+        int[] values = new int[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            Object value = accessor.get(ColumnarView.<T>row(rows, i));
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                codes.put(value, code);
+                dictionary.add(value);
+            }
+            values[i] = code;
+        }
+        return new DictionaryColumn(values, dictionary.toArray());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T row(Object[] rows, int i) {
+        return (T) rows[i];
+    }
+
+    // columns ***************************************************************
+
+    private abstract static class Column {
+
+        abstract int size();
+
+        abstract Object get(int row);
+
+        long getLong(int row) {
+            return ((Number) get(row)).longValue();
+        }
+
+        double getDouble(int row) {
+            return ((Number) get(row)).doubleValue();
+        }
+
+        /**
+         * Evaluates matcher against every row, boxing each value.
+         */
+        BitSet matching(Matcher<?> matcher) {
+            BitSet result = new BitSet(size());
+            for (int i = 0; i < size(); i++) {
+                if (matcher.matches(get(i))) {
+                    result.set(i);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Applies matcher to the rows already selected by a superset plan.
+         */
+        BitSet refine(BitSet candidates, KeyRanges plan, Matcher<?> matcher) {
+            if (!plan.isExact()) {
+                for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                    if (!matcher.matches(get(i))) {
+                        candidates.clear(i);
+                    }
+                }
+            }
+            return candidates;
+        }
+    }
+
+    private static final class IntColumn extends Column {
+        private final int[] values;
+
+        IntColumn(int[] values) {
+            this.values = values;
+        }
+
+        int size() {
+            return values.length;
+        }
+
+        Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        long getLong(int row) {
+            return values[row];
+        }
+
+        @Override
+        double getDouble(int row) {
+            return values[row];
+        }
+
+        @Override
+        BitSet matching(Matcher<?> matcher) {
+            KeyRanges plan = MatcherValues.ranges(matcher);
+            long[][] bounds = plan == null ? null : plan.longBounds(Integer.class);
+            if (bounds == null) {
+                return super.matching(matcher);
+            }
+            long[] lower = bounds[0];
+            long[] upper = bounds[1];
+            BitSet result = new BitSet(values.length);
+            for (int i = 0; i < values.length; i++) {
+                int value = values[i];
+                for (int r = 0; r < lower.length; r++) {
+                    if (lower[r] <= value && value <= upper[r]) {
+                        result.set(i);
+                        break;
+                    }
+                }
+            }
+            return refine(result, plan, matcher);
+        }
+    }
+
+    private static final class LongColumn extends Column {
+        private final long[] values;
+
+        LongColumn(long[] values) {
+            this.values = values;
+        }
+
+        int size() {
+            return values.length;
+        }
+
+        Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        long getLong(int row) {
+            return values[row];
+        }
+
+        @Override
+        double getDouble(int row) {
+            return values[row];
+        }
+
+        @Override
+        BitSet matching(Matcher<?> matcher) {
+            KeyRanges plan = MatcherValues.ranges(matcher);
+            long[][] bounds = plan == null ? null : plan.longBounds(Long.class);
+            if (bounds == null) {
+                return super.matching(matcher);
+            }
+            long[] lower = bounds[0];
+            long[] upper = bounds[1];
+            BitSet result = new BitSet(values.length);
+            for (int i = 0; i < values.length; i++) {
+                long value = values[i];
+                for (int r = 0; r < lower.length; r++) {
+                    if (lower[r] <= value && value <= upper[r]) {
+                        result.set(i);
+                        break;
+                    }
+                }
+            }
+            return refine(result, plan, matcher);
+        }
+    }
+
+    private static final class DoubleColumn extends Column {
+        private final double[] values;
+
+        DoubleColumn(double[] values) {
+            this.values = values;
+        }
+
+        int size() {
+            return values.length;
+        }
+
+        Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        double getDouble(int row) {
+            return values[row];
+        }
+
+        @Override
+        BitSet matching(Matcher<?> matcher) {
+            KeyRanges plan = MatcherValues.ranges(matcher);
+            if (plan == null || !plan.boundsAre(Double.class)) {
+                return super.matching(matcher);
+            }
+            List<KeyRanges.Range> ranges = plan.getRanges();
+            BitSet result = new BitSet(values.length);
+            for (int i = 0; i < values.length; i++) {
+                double value = values[i];
+                for (KeyRanges.Range range : ranges) {
+                    if (range.contains(value)) {
+                        result.set(i);
+                        break;
+                    }
+                }
+            }
+            return refine(result, plan, matcher);
+        }
+    }
+
+    private static final class BooleanColumn extends Column {
+        private final boolean[] values;
+
+        BooleanColumn(boolean[] values) {
+            this.values = values;
+        }
+
+        int size() {
+            return values.length;
+        }
+
+        Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        BitSet matching(Matcher<?> matcher) {
+            boolean whenTrue = matcher.matches(Boolean.TRUE);
+            boolean whenFalse = matcher.matches(Boolean.FALSE);
+            BitSet result = new BitSet(values.length);
+            if (whenTrue || whenFalse) {
+                for (int i = 0; i < values.length; i++) {
+                    if (values[i] ? whenTrue : whenFalse) {
+                        result.set(i);
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    private static final class DictionaryColumn extends Column {
+        private final int[] codes;
+        private final Object[] dictionary;
+
+        DictionaryColumn(int[] codes, Object[] dictionary) {
+            this.codes = codes;
+            this.dictionary = dictionary;
+        }
+
+        int size() {
+            return codes.length;
+        }
+
+        Object get(int row) {
+            return dictionary[codes[row]];
+        }
+
+        /**
+         * The matcher sees each distinct value once.
+         */
+        @Override
+        BitSet matching(Matcher<?> matcher) {
+            boolean[] accepted = new boolean[dictionary.length];
+            boolean any = false;
+            for (int code = 0; code < dictionary.length; code++) {
+                accepted[code] = matcher.matches(dictionary[code]);
+                any |= accepted[code];
+            }
+            BitSet result = new BitSet(codes.length);
+            if (any) {
+                for (int i = 0; i < codes.length; i++) {
+                    if (accepted[codes[i]]) {
+                        result.set(i);
+                    }
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.logicalpractice.collections;
+
+import java.util.DoubleSummaryStatistics;
+
+/**
+ * Count, sum, minimum and maximum of a set of floating point values, accumulated
+ * without boxing by {@link Selector#stats(Iterable, double)} and friends.
+ * <p>
+ * The JDK's {@link DoubleSummaryStatistics}, so the sum is compensated and the
+ * average of no values is zero, {@link Selector#average(Iterable, double)}
+ * answers NaN instead.
+ * </p>
+ */
+public final class DoubleStatistics extends DoubleSummaryStatistics {
+
+    DoubleStatistics() {
+    }
+}
@@ -1,9 +1,12 @@
 package com.logicalpractice.collections;
 
+import java.util.concurrent.ConcurrentMap;
+
 import com.google.common.base.Function;
+import com.google.common.collect.MapMaker;
+import com.logicalpractice.collections.support.Accessor;
 import com.logicalpractice.collections.support.CapturingProxy;
-
-import net.sf.cglib.proxy.Enhancer;
+import com.logicalpractice.collections.support.ChainTemplate;
 
 /**
  * Abstract script class for processing elements of a collection.
@@ -25,22 +28,62 @@ import net.sf.cglib.proxy.Enhancer;
  */
 public abstract class Expression<F,T> implements Function<F,T> {
 
+    /**
+     * Chain compiled by the first instance of each subclass to be applied, weak keys
+     * so that the subclasses can still be unloaded.
+     */
+    private static final ConcurrentMap<Class<?>, ChainTemplate> templates =
+            new MapMaker().weakKeys().makeMap();
+
 	private CapturingProxy<F,T> elementProxy ;
-	
+
+    private ChainTemplate.Replay<F,T> replay ;
+
+    private volatile Accessor<F,T> accessor ;
+
     public T apply(F object)  {
         try {
-      return elementProxy.replay(object) ;
-    } catch (Exception e) {
-      throw new ExpressionException(e);
+            return accessor().get(object) ;
+        } catch (Exception e) {
+            throw new ExpressionException(e);
+        }
     }
-  }
-	
-	@SuppressWarnings("unchecked")
+
+    /**
+     * Starts the capture. Once an instance of this subclass has been applied, later
+     * instances replay its chain on shared proxies instead of capturing, any call
+     * that differs from that chain falls back to a capture of its own.
+     */
 	public F each(Class<F> cls){
-		elementProxy = new CapturingProxy<F,T>();
-		return (F) Enhancer.create(cls, elementProxy);
+        accessor = null;
+        ChainTemplate template = templates.get(getClass());
+        if (template != null && template.getRoot() == cls) {
+            elementProxy = null;
+            replay = template.replay();
+            return replay.proxy();
+        }
+        replay = null;
+		elementProxy = new CapturingProxy<F,T>(cls);
+		return elementProxy.proxy(cls);
 	}
 
+    private Accessor<F,T> accessor() {
+        Accessor<F,T> compiled = accessor;
+        if (compiled == null) {
+            if (replay != null) {
+                compiled = replay.compile();
+            } else {
+                compiled = elementProxy.compile();
+                ChainTemplate template = ChainTemplate.of(compiled);
+                if (template != null) {
+                    templates.putIfAbsent(getClass(), template);
+                }
+            }
+            accessor = compiled;
+        }
+        return compiled;
+    }
+
   private static class ExpressionException extends RuntimeException {
     public ExpressionException(Exception e) {
       super(e);
@@ -0,0 +1,122 @@
+package com.logicalpractice.collections;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.base.Function;
+import org.hamcrest.Matcher;
+
+import com.logicalpractice.collections.support.MatcherValues;
+
+/**
+ * Hash index of a set of elements by the value of a property, built in a single
+ * pass by {@link Selector#indexBy(Iterable, Object)}.
+ * <p>
+ * Building the index costs one scan, after which each {@code equalTo} lookup is a
+ * hash table probe, so selecting the same list repeatedly by an equality key
+ * should build an Index once rather than {@code select} each time:
+ * </p>
+ * <pre>
+ *    Index&lt;Trade, String&gt; byAccount = indexBy(trades, by(Trade.class).getAccountId());
+ *    List&lt;Trade&gt; trades = byAccount.get("ACC-1");
+ * </pre>
+ * <p>
+ * The Index is a snapshot, later changes to the source are not reflected. Within
+ * a key elements keep their source order. Null keys are supported.
+ * </p>
+ *
+ * @param <T> type of the indexed elements
+ * @param <V> type of the key
+ */
+public final class Index<T, V> {
+
+    private final Function<T, V> function;
+
+    private final Map<V, List<T>> buckets;
+
+    private final int elements;
+
+    Index(Iterable<T> items, Function<T, V> function) {
+        this.function = function;
+        this.buckets = new HashMap<V, List<T>>();
+        int count = 0;
+        for (T item : items) {
+            V key;
+            try {
+                key = function.apply(item);
+            } catch (Exception e) {
+                throw Selector.launderException(e);
+            }
+            List<T> bucket = buckets.get(key);
+            if (bucket == null) {
+                bucket = new ArrayList<T>(2);
+                buckets.put(key, bucket);
+            }
+            bucket.add(item);
+            count++;
+        }
+        this.elements = count;
+    }
+
+    /**
+     * @return the function used to compute the keys
+     */
+    public Function<T, V> getFunction() {
+        return function;
+    }
+
+    /**
+     * @return unmodifiable list of the elements whose key equals key, empty if there are none
+     */
+    public List<T> get(V key) {
+        List<T> bucket = buckets.get(key);
+        return bucket == null ? Collections.<T>emptyList() : Collections.unmodifiableList(bucket);
+    }
+
+    public boolean containsKey(V key) {
+        return buckets.containsKey(key);
+    }
+
+    /**
+     * @return unmodifiable set of the distinct keys
+     */
+    public Set<V> keySet() {
+        return Collections.unmodifiableSet(buckets.keySet());
+    }
+
+    /**
+     * @return number of elements indexed
+     */
+    public int size() {
+        return elements;
+    }
+
+    /**
+     * Selects the elements whose key matches.
+     * <p>
+     * An {@code equalTo()} matcher is answered with a single probe, any other matcher
+     * is evaluated once per distinct key rather than once per element. When more than
+     * one key matches the elements are grouped by key rather than in source order.
+     * </p>
+     *
+     * @return new list of the matching elements
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> select(Matcher<V> matcher) {
+        Object value = MatcherValues.equalToValue(matcher);
+        if (value != MatcherValues.NOT_EQUALITY) {
+            return new ArrayList<T>(get((V) value));
+        }
+        List<T> result = new ArrayList<T>();
+        for (Map.Entry<V, List<T>> entry : buckets.entrySet()) {
+            if (matcher.matches(entry.getKey())) {
+                result.addAll(entry.getValue());
+            }
+        }
+        return result;
+    }
+}
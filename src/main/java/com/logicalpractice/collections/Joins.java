@@ -0,0 +1,171 @@
+package com.logicalpractice.collections;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.base.Function;
+import com.google.common.collect.AbstractIterator;
+
+/**
+ * Hash join implementation of the {@code join} methods of {@link Selector}.
+ * <p>
+ * The keys of one side are loaded into a hash table when the join is created,
+ * the other side is then streamed past the table each time the result is
+ * iterated, so each side is read once per iteration no matter how many keys
+ * match. Null keys never match, as in SQL.
+ * </p>
+ */
+final class Joins {
+
+    private Joins() {
+        // prevent construction
+    }
+
+    /**
+     * Builds on whichever side is known to be smaller, pairs come out in the
+     * order of the other side.
+     */
+    static <L, R, K> Iterable<Pair<L, R>> inner(Iterable<L> left, Function<? super L, K> leftKey,
+                                               Iterable<R> right, Function<? super R, K> rightKey) {
+        if (isSmaller(left, right)) {
+            final Map<K, List<L>> table = build(left, leftKey);
+            return probe(right, rightKey, new Emitter<R, L, L, R>() {
+                public void emit(R streamed, List<L> matches, List<Pair<L, R>> out) {
+                    for (L match : matches) {
+                        out.add(new Pair<L, R>(match, streamed));
+                    }
+                }
+            }, table);
+        }
+        final Map<K, List<R>> table = build(right, rightKey);
+        return probe(left, leftKey, new Emitter<L, R, L, R>() {
+            public void emit(L streamed, List<R> matches, List<Pair<L, R>> out) {
+                for (R match : matches) {
+                    out.add(new Pair<L, R>(streamed, match));
+                }
+            }
+        }, table);
+    }
+
+    /**
+     * Always builds on the right so that unmatched left elements can be emitted
+     * as they are streamed.
+     */
+    static <L, R, K> Iterable<Pair<L, R>> leftOuter(Iterable<L> left, Function<? super L, K> leftKey,
+                                                   Iterable<R> right, Function<? super R, K> rightKey) {
+        Map<K, List<R>> table = build(right, rightKey);
+        return probe(left, leftKey, new Emitter<L, R, L, R>() {
+            public void emit(L streamed, List<R> matches, List<Pair<L, R>> out) {
+                if (matches.isEmpty()) {
+                    out.add(new Pair<L, R>(streamed, null));
+                }
+                for (R match : matches) {
+                    out.add(new Pair<L, R>(streamed, match));
+                }
+            }
+        }, table);
+    }
+
+    /**
+     * @param matching true for a semi join, false for an anti join
+     * @return the left elements that do (or don't) have a match, in left order
+     */
+    static <L, R, K> List<L> semi(Iterable<L> left, Function<? super L, K> leftKey,
+                                  Iterable<R> right, Function<? super R, K> rightKey, boolean matching) {
+        Set<K> keys = new HashSet<K>();
+        try {
+            for (R item : right) {
+                K key = rightKey.apply(item);
+                if (key != null) {
+                    keys.add(key);
+                }
+            }
+            List<L> result = new ArrayList<L>();
+            for (L item : left) {
+                K key = leftKey.apply(item);
+                if ((key != null && keys.contains(key)) == matching) {
+                    result.add(item);
+                }
+            }
+            return result;
+        } catch (Exception e) {
+            throw Selector.launderException(e);
+        }
+    }
+
+    // plumbing **************************************************************
+
+    private interface Emitter<S, B, L, R> {
+        /**
+         * @param matches build side elements with the same key as streamed, possibly empty
+         */
+        void emit(S streamed, List<B> matches, List<Pair<L, R>> out);
+    }
+
+    private static boolean isSmaller(Iterable<?> left, Iterable<?> right) {
+        return left instanceof Collection && right instanceof Collection
+                && ((Collection<?>) left).size() < ((Collection<?>) right).size();
+    }
+
+    private static <B, K> Map<K, List<B>> build(Iterable<B> items, Function<? super B, K> key) {
+        Map<K, List<B>> table = new HashMap<K, List<B>>();
+        try {
+            for (B item : items) {
+                K k = key.apply(item);
+                if (k == null) {
+                    continue;
+                }
+                List<B> bucket = table.get(k);
+                if (bucket == null) {
+                    bucket = new ArrayList<B>(1);
+                    table.put(k, bucket);
+                }
+                bucket.add(item);
+            }
+        } catch (Exception e) {
+            throw Selector.launderException(e);
+        }
+        return table;
+    }
+
+    private static <S, B, K, L, R> Iterable<Pair<L, R>> probe(final Iterable<S> streamed, final Function<? super S, K> key,
+                                                             final Emitter<S, B, L, R> emitter, final Map<K, List<B>> table) {
+        return new Iterable<Pair<L, R>>() {
+            public Iterator<Pair<L, R>> iterator() {
+                final Iterator<S> source = streamed.iterator();
+                return new AbstractIterator<Pair<L, R>>() {
+                    private final List<Pair<L, R>> pending = new ArrayList<Pair<L, R>>();
+                    private int next;
+
+                    @Override
+                    protected Pair<L, R> computeNext() {
+                        while (next == pending.size()) {
+                            if (!source.hasNext()) {
+                                return endOfData();
+                            }
+                            pending.clear();
+                            next = 0;
+                            S item = source.next();
+                            K k;
+                            try {
+                                k = key.apply(item);
+                            } catch (Exception e) {
+                                throw Selector.launderException(e);
+                            }
+                            List<B> matches = k == null ? null : table.get(k);
+                            emitter.emit(item, matches == null ? Collections.<B>emptyList() : matches, pending);
+                        }
+                        return pending.get(next++);
+                    }
+                };
+            }
+        };
+    }
+}
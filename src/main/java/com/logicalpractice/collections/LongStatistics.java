@@ -0,0 +1,17 @@
+package com.logicalpractice.collections;
+
+import java.util.LongSummaryStatistics;
+
+/**
+ * Count, sum, minimum and maximum of a set of integral values, accumulated
+ * without boxing by {@link Selector#stats(Iterable, long)} and friends.
+ * <p>
+ * The JDK's {@link LongSummaryStatistics}, so the average of no values is zero,
+ * {@link Selector#average(Iterable, long)} answers NaN instead.
+ * </p>
+ */
+public final class LongStatistics extends LongSummaryStatistics {
+
+    LongStatistics() {
+    }
+}
@@ -0,0 +1,50 @@
+package com.logicalpractice.collections;
+
+/**
+ * Two values produced together, the rows of a {@link Selector#join join}.
+ *
+ * @param <L> type of the left value
+ * @param <R> type of the right value
+ */
+public final class Pair<L, R> {
+
+    private final L left;
+
+    private final R right;
+
+    public Pair(L left, R right) {
+        this.left = left;
+        this.right = right;
+    }
+
+    public L getLeft() {
+        return left;
+    }
+
+    public R getRight() {
+        return right;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Pair)) {
+            return false;
+        }
+        Pair<?, ?> other = (Pair<?, ?>) o;
+        return (left == null ? other.left == null : left.equals(other.left))
+                && (right == null ? other.right == null : right.equals(other.right));
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (left == null ? 0 : left.hashCode()) + (right == null ? 0 : right.hashCode());
+    }
+
+    @Override
+    public String toString() {
+        return "(" + left + ", " + right + ")";
+    }
+}
@@ -0,0 +1,279 @@
+package com.logicalpractice.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import org.hamcrest.Matcher;
+
+import com.logicalpractice.collections.support.Accessor;
+
+/**
+ * Fork/join implementation of the {@code parallel*} methods of {@link Selector}.
+ * <p>
+ * The source list is cut into contiguous chunks of at least
+ * {@link #getThreshold() threshold} elements, each chunk is processed by one
+ * task and the per chunk results are stitched back together in source order.
+ * Lists smaller than the threshold, and lists that are not {@link java.util.RandomAccess},
+ * never leave the calling thread.
+ * </p>
+ */
+final class Parallel {
+
+    static final int DEFAULT_THRESHOLD = 8192;
+
+    private static volatile int threshold = DEFAULT_THRESHOLD;
+
+    private static volatile ForkJoinPool pool;
+
+    private Parallel() {
+        // prevent construction
+    }
+
+    static int getThreshold() {
+        return threshold;
+    }
+
+    static void setThreshold(int value) {
+        if (value < 1) {
+            throw new IllegalArgumentException("threshold must be positive, was " + value);
+        }
+        threshold = value;
+    }
+
+    static void setPool(ForkJoinPool value) {
+        pool = value;
+    }
+
+    static ForkJoinPool pool() {
+        ForkJoinPool current = pool;
+        if (current == null) {
+            synchronized (Parallel.class) {
+                current = pool;
+                if (current == null) {
+                    current = new ForkJoinPool();
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * @return true if items is worth splitting
+     */
+    static boolean isSplittable(List<?> items) {
+        return items instanceof java.util.RandomAccess && items.size() > threshold;
+    }
+
+    // operations ************************************************************
+
+    static <T, V> List<T> select(final List<T> items, final Function<T, V> function, final Matcher<V> matcher) {
+        return select(items, new Predicate<T>() {
+            public boolean apply(T input) {
+                return matcher.matches(function.apply(input));
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> List<T> select(final List<T> items, final Predicate<T> predicate) {
+        final int chunkSize = chunkSize(items.size());
+        final List<T>[] parts = new List[chunkCount(items.size(), chunkSize)];
+
+        forEachChunk(items.size(), chunkSize, new ChunkProcessor() {
+            public void process(int chunk, int from, int to) {
+                List<T> part = new ArrayList<T>();
+                for (int i = from; i < to; i++) {
+                    T item = items.get(i);
+                    if (predicate.apply(item)) {
+                        part.add(item);
+                    }
+                }
+                parts[chunk] = part;
+            }
+        });
+
+        int total = 0;
+        for (List<T> part : parts) {
+            total += part.size();
+        }
+        List<T> result = new ArrayList<T>(total);
+        for (List<T> part : parts) {
+            result.addAll(part);
+        }
+        return result;
+    }
+
+    /**
+     * Each chunk writes directly into its own range of the result, so there is
+     * nothing to merge.
+     */
+    @SuppressWarnings("unchecked")
+    static <T, V> List<V> collect(final List<T> items, final Function<T, V> function) {
+        final Object[] values = new Object[items.size()];
+
+        forEachChunk(items.size(), chunkSize(items.size()), new ChunkProcessor() {
+            public void process(int chunk, int from, int to) {
+                for (int i = from; i < to; i++) {
+                    values[i] = function.apply(items.get(i));
+                }
+            }
+        });
+        return (List<V>) Arrays.asList(values);
+    }
+
+    static <T, V> int remove(final List<T> items, final Function<T, V> function, final Matcher<V> matcher) {
+        final boolean[] marks = new boolean[items.size()];
+
+        forEachChunk(items.size(), chunkSize(items.size()), new ChunkProcessor() {
+            public void process(int chunk, int from, int to) {
+                for (int i = from; i < to; i++) {
+                    marks[i] = matcher.matches(function.apply(items.get(i)));
+                }
+            }
+        });
+        return removeMarked(items, marks);
+    }
+
+    static <T> LongStatistics longStats(final List<T> items, final Accessor<T, ?> accessor) {
+        final int chunkSize = chunkSize(items.size());
+        final LongStatistics[] parts = new LongStatistics[chunkCount(items.size(), chunkSize)];
+
+        forEachChunk(items.size(), chunkSize, new ChunkProcessor() {
+            public void process(int chunk, int from, int to) {
+                LongStatistics part = new LongStatistics();
+                for (int i = from; i < to; i++) {
+                    part.accept(accessor.getLong(items.get(i)));
+                }
+                parts[chunk] = part;
+            }
+        });
+        LongStatistics result = new LongStatistics();
+        for (LongStatistics part : parts) {
+            result.combine(part);
+        }
+        return result;
+    }
+
+    static <T> DoubleStatistics doubleStats(final List<T> items, final Accessor<T, ?> accessor) {
+        final int chunkSize = chunkSize(items.size());
+        final DoubleStatistics[] parts = new DoubleStatistics[chunkCount(items.size(), chunkSize)];
+
+        forEachChunk(items.size(), chunkSize, new ChunkProcessor() {
+            public void process(int chunk, int from, int to) {
+                DoubleStatistics part = new DoubleStatistics();
+                for (int i = from; i < to; i++) {
+                    part.accept(accessor.getDouble(items.get(i)));
+                }
+                parts[chunk] = part;
+            }
+        });
+        DoubleStatistics result = new DoubleStatistics();
+        for (DoubleStatistics part : parts) {
+            result.combine(part);
+        }
+        return result;
+    }
+
+    /**
+     * Removes the elements of list whose index is marked, sliding the survivors down
+     * and truncating the list once.
+     * <p>
+     * The first marked element is removed with {@link List#remove(int)} before
+     * anything is moved, so a list that cannot shrink fails without having been
+     * modified.
+     * </p>
+     *
+     * @return number of elements removed
+     */
+    static <T> int removeMarked(List<T> list, boolean[] marks) {
+        int first = 0;
+        while (first < marks.length && !marks[first]) {
+            first++;
+        }
+        if (first == marks.length) {
+            return 0;
+        }
+        list.remove(first);
+
+        // after the first removal the element originally at read sits at read - 1
+        int write = first;
+        for (int read = first + 1; read < marks.length; read++) {
+            if (!marks[read]) {
+                if (write != read - 1) {
+                    list.set(write, list.get(read - 1));
+                }
+                write++;
+            }
+        }
+        list.subList(write, list.size()).clear();
+        return marks.length - write;
+    }
+
+    // fork/join plumbing ****************************************************
+
+    interface ChunkProcessor {
+        void process(int chunk, int from, int to);
+    }
+
+    static void forEachChunk(int size, int chunkSize, ChunkProcessor processor) {
+        int chunks = chunkCount(size, chunkSize);
+        if (chunks == 0) {
+            return;
+        }
+        ChunkTask task = new ChunkTask(processor, size, chunkSize, 0, chunks);
+        if (chunks == 1) {
+            task.compute();
+        } else {
+            pool().invoke(task);
+        }
+    }
+
+    /**
+     * Chunks are at least threshold elements, and no smaller than needed to give
+     * each worker a handful of tasks to balance with.
+     */
+    static int chunkSize(int size) {
+        int parallelism = pool().getParallelism();
+        return Math.max(threshold, size / (parallelism * 4) + 1);
+    }
+
+    private static int chunkCount(int size, int chunkSize) {
+        return (size + chunkSize - 1) / chunkSize;
+    }
+
+    private static class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ChunkProcessor processor;
+        private final int size;
+        private final int chunkSize;
+        private final int lo;
+        private final int hi;
+
+        ChunkTask(ChunkProcessor processor, int size, int chunkSize, int lo, int hi) {
+            this.processor = processor;
+            this.size = size;
+            this.chunkSize = chunkSize;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                int from = lo * chunkSize;
+                processor.process(lo, from, Math.min(size, from + chunkSize));
+            } else {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new ChunkTask(processor, size, chunkSize, lo, mid),
+                        new ChunkTask(processor, size, chunkSize, mid, hi));
+            }
+        }
+    }
+}
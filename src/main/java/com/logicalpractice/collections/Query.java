@@ -0,0 +1,321 @@
+package com.logicalpractice.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import org.hamcrest.Matcher;
+
+import com.logicalpractice.collections.support.Instrumentation;
+import com.logicalpractice.collections.support.Instrumentation.Observation;
+
+/**
+ * A reusable select/collect pipeline that runs in a single pass.
+ * <p>
+ * Conditions, the projection and the limit are applied element by element in one
+ * loop, no intermediate collections are built and evaluation stops as soon as the
+ * limit is reached. For example:
+ * </p>
+ * <pre>
+ *    List&lt;String&gt; names = query(people)
+ *          .where(by(Person.class).getAge()).matching(greaterThan(18))
+ *          .where(by(Person.class).getLastName()).matching(not(equalTo("Smith")))
+ *          .project(by(Person.class).getFirstName())
+ *          .limit(10)
+ *          .list();
+ * </pre>
+ * <p>
+ * Query objects are immutable, every method returns a new Query, so a query can be
+ * built once from {@link Selector#query(Class)} and kept in a constant, then
+ * executed against any number of sources with {@link #list(Iterable)},
+ * {@link #count(Iterable)} and friends. Conditions always apply to the source
+ * elements, regardless of where they appear relative to {@link #project(Object)}.
+ * </p>
+ *
+ * @param <T> type of the source elements
+ * @param <R> type of the result elements
+ */
+public final class Query<T, R> {
+
+    /**
+     * Second half of a {@link Query#where(Object)} condition.
+     */
+    public static final class Condition<T, R, V> {
+        private final Query<T, R> query;
+        private final Function<T, V> function;
+
+        Condition(Query<T, R> query, Function<T, V> function) {
+            this.query = query;
+            this.function = function;
+        }
+
+        /**
+         * @param matcher non-null matcher applied to the value of the condition
+         * @return a new Query including this condition
+         */
+        public Query<T, R> matching(final Matcher<V> matcher) {
+            if (matcher == null) {
+                throw new IllegalArgumentException("matcher is required");
+            }
+            return query.filter(new Matching<T, V>(function, matcher));
+        }
+    }
+
+    /**
+     * Predicate of a condition, kept apart so that its clause can be reported.
+     */
+    private static final class Matching<T, V> implements Predicate<T> {
+        final Function<T, V> function;
+        final Matcher<V> matcher;
+
+        Matching(Function<T, V> function, Matcher<V> matcher) {
+            this.function = function;
+            this.matcher = matcher;
+        }
+
+        public boolean apply(T input) {
+            return matcher.matches(function.apply(input));
+        }
+    }
+
+    private interface Sink<R> {
+        /**
+         * @return false to stop the loop
+         */
+        boolean accept(R value);
+    }
+
+    // fields ****************************************************************
+
+    private final Iterable<T> source;
+
+    private final Predicate<T>[] filters;
+
+    private final Function<T, R> projection;
+
+    private final int limit;
+
+    // constructors **********************************************************
+
+    @SuppressWarnings("unchecked")
+    Query(Iterable<T> source) {
+        this(source, new Predicate[0], null, -1);
+    }
+
+    private Query(Iterable<T> source, Predicate<T>[] filters, Function<T, R> projection, int limit) {
+        this.source = source;
+        this.filters = filters;
+        this.projection = projection;
+        this.limit = limit;
+    }
+
+    // building **************************************************************
+
+    /**
+     * Starts a condition on the value selected by clause, complete it with
+     * {@link Condition#matching(Matcher)}.
+     *
+     * @param clause should be used as by(YourClass.class).getProperty()
+     */
+    public <V> Condition<T, R, V> where(V clause) {
+        Function<T, V> accessor = Selector.getCurrentAccessor(clause);
+        return new Condition<T, R, V>(this, accessor);
+    }
+
+    /**
+     * Starts a condition on the value returned by function.
+     */
+    public <V> Condition<T, R, V> where(Function<T, V> function) {
+        if (function == null) {
+            throw new IllegalArgumentException("function is required");
+        }
+        return new Condition<T, R, V>(this, function);
+    }
+
+    /**
+     * @return a new Query that also requires elements to satisfy predicate
+     */
+    public Query<T, R> filter(Predicate<T> predicate) {
+        if (predicate == null) {
+            throw new IllegalArgumentException("predicate is required");
+        }
+        Predicate<T>[] extended = Arrays.copyOf(filters, filters.length + 1);
+        extended[filters.length] = predicate;
+        return new Query<T, R>(source, extended, projection, limit);
+    }
+
+    /**
+     * @param clause should be used as by(YourClass.class).getProperty()
+     * @return a new Query producing the value selected by clause for each matching element
+     */
+    public <V> Query<T, V> project(V clause) {
+        Function<T, V> accessor = Selector.getCurrentAccessor(clause);
+        return new Query<T, V>(source, filters, accessor, limit);
+    }
+
+    /**
+     * @return a new Query producing the result of function for each matching element
+     */
+    public <V> Query<T, V> project(Function<T, V> function) {
+        if (function == null) {
+            throw new IllegalArgumentException("function is required");
+        }
+        return new Query<T, V>(source, filters, function, limit);
+    }
+
+    /**
+     * @param max maximum number of results, zero or more
+     * @return a new Query that stops after max results
+     */
+    public Query<T, R> limit(int max) {
+        if (max < 0) {
+            throw new IllegalArgumentException("limit must not be negative, was " + max);
+        }
+        return new Query<T, R>(source, filters, projection, max);
+    }
+
+    /**
+     * @return a new Query bound to items, used by the no argument execution methods
+     */
+    public Query<T, R> over(Iterable<T> items) {
+        if (items == null) {
+            throw new IllegalArgumentException("items is required");
+        }
+        return new Query<T, R>(items, filters, projection, limit);
+    }
+
+    // execution *************************************************************
+
+    public List<R> list() {
+        return list(boundSource());
+    }
+
+    public List<R> list(Iterable<T> items) {
+        return into(items, new ArrayList<R>());
+    }
+
+    public <C extends Collection<? super R>> C into(C destination) {
+        return into(boundSource(), destination);
+    }
+
+    public <C extends Collection<? super R>> C into(Iterable<T> items, final C destination) {
+        run(items, "query.list", true, new Sink<R>() {
+            public boolean accept(R value) {
+                destination.add(value);
+                return true;
+            }
+        });
+        return destination;
+    }
+
+    /**
+     * @return the first result, or null if there are none
+     */
+    public R first() {
+        return first(boundSource());
+    }
+
+    public R first(Iterable<T> items) {
+        final List<R> holder = new ArrayList<R>(1);
+        run(items, "query.first", true, new Sink<R>() {
+            public boolean accept(R value) {
+                holder.add(value);
+                return false;
+            }
+        });
+        return holder.isEmpty() ? null : holder.get(0);
+    }
+
+    /**
+     * @return number of results, the projection is not evaluated
+     */
+    public int count() {
+        return count(boundSource());
+    }
+
+    public int count(Iterable<T> items) {
+        return run(items, "query.count", false, new Sink<R>() {
+            public boolean accept(R value) {
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Reported as the first captured clause among the conditions, or the
+     * projection when no condition is one.
+     *
+     * @param project false to pass null to sink instead of evaluating the projection
+     * @return number of values passed to sink
+     */
+    @SuppressWarnings("unchecked")
+    private int run(Iterable<T> items, String operation, boolean project, Sink<R> sink) {
+        if (limit == 0) {
+            return 0;
+        }
+        Observation observed = observe(items);
+        long scanned = 0;
+        int produced = 0;
+        try {
+            for (T item : items) {
+                scanned++;
+                if (accepts(item)) {
+                    R value;
+                    try {
+                        value = projection == null ? (R) item : project ? projection.apply(item) : null;
+                    } catch (Exception e) {
+                        throw Selector.launderException(e);
+                    }
+                    boolean more = sink.accept(value);
+                    if (++produced == limit || !more) {
+                        break;
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            if (observed != null) {
+                observed.failed(operation, e);
+            }
+            throw e;
+        }
+        if (observed != null) {
+            observed.completed(operation, scanned, produced);
+        }
+        return produced;
+    }
+
+    private Observation observe(Iterable<T> items) {
+        for (Predicate<T> filter : filters) {
+            if (filter instanceof Matching) {
+                Observation observed = Instrumentation.observe(((Matching<T, ?>) filter).function, items);
+                if (observed != null) {
+                    return observed;
+                }
+            }
+        }
+        return projection == null ? null : Instrumentation.observe(projection, items);
+    }
+
+    private boolean accepts(T item) {
+        try {
+            for (Predicate<T> filter : filters) {
+                if (!filter.apply(item)) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            throw Selector.launderException(e);
+        }
+    }
+
+    private Iterable<T> boundSource() {
+        if (source == null) {
+            throw new IllegalStateException("Query is not bound to a source, use over(items) or pass the items to execute");
+        }
+        return source;
+    }
+}
@@ -3,15 +3,21 @@ package com.logicalpractice.collections;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
 import org.hamcrest.Matcher;
 
+import com.logicalpractice.collections.support.Accessor;
 import com.logicalpractice.collections.support.CapturingProxy;
+import com.logicalpractice.collections.support.Instrumentation;
+import com.logicalpractice.collections.support.Instrumentation.Observation;
 import com.logicalpractice.collections.support.MethodCapture;
+import com.logicalpractice.collections.typed.Searchable;
 import com.logicalpractice.collections.typed.Typed;
 
 /**
@@ -66,6 +72,10 @@ public class Selector {
      *         during this operation.
      */
     public static <T, V> Iterable<T> select(Iterable<T> items, final Function<T, V> transform, final Matcher<V> matcher) {
+        List<T> found = lookup(items, transform, matcher);
+        if (found != null) {
+            return found;
+        }
         return select(items, new Predicate<T>() {
             public boolean apply(T input) {
                 return matcher.matches(transform.apply(input));
@@ -86,6 +96,12 @@ public class Selector {
      * <pre>
      * select(listOfPeople, where(Person.class).getFirstName(), equalsIgnoreCase(&quot;smith&quot;));
      * </pre>
+     * <p>
+     * When items is {@link Searchable}, for example a list from
+     * {@link com.logicalpractice.collections.typed.TypedUtils#indexedList(List, Class)},
+     * and has an index on the where clause an {@code equalTo()} selection is
+     * answered from the index without a scan.
+     * </p>
      *
      * @param <T>         Type of Iterable elements
      * @param <V>         Type of the value used for the matcher
@@ -100,19 +116,40 @@ public class Selector {
      *         during this operation.
      */
     public static <T, V> Iterable<T> select(Iterable<T> items, V whereclause, Matcher<V> matcher) {
-        List<T> result = new LinkedList<T>();
-        CapturingProxy<T, V> proxy = getCurrentCapture(whereclause);
+        Accessor<T, V> accessor = getCurrentAccessor(whereclause);
+        return selectInto(items, accessor, matcher, new ArrayList<T>());
+    }
 
-        for (T item : items) {
-            try {
-                if (matcher.matches(proxy.replay(item))) {
-                    result.add(item);
-                }
-            } catch (Exception e) {
-                throw launderException(e);
-            }
-        }
-        return result;
+    /**
+     * Select matching items from Iterable items using a where clause, adding them
+     * to destination rather than a new list.
+     *
+     * @param items       None null instance of Iterable
+     * @param whereclause return value from the where(ClassName.class) script like thing
+     * @param matcher     Hamcrest matcher that if evalulated to true will result in the
+     *                    element being added to destination
+     * @param destination collection the selected elements are added to
+     * @return destination
+     * @see #select(Iterable, Object, Matcher)
+     */
+    public static <T, V, C extends Collection<? super T>> C select(Iterable<T> items, V whereclause, Matcher<V> matcher, C destination) {
+        Accessor<T, V> accessor = getCurrentAccessor(whereclause);
+        return selectInto(items, accessor, matcher, destination);
+    }
+
+    /**
+     * Select matching items from Iterable items by evalulating the Function object
+     * for each element, adding them to destination.
+     *
+     * @param items       None null instance of Iterable
+     * @param transform   None null instance of Function
+     * @param matcher     Hamcrest matcher that if evalulated to true will result in the
+     *                    element being added to destination
+     * @param destination collection the selected elements are added to
+     * @return destination
+     */
+    public static <T, V, C extends Collection<? super T>> C select(Iterable<T> items, Function<T, V> transform, Matcher<V> matcher, C destination) {
+        return selectInto(items, transform, matcher, destination);
     }
 
     /**
@@ -172,6 +209,24 @@ public class Selector {
         }
     }
 
+    /**
+     * As {@link #select(Object, Matcher)} but the selected elements are added to
+     * destination.
+     *
+     * @param value       Value returned by {from(Iterable)} it's value will be ignored
+     * @param matcher     Hamcrest matcher
+     * @param destination collection the selected elements are added to
+     * @return destination
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, V, C extends Collection<? super T>> C select(V value, Matcher<V> matcher, C destination) {
+        try {
+            return select((Iterable<T>) localItems.get(), value, matcher, destination);
+        } finally {
+            localItems.remove();
+        }
+    }
+
     public static <T> Iterable<T> select(Iterable<T> items, final Matcher<T> matcher) {
         return select(items, is(matcher));
     }
@@ -219,16 +274,33 @@ public class Selector {
      *         iteration order of the source list.
      */
     public static <T, V> Iterable<V> collect(Iterable<T> items, Function<T, V> function) {
-        List<V> result = new LinkedList<V>();
+        return collectInto(items, function, new ArrayList<V>(sizeOf(items)));
+    }
 
-        for (T item : items) {
-            try {
-                result.add(function.apply(item));
-            } catch (Exception e) {
-                throw launderException(e);
-            }
-        }
-        return result;
+    /**
+     * Maps each element of items using function, adding the values to destination.
+     *
+     * @param items       Non-null Source collection
+     * @param function    Non-null Function
+     * @param destination collection the values are added to, in iteration order of items
+     * @return destination
+     */
+    public static <T, V, C extends Collection<? super V>> C collect(Iterable<T> items, Function<T, V> function, C destination) {
+        return collectInto(items, function, destination);
+    }
+
+    /**
+     * Maps each element of items using function into array. Follows the contract of
+     * {@link Collection#toArray(Object[])}, if array is large enough it is filled and
+     * returned, otherwise a new array of the same runtime type is allocated.
+     *
+     * @param items    Non-null Source collection
+     * @param function Non-null Function
+     * @param array    the array the values are written to if it is big enough
+     * @return an array containing the values in iteration order of items
+     */
+    public static <T, V> V[] collect(Iterable<T> items, Function<T, V> function, V[] array) {
+        return collectInto(items, function, array);
     }
 
     /**
@@ -246,17 +318,35 @@ public class Selector {
      *         iteration order of the source list.
      */
     public static <T, V> Iterable<V> collect(Iterable<T> items, V fromclause) {
-        List<V> result = new LinkedList<V>();
-        CapturingProxy<T, V> proxy = getCurrentCapture(fromclause);
+        Accessor<T, V> accessor = getCurrentAccessor(fromclause);
+        return collectInto(items, accessor, new ArrayList<V>(sizeOf(items)));
+    }
 
-        for (T item : items) {
-            try {
-                result.add(proxy.replay(item));
-            } catch (Exception e) {
-                throw launderException(e);
-            }
-        }
-        return result;
+    /**
+     * Collects the values selected by fromclause into destination.
+     *
+     * @param items       Non-null Source collection
+     * @param fromclause  should be used as by(YourClass.class).getProperty()
+     * @param destination collection the values are added to, in iteration order of items
+     * @return destination
+     */
+    public static <T, V, C extends Collection<? super V>> C collect(Iterable<T> items, V fromclause, C destination) {
+        Accessor<T, V> accessor = getCurrentAccessor(fromclause);
+        return collectInto(items, accessor, destination);
+    }
+
+    /**
+     * Collects the values selected by fromclause into array, following the contract
+     * of {@link Collection#toArray(Object[])}.
+     *
+     * @param items      Non-null Source collection
+     * @param fromclause should be used as by(YourClass.class).getProperty()
+     * @param array      the array the values are written to if it is big enough
+     * @return an array containing the values in iteration order of items
+     */
+    public static <T, V> V[] collect(Iterable<T> items, V fromclause, V[] array) {
+        Accessor<T, V> accessor = getCurrentAccessor(fromclause);
+        return collectInto(items, accessor, array);
     }
 
     @SuppressWarnings("unchecked")
@@ -268,119 +358,1838 @@ public class Selector {
         }
     }
 
-    public static <T, V> void remove(Iterable<T> items, Function<T, V> function, Matcher<V> matcher) {
-        for (Iterator<T> it = items.iterator(); it.hasNext();) {
-            T item = it.next();
-            try {
-                if (matcher.matches(function.apply(item))) {
-                    it.remove();
-                }
-            } catch (Exception e) {
-                throw launderException(e);
-            }
-        }
+    /**
+     * Collects the value selected by the from clause for each element into a int[],
+     * in iteration order. When the captured chain ends in a primitive getter the
+     * values are never boxed.
+     * <pre>
+     * int[] ages = collectInt(people, by(Person.class).getAge());
+     * </pre>
+     */
+    public static <T, V> int[] collectInt(Iterable<T> items, V fromclause) {
+        Accessor<T, V> accessor = getCurrentAccessor(fromclause);
+        return collectIntWith(items, accessor);
     }
 
-    public static <T, V> void remove(Iterable<T> items, V whereclause, Matcher<V> matcher) {
-        CapturingProxy<T, V> proxy = getCurrentCapture(whereclause);
+    /**
+     * Function version of {@link #collectInt(Iterable, Object)}, the values returned
+     * by function are unboxed with {@link Number#intValue()}.
+     */
+    public static <T> int[] collectInt(Iterable<T> items, Function<T, ? extends Number> function) {
+        return collectIntWith(items, function);
+    }
 
-        for (Iterator<T> it = items.iterator(); it.hasNext();) {
-            T item = it.next();
-            try {
-                if (matcher.matches(proxy.replay(item))) {
-                    it.remove();
-                }
-            } catch (Exception e) {
-                throw launderException(e);
-            }
+    /**
+     * from() version of {@link #collectInt(Iterable, Object)}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, V> int[] collectInt(V value) {
+        try {
+            return collectInt((Iterable<T>) localItems.get(), value);
+        } finally {
+            localItems.remove();
         }
     }
 
-    public static <V> void remove(V value, Matcher<V> matcher) {
+    /**
+     * Collects the value selected by the from clause for each element into a long[],
+     * in iteration order. When the captured chain ends in a primitive getter the
+     * values are never boxed.
+     * <pre>
+     * long[] ages = collectLong(people, by(Person.class).getAge());
+     * </pre>
+     */
+    public static <T, V> long[] collectLong(Iterable<T> items, V fromclause) {
+        Accessor<T, V> accessor = getCurrentAccessor(fromclause);
+        return collectLongWith(items, accessor);
+    }
+
+    /**
+     * Function version of {@link #collectLong(Iterable, Object)}, the values returned
+     * by function are unboxed with {@link Number#longValue()}.
+     */
+    public static <T> long[] collectLong(Iterable<T> items, Function<T, ? extends Number> function) {
+        return collectLongWith(items, function);
+    }
+
+    /**
+     * from() version of {@link #collectLong(Iterable, Object)}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, V> long[] collectLong(V value) {
         try {
-            remove(localItems.get(), value, matcher);
+            return collectLong((Iterable<T>) localItems.get(), value);
         } finally {
             localItems.remove();
         }
     }
 
+    /**
+     * Collects the value selected by the from clause for each element into a double[],
+     * in iteration order. When the captured chain ends in a primitive getter the
+     * values are never boxed.
+     * <pre>
+     * double[] ages = collectDouble(people, by(Person.class).getAge());
+     * </pre>
+     */
+    public static <T, V> double[] collectDouble(Iterable<T> items, V fromclause) {
+        Accessor<T, V> accessor = getCurrentAccessor(fromclause);
+        return collectDoubleWith(items, accessor);
+    }
 
     /**
-     * Provides the where clause for {@link #select(Iterable, Object, Matcher)}.
-     * Returns an instance of the type provided, this proxy will attempt to
-     * record the subsequent method invokations in order for them to be replayed
-     * later by the {@link #select(Iterable, Object, Matcher)}.
+     * Function version of {@link #collectDouble(Iterable, Object)}, the values returned
+     * by function are unboxed with {@link Number#doubleValue()}.
+     */
+    public static <T> double[] collectDouble(Iterable<T> items, Function<T, ? extends Number> function) {
+        return collectDoubleWith(items, function);
+    }
+
+    /**
+     * from() version of {@link #collectDouble(Iterable, Object)}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, V> double[] collectDouble(V value) {
+        try {
+            return collectDouble((Iterable<T>) localItems.get(), value);
+        } finally {
+            localItems.remove();
+        }
+    }
+
+    /**
+     * Removes the elements of items for which the value of function matches.
      * <p>
-     * {@link com.logicalpractice.collections.support.MethodCapture#capture(java.lang.Class)} provides the proxy and it in turn uses
-     * CGLIB to implement it. There are some rescitions to the use of
-     * MethodCapture please refer it's documentation for more information.
+     * {@link RandomAccess} lists are compacted in a single pass, survivors are slid
+     * down over the removed elements and the list is truncated once, rather than
+     * shifting the tail for each removal. Other collections are purged with
+     * {@link Iterator#remove()}.
      * </p>
      *
-     * @param <T> type of the instance
-     * @param cls none null class
-     * @return Capturing instance of cls
-     * @throws IllegalArgumentException if cls is null
+     * @return number of elements removed
      */
-    @SuppressWarnings("cast")
-    public static <T> T where(Class<T> cls) {
-        if (cls == null) {
-            throw new IllegalArgumentException("Null cls parameter for where(Class). cls is required");
+    public static <T, V> int remove(Iterable<T> items, Function<T, V> function, Matcher<V> matcher) {
+        return removeWith(items, function, matcher, null);
+    }
+
+    /**
+     * Removes the elements of items for which the value selected by the where clause
+     * matches.
+     * <pre>
+     * int purged = remove(trades, where(Trade.class).isExpired(), equalTo(true));
+     * </pre>
+     *
+     * @return number of elements removed
+     * @see #remove(Iterable, Function, Matcher)
+     */
+    public static <T, V> int remove(Iterable<T> items, V whereclause, Matcher<V> matcher) {
+        Accessor<T, V> accessor = getCurrentAccessor(whereclause);
+        return removeWith(items, accessor, matcher, null);
+    }
+
+    /**
+     * from() version of {@link #remove(Iterable, Object, Matcher)}.
+     *
+     * @return number of elements removed
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, V> int remove(V value, Matcher<V> matcher) {
+        try {
+            return remove((Iterable<T>) localItems.get(), value, matcher);
+        } finally {
+            localItems.remove();
         }
-        return (T) MethodCapture.capture(cls);
     }
 
     /**
-     * by() is just an alais for {@link #where(Class)}, but is included
-     * to provide a more logical syntax.
+     * As {@link #remove(Iterable, Function, Matcher)} but the removed elements are
+     * added, in source order, to removed.
      *
-     * @param <T>
-     * @param cls non-null class
-     * @return Capturing instance of cls
-     * @see #where(Class)
+     * @return removed
      */
-    public static <T> T by(Class<T> cls) {
-        return where(cls);
+    public static <T, V, C extends Collection<? super T>> C remove(Iterable<T> items, Function<T, V> function, Matcher<V> matcher, C removed) {
+        Preconditions.checkNotNull(removed, "removed is required");
+        removeWith(items, function, matcher, removed);
+        return removed;
     }
 
     /**
-     * from source method, to be used in conjunction with
-     * {@link #select(Object, Matcher)}.
-     * <p>
-     * It is important to understand that this method uses a ThreadLocal to pass
-     * that actual collection to the select method. If the caller fails to call
-     * {@link #select(Object, Matcher)} then the reference will be left hanging,
-     * and will prevent the collection from being garbage collected.
-     * </p>
-     * <p>
-     * This method must obtain the runtime type of the contents of the Iterable.
-     * There are two ways of providing runtime type information to the
-     * Selector, first is to supply a none empty list, the first
-     * element will be used as the prototype for CapturingProxy. An Alternative
-     * is to use an implementation of {@link Typed}, Typed implementations of
-     * the collection classes can be obtained with via
-     * </p>
-     * <p>
-     * {@link com.logicalpractice.collections.support.MethodCapture#capture(Class)} provides the proxy and it in turn uses
-     * CGLIB to implement it. There are some rescitions to the use of
-     * MethodCapture please refer it's documentation for more information.
-     * </p>
+     * As {@link #remove(Iterable, Object, Matcher)} but the removed elements are
+     * added, in source order, to removed.
      *
-     * @param <T>
-     * @param items
-     * @return
+     * @return removed
      */
-    @SuppressWarnings("cast")
-    public final static <T> T from(Iterable<T> items) {
-        Class<T> type = typeOfIterable(items);
-        localItems.set(items);
-        return (T) MethodCapture.capture(type);
+    public static <T, V, C extends Collection<? super T>> C remove(Iterable<T> items, V whereclause, Matcher<V> matcher, C removed) {
+        Preconditions.checkNotNull(removed, "removed is required");
+        Accessor<T, V> accessor = getCurrentAccessor(whereclause);
+        removeWith(items, accessor, matcher, removed);
+        return removed;
+    }
+
+    /**
+     * from() version of {@link #remove(Iterable, Object, Matcher, Collection)}.
+     *
+     * @return removed
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, V, C extends Collection<? super T>> C remove(V value, Matcher<V> matcher, C removed) {
+        try {
+            return remove((Iterable<T>) localItems.get(), value, matcher, removed);
+        } finally {
+            localItems.remove();
+        }
+    }
+
+    // short circuiting ******************************************************
+
+    /**
+     * Returns the first element of items for which the value of transform matches,
+     * stopping as soon as one is found.
+     *
+     * @return the first matching element, or null if there isn't one
+     */
+    public static <T, V> T selectFirst(Iterable<T> items, Function<T, V> transform, Matcher<V> matcher) {
+        return firstWith(items, transform, matcher);
+    }
+
+    /**
+     * Returns the first element of items for which the value selected by the where
+     * clause matches, stopping as soon as one is found.
+     * <pre>
+     * Person smith = selectFirst(people, where(Person.class).getLastName(), equalTo(&quot;Smith&quot;));
+     * </pre>
+     *
+     * @return the first matching element, or null if there isn't one
+     */
+    public static <T, V> T selectFirst(Iterable<T> items, V whereclause, Matcher<V> matcher) {
+        Accessor<T, V> accessor = getCurrentAccessor(whereclause);
+        return firstWith(items, accessor, matcher);
+    }
+
+    /**
+     * from() version of {@link #selectFirst(Iterable, Object, Matcher)}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, V> T selectFirst(V value, Matcher<V> matcher) {
+        try {
+            return selectFirst((Iterable<T>) localItems.get(), value, matcher);
+        } finally {
+            localItems.remove();
+        }
+    }
+
+    /**
+     * @return the first element of items satisfying predicate, or null if there isn't one
+     */
+    public static <T> T selectFirst(Iterable<T> items, Predicate<T> predicate) {
+        return firstWith(items, predicate, null);
+    }
+
+    /**
+     * @return true if the value of transform matches for at least one element,
+     *         evaluation stops at the first match
+     */
+    public static <T, V> boolean any(Iterable<T> items, Function<T, V> transform, Matcher<V> matcher) {
+        return anyWith(items, transform, matcher, "any");
+    }
+
+    /**
+     * @return true if the value selected by the where clause matches for at least one
+     *         element, evaluation stops at the first match
+     */
+    public static <T, V> boolean any(Iterable<T> items, V whereclause, Matcher<V> matcher) {
+        Accessor<T, V> accessor = getCurrentAccessor(whereclause);
+        return anyWith(items, accessor, matcher, "any");
     }
 
+    /**
+     * from() version of {@link #any(Iterable, Object, Matcher)}.
+     */
     @SuppressWarnings("unchecked")
-    private static <F, V> CapturingProxy<F, V> getCurrentCapture(V value) {
-        return (CapturingProxy<F, V>) MethodCapture.clearAndReturn();
+    public static <T, V> boolean any(V value, Matcher<V> matcher) {
+        try {
+            return any((Iterable<T>) localItems.get(), value, matcher);
+        } finally {
+            localItems.remove();
+        }
+    }
+
+    public static <T> boolean any(Iterable<T> items, Predicate<T> predicate) {
+        return anyWith(items, predicate, null, "any");
+    }
+
+    /**
+     * @return true if the value of transform matches for every element (or there are
+     *         no elements), evaluation stops at the first element that doesn't match
+     */
+    public static <T, V> boolean all(Iterable<T> items, Function<T, V> transform, Matcher<V> matcher) {
+        return allWith(items, transform, matcher);
     }
 
+    /**
+     * @return true if the value selected by the where clause matches for every element
+     *         (or there are no elements), evaluation stops at the first element that
+     *         doesn't match
+     */
+    public static <T, V> boolean all(Iterable<T> items, V whereclause, Matcher<V> matcher) {
+        Accessor<T, V> accessor = getCurrentAccessor(whereclause);
+        return allWith(items, accessor, matcher);
+    }
+
+    /**
+     * from() version of {@link #all(Iterable, Object, Matcher)}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, V> boolean all(V value, Matcher<V> matcher) {
+        try {
+            return all((Iterable<T>) localItems.get(), value, matcher);
+        } finally {
+            localItems.remove();
+        }
+    }
+
+    public static <T> boolean all(Iterable<T> items, Predicate<T> predicate) {
+        return allWith(items, predicate, null);
+    }
+
+    /**
+     * @return true if the value of transform matches for no element, evaluation stops
+     *         at the first match
+     */
+    public static <T, V> boolean none(Iterable<T> items, Function<T, V> transform, Matcher<V> matcher) {
+        return !anyWith(items, transform, matcher, "none");
+    }
+
+    /**
+     * @return true if the value selected by the where clause matches for no element,
+     *         evaluation stops at the first match
+     */
+    public static <T, V> boolean none(Iterable<T> items, V whereclause, Matcher<V> matcher) {
+        Accessor<T, V> accessor = getCurrentAccessor(whereclause);
+        return !anyWith(items, accessor, matcher, "none");
+    }
+
+    /**
+     * from() version of {@link #none(Iterable, Object, Matcher)}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, V> boolean none(V value, Matcher<V> matcher) {
+        try {
+            return none((Iterable<T>) localItems.get(), value, matcher);
+        } finally {
+            localItems.remove();
+        }
+    }
+
+    public static <T> boolean none(Iterable<T> items, Predicate<T> predicate) {
+        return !anyWith(items, predicate, null, "none");
+    }
+
+    /**
+     * @return number of elements for which the value of transform matches, without
+     *         building a result collection
+     */
+    public static <T, V> int count(Iterable<T> items, Function<T, V> transform, Matcher<V> matcher) {
+        return countWith(items, transform, matcher);
+    }
+
+    /**
+     * @return number of elements for which the value selected by the where clause
+     *         matches, without building a result collection
+     */
+    public static <T, V> int count(Iterable<T> items, V whereclause, Matcher<V> matcher) {
+        Accessor<T, V> accessor = getCurrentAccessor(whereclause);
+        return countWith(items, accessor, matcher);
+    }
+
+    /**
+     * from() version of {@link #count(Iterable, Object, Matcher)}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, V> int count(V value, Matcher<V> matcher) {
+        try {
+            return count((Iterable<T>) localItems.get(), value, matcher);
+        } finally {
+            localItems.remove();
+        }
+    }
+
+    public static <T> int count(Iterable<T> items, Predicate<T> predicate) {
+        return countWith(items, predicate, null);
+    }
+
+    /**
+     * Starts a single pass {@link Query} over items.
+     *
+     * @param items None null instance of Iterable
+     * @return a Query bound to items
+     */
+    public static <T> Query<T, T> query(Iterable<T> items) {
+        if (items == null) {
+            throw new IllegalArgumentException("items is required");
+        }
+        return new Query<T, T>(items);
+    }
+
+    /**
+     * Starts a reusable {@link Query} over elements of type, the source is supplied
+     * when the query is executed.
+     *
+     * @param type type of the source elements
+     * @return an unbound Query
+     */
+    public static <T> Query<T, T> query(Class<T> type) {
+        if (type == null) {
+            throw new IllegalArgumentException("type is required");
+        }
+        return new Query<T, T>(null);
+    }
+
+    /**
+     * Starts a {@link Capture} of clauses on type, which keeps its state in the
+     * returned object rather than the current thread.
+     *
+     * @param type type the clauses start from, must not be final or primitive
+     * @return a new Capture
+     */
+    public static <T> Capture<T> capture(Class<T> type) {
+        return new Capture<T>(type);
+    }
+
+    /**
+     * Explicit alternative to {@link #from(Iterable)}, the element type is
+     * determined the same way.
+     *
+     * @param items None null instance of Iterable
+     * @return a Source over items
+     */
+    public static <T> Source<T> source(Iterable<T> items) {
+        if (items == null) {
+            throw new IllegalArgumentException("items is required");
+        }
+        return new Source<T>(items, typeOfIterable(items));
+    }
+
+    /**
+     * @param items None null instance of Iterable
+     * @param type type of the elements
+     * @return a Source over items
+     * @see #source(Iterable)
+     */
+    public static <T> Source<T> source(Iterable<T> items, Class<T> type) {
+        if (items == null) {
+            throw new IllegalArgumentException("items is required");
+        }
+        return new Source<T>(items, type);
+    }
+
+    // aggregation ************************************************************
+
+    /*
+     * Each aggregation comes in int, long and double flavours chosen by the type
+     * of the clause, so sum(positions, where(Position.class).getQuantity()) picks
+     * the int version for an int (or Integer) property. Values are read through
+     * Accessor.getLong/getDouble and accumulated in primitives, nothing is boxed
+     * when the property is a primitive.
+     */
+    /**
+     * @return sum of the int values selected by the by clause, zero for no elements, accumulated as a long
+     */
+    public static <T> long sum(Iterable<T> items, int byclause) {
+        Accessor<T, ?> accessor = getCurrentAccessor(byclause);
+        return longStats(items, accessor, "sum").getSum();
+    }
+
+    /**
+     * from() version of {@link #sum(Iterable, int)}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> long sum(int value) {
+        try {
+            return sum((Iterable<T>) localItems.get(), value);
+        } finally {
+            localItems.remove();
+        }
+    }
+
+    /**
+     * @return sum of the long values selected by the by clause, zero for no elements
+     */
+    public static <T> long sum(Iterable<T> items, long byclause) {
+        Accessor<T, ?> accessor = getCurrentAccessor(byclause);
+        return longStats(items, accessor, "sum").getSum();
+    }
+
+    /**
+     * from() version of {@link #sum(Iterable, long)}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> long sum(long value) {
+        try {
+            return sum((Iterable<T>) localItems.get(), value);
+        } finally {
+            localItems.remove();
+        }
+    }
+
+    /**
+     * @return sum of the double values selected by the by clause, zero for no elements
+     */
+    public static <T> double sum(Iterable<T> items, double byclause) {
+        Accessor<T, ?> accessor = getCurrentAccessor(byclause);
+        return doubleStats(items, accessor, "sum").getSum();
+    }
+
+    /**
+     * from() version of {@link #sum(Iterable, double)}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> double sum(double value) {
+        try {
+            return sum((Iterable<T>) localItems.get(), value);
+        } finally {
+            localItems.remove();
+        }
+    }
+
+    /**
+     * @return smallest of the int values selected by the by clause
+     * @throws NoSuchElementException if items is empty
+     */
+    public static <T> int min(Iterable<T> items, int byclause) {
+        Accessor<T, ?> accessor = getCurrentAccessor(byclause);
+        LongStatistics stats = longStats(items, accessor, "min");
+        requireElements(stats.getCount());
+        return (int) stats.getMin();
+    }
+
+    /**
+     * from() version of {@link #min(Iterable, int)}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> int min(int value) {
+        try {
+            return min((Iterable<T>) localItems.get(), value);
+        } finally {
+            localItems.remove();
+        }
+    }
+
+    /**
+     * @return largest of the int values selected by the by clause
+     * @throws NoSuchElementException if items is empty
+     */
+    public static <T> int max(Iterable<T> items, int byclause) {
+        Accessor<T, ?> accessor = getCurrentAccessor(byclause);
+        LongStatistics stats = longStats(items, accessor, "max");
+        requireElements(stats.getCount());
+        return (int) stats.getMax();
+    }
+
+    /**
+     * from() version of {@link #max(Iterable, int)}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> int max(int value) {
+        try {
+            return max((Iterable<T>) localItems.get(), value);
+        } finally {
+            localItems.remove();
+        }
+    }
+
+    /**
+     * @return smallest of the long values selected by the by clause
+     * @throws NoSuchElementException if items is empty
+     */
+    public static <T> long min(Iterable<T> items, long byclause) {
+        Accessor<T, ?> accessor = getCurrentAccessor(byclause);
+        LongStatistics stats = longStats(items, accessor, "min");
+        requireElements(stats.getCount());
+        return stats.getMin();
+    }
+
+    /**
+     * from() version of {@link #min(Iterable, long)}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> long min(long value) {
+        try {
+            return min((Iterable<T>) localItems.get(), value);
+        } finally {
+            localItems.remove();
+        }
+    }
+
+    /**
+     * @return largest of the long values selected by the by clause
+     * @throws NoSuchElementException if items is empty
+     */
+    public static <T> long max(Iterable<T> items, long byclause) {
+        Accessor<T, ?> accessor = getCurrentAccessor(byclause);
+        LongStatistics stats = longStats(items, accessor, "max");
+        requireElements(stats.getCount());
+        return stats.getMax();
+    }
+
+    /**
+     * from() version of {@link #max(Iterable, long)}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> long max(long value) {
+        try {
+            return max((Iterable<T>) localItems.get(), value);
+        } finally {
+            localItems.remove();
+        }
+    }
+
+    /**
+     * @return smallest of the double values selected by the by clause
+     * @throws NoSuchElementException if items is empty
+     */
+    public static <T> double min(Iterable<T> items, double byclause) {
+        Accessor<T, ?> accessor = getCurrentAccessor(byclause);
+        DoubleStatistics stats = doubleStats(items, accessor, "min");
+        requireElements(stats.getCount());
+        return stats.getMin();
+    }
+
+    /**
+     * from() version of {@link #min(Iterable, double)}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> double min(double value) {
+        try {
+            return min((Iterable<T>) localItems.get(), value);
+        } finally {
+            localItems.remove();
+        }
+    }
+
+    /**
+     * @return largest of the double values selected by the by clause
+     * @throws NoSuchElementException if items is empty
+     */
+    public static <T> double max(Iterable<T> items, double byclause) {
+        Accessor<T, ?> accessor = getCurrentAccessor(byclause);
+        DoubleStatistics stats = doubleStats(items, accessor, "max");
+        requireElements(stats.getCount());
+        return stats.getMax();
+    }
+
+    /**
+     * from() version of {@link #max(Iterable, double)}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> double max(double value) {
+        try {
+            return max((Iterable<T>) localItems.get(), value);
+        } finally {
+            localItems.remove();
+        }
+    }
+
+    /**
+     * @return arithmetic mean of the int values selected by the by clause, NaN for no elements
+     */
+    public static <T> double average(Iterable<T> items, int byclause) {
+        Accessor<T, ?> accessor = getCurrentAccessor(byclause);
+        return averageOf(longStats(items, accessor, "average"));
+    }
+
+    /**
+     * from() version of {@link #average(Iterable, int)}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> double average(int value) {
+        try {
+            return average((Iterable<T>) localItems.get(), value);
+        } finally {
+            localItems.remove();
+        }
+    }
+
+    /**
+     * @return arithmetic mean of the long values selected by the by clause, NaN for no elements
+     */
+    public static <T> double average(Iterable<T> items, long byclause) {
+        Accessor<T, ?> accessor = getCurrentAccessor(byclause);
+        return averageOf(longStats(items, accessor, "average"));
+    }
+
+    /**
+     * from() version of {@link #average(Iterable, long)}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> double average(long value) {
+        try {
+            return average((Iterable<T>) localItems.get(), value);
+        } finally {
+            localItems.remove();
+        }
+    }
+
+    /**
+     * @return arithmetic mean of the double values selected by the by clause, NaN for no elements
+     */
+    public static <T> double average(Iterable<T> items, double byclause) {
+        Accessor<T, ?> accessor = getCurrentAccessor(byclause);
+        return averageOf(doubleStats(items, accessor, "average"));
+    }
+
+    /**
+     * from() version of {@link #average(Iterable, double)}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> double average(double value) {
+        try {
+            return average((Iterable<T>) localItems.get(), value);
+        } finally {
+            localItems.remove();
+        }
+    }
+
+    /**
+     * Count, sum, min, max and average of the int values selected by the by clause in one pass.
+     * <pre>
+     * LongStatistics quantities = stats(positions, by(Position.class).getQuantity());
+     * </pre>
+     */
+    public static <T> LongStatistics stats(Iterable<T> items, int byclause) {
+        Accessor<T, ?> accessor = getCurrentAccessor(byclause);
+        return longStats(items, accessor, "stats");
+    }
+
+    /**
+     * from() version of {@link #stats(Iterable, int)}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> LongStatistics stats(int value) {
+        try {
+            return stats((Iterable<T>) localItems.get(), value);
+        } finally {
+            localItems.remove();
+        }
+    }
+
+    /**
+     * Count, sum, min, max and average of the long values selected by the by clause in one pass.
+     * <pre>
+     * LongStatistics quantities = stats(positions, by(Position.class).getQuantity());
+     * </pre>
+     */
+    public static <T> LongStatistics stats(Iterable<T> items, long byclause) {
+        Accessor<T, ?> accessor = getCurrentAccessor(byclause);
+        return longStats(items, accessor, "stats");
+    }
+
+    /**
+     * from() version of {@link #stats(Iterable, long)}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> LongStatistics stats(long value) {
+        try {
+            return stats((Iterable<T>) localItems.get(), value);
+        } finally {
+            localItems.remove();
+        }
+    }
+
+    /**
+     * Count, sum, min, max and average of the double values selected by the by clause in one pass.
+     * <pre>
+     * DoubleStatistics quantities = stats(positions, by(Position.class).getQuantity());
+     * </pre>
+     */
+    public static <T> DoubleStatistics stats(Iterable<T> items, double byclause) {
+        Accessor<T, ?> accessor = getCurrentAccessor(byclause);
+        return doubleStats(items, accessor, "stats");
+    }
+
+    /**
+     * from() version of {@link #stats(Iterable, double)}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> DoubleStatistics stats(double value) {
+        try {
+            return stats((Iterable<T>) localItems.get(), value);
+        } finally {
+            localItems.remove();
+        }
+    }
+
+    // columnar ***************************************************************
+
+    /**
+     * Starts a {@link ColumnarView} of items, the columns are added one clause at a time.
+     * <pre>
+     *    ColumnarView&lt;Person&gt; view = columnar(people)
+     *          .column(by(Person.class).getAge())
+     *          .column(by(Person.class).getLastName())
+     *          .build();
+     * </pre>
+     */
+    public static <T> ColumnarView.Builder<T> columnar(Iterable<T> items) {
+        Preconditions.checkNotNull(items, "items is required");
+        return new ColumnarView.Builder<T>(items);
+    }
+
+    // joins ******************************************************************
+
+    /**
+     * Inner hash join of left and right on equal keys.
+     * <p>
+     * The smaller side (when both are Collections) is loaded into a hash table
+     * immediately, the result then streams the other side past it each time it is
+     * iterated and comes out in that side's order. Null keys never match.
+     * </p>
+     * <pre>
+     *    for (Pair&lt;Order, Account&gt; row : join(orders, property(by(Order.class).getAccountId()),
+     *                                          accounts, property(by(Account.class).getId()))) {
+     *       ...
+     *    }
+     * </pre>
+     *
+     * @see #property(Object)
+     */
+    public static <L, R, K> Iterable<Pair<L, R>> join(Iterable<L> left, Function<? super L, K> leftKey,
+                                                     Iterable<R> right, Function<? super R, K> rightKey) {
+        checkJoin(left, leftKey, right, rightKey);
+        return Joins.inner(left, leftKey, right, rightKey);
+    }
+
+    /**
+     * Left outer hash join, every left element appears at least once, paired with
+     * null when nothing on the right has its key. The right side is always the
+     * one hashed and the result is in left order.
+     */
+    public static <L, R, K> Iterable<Pair<L, R>> leftOuterJoin(Iterable<L> left, Function<? super L, K> leftKey,
+                                                              Iterable<R> right, Function<? super R, K> rightKey) {
+        checkJoin(left, leftKey, right, rightKey);
+        return Joins.leftOuter(left, leftKey, right, rightKey);
+    }
+
+    /**
+     * @return new list of the left elements whose key is present on the right, in left order
+     */
+    public static <L, R, K> List<L> semiJoin(Iterable<L> left, Function<? super L, K> leftKey,
+                                             Iterable<R> right, Function<? super R, K> rightKey) {
+        checkJoin(left, leftKey, right, rightKey);
+        return Joins.semi(left, leftKey, right, rightKey, true);
+    }
+
+    /**
+     * @return new list of the left elements whose key is not present on the right
+     *         (including those with a null key), in left order
+     */
+    public static <L, R, K> List<L> antiJoin(Iterable<L> left, Function<? super L, K> leftKey,
+                                             Iterable<R> right, Function<? super R, K> rightKey) {
+        checkJoin(left, leftKey, right, rightKey);
+        return Joins.semi(left, leftKey, right, rightKey, false);
+    }
+
+    // grouping ***************************************************************
+
+    /**
+     * Groups items by the value of function in a single pass.
+     *
+     * @return new map from each distinct value to the elements having it, keys
+     *         are in order of first appearance and elements keep their source order
+     */
+    public static <T, V> Map<V, List<T>> groupBy(Iterable<T> items, Function<T, V> function) {
+        Observation observed = Instrumentation.observe(function, items);
+        Map<V, List<T>> groups = new LinkedHashMap<V, List<T>>();
+        long scanned = 0;
+        for (T item : items) {
+            V key;
+            try {
+                scanned++;
+                key = function.apply(item);
+            } catch (Exception e) {
+                if (observed != null) {
+                    observed.failed("groupBy", e);
+                }
+                throw launderException(e);
+            }
+            List<T> group = groups.get(key);
+            if (group == null) {
+                group = new ArrayList<T>(2);
+                groups.put(key, group);
+            }
+            group.add(item);
+        }
+        if (observed != null) {
+            observed.completed("groupBy", scanned, scanned);
+        }
+        return groups;
+    }
+
+    /**
+     * Groups items by the value selected by a by clause.
+     * <pre>
+     * Map&lt;String, List&lt;Person&gt;&gt; families = groupBy(people, by(Person.class).getLastName());
+     * </pre>
+     *
+     * @see #groupBy(Iterable, Function)
+     */
+    public static <T, V> Map<V, List<T>> groupBy(Iterable<T> items, V byclause) {
+        Accessor<T, V> accessor = getCurrentAccessor(byclause);
+        return groupBy(items, accessor);
+    }
+
+    /**
+     * from() version of {@link #groupBy(Iterable, Object)}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, V> Map<V, List<T>> groupBy(V value) {
+        try {
+            return groupBy((Iterable<T>) localItems.get(), value);
+        } finally {
+            localItems.remove();
+        }
+    }
+
+    /**
+     * Builds a hash {@link Index} of items by the value of function, answering
+     * later equality lookups without scanning.
+     */
+    public static <T, V> Index<T, V> indexBy(Iterable<T> items, Function<T, V> function) {
+        Preconditions.checkNotNull(function, "function is required");
+        return indexWith(items, function);
+    }
+
+    /**
+     * Builds a hash {@link Index} of items by the value selected by a by clause.
+     * <pre>
+     * Index&lt;Person, String&gt; byLastName = indexBy(people, by(Person.class).getLastName());
+     * List&lt;Person&gt; smiths = byLastName.get(&quot;Smith&quot;);
+     * </pre>
+     */
+    public static <T, V> Index<T, V> indexBy(Iterable<T> items, V byclause) {
+        Accessor<T, V> accessor = getCurrentAccessor(byclause);
+        return indexWith(items, accessor);
+    }
+
+    /**
+     * from() version of {@link #indexBy(Iterable, Object)}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, V> Index<T, V> indexBy(V value) {
+        try {
+            return indexBy((Iterable<T>) localItems.get(), value);
+        } finally {
+            localItems.remove();
+        }
+    }
+
+    // parallel ***************************************************************
+
+    /**
+     * Parallel version of {@link #select(Iterable, Object, Matcher)}.
+     * <p>
+     * RandomAccess lists larger than the {@link #setParallelThreshold(int) parallel threshold}
+     * are split into ranges and filtered on a ForkJoinPool, the result is in source
+     * order. Smaller lists, and lists without RandomAccess, are selected on the calling
+     * thread. The matcher must be safe to call from several threads at once.
+     * </p>
+     *
+     * @param items       None null list
+     * @param whereclause return value from the where(ClassName.class) script like thing
+     * @param matcher     Hamcrest matcher, shared between the worker threads
+     * @return a new list of the selected elements in source order
+     */
+    public static <T, V> List<T> parallelSelect(List<T> items, V whereclause, Matcher<V> matcher) {
+        Accessor<T, V> accessor = getCurrentAccessor(whereclause);
+        return parallelSelectWith(items, accessor, matcher);
+    }
+
+    /**
+     * Parallel version of {@link #select(Iterable, Function, Matcher)}, the Function and
+     * Matcher must be safe to call from several threads at once.
+     *
+     * @see #parallelSelect(List, Object, Matcher)
+     */
+    public static <T, V> List<T> parallelSelect(List<T> items, Function<T, V> transform, Matcher<V> matcher) {
+        return parallelSelectWith(items, transform, matcher);
+    }
+
+    /**
+     * Parallel version of {@link #select(Iterable, Predicate)}, unlike the sequential
+     * version the result is computed eagerly.
+     *
+     * @see #parallelSelect(List, Object, Matcher)
+     */
+    public static <T> List<T> parallelSelect(List<T> items, Predicate<T> predicate) {
+        if (!Parallel.isSplittable(items)) {
+            return Lists.newArrayList(select(items, predicate));
+        }
+        try {
+            return Parallel.select(items, predicate);
+        } catch (Exception e) {
+            throw launderException(e);
+        }
+    }
+
+    /**
+     * Parallel version of {@link #select(Object, Matcher)}, to be used with {@link #from(Iterable)}.
+     *
+     * @see #parallelSelect(List, Object, Matcher)
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, V> List<T> parallelSelect(V value, Matcher<V> matcher) {
+        try {
+            Iterable<T> items = (Iterable<T>) localItems.get();
+            if (items instanceof List) {
+                return parallelSelect((List<T>) items, value, matcher);
+            }
+            return select(items, value, matcher, new ArrayList<T>());
+        } finally {
+            localItems.remove();
+        }
+    }
+
+    /**
+     * Parallel version of {@link #collect(Iterable, Object)}.
+     *
+     * @param items      None null list
+     * @param fromclause should be used as by(YourClass.class).getProperty()
+     * @return fixed size list of the values in source order
+     * @see #parallelSelect(List, Object, Matcher)
+     */
+    public static <T, V> List<V> parallelCollect(List<T> items, V fromclause) {
+        Accessor<T, V> accessor = getCurrentAccessor(fromclause);
+        return parallelCollectWith(items, accessor);
+    }
+
+    /**
+     * Parallel version of {@link #collect(Iterable, Function)}, the Function must be safe
+     * to call from several threads at once.
+     *
+     * @return fixed size list of the values in source order
+     * @see #parallelSelect(List, Object, Matcher)
+     */
+    public static <T, V> List<V> parallelCollect(List<T> items, Function<T, V> function) {
+        return parallelCollectWith(items, function);
+    }
+
+    /**
+     * Parallel version of {@link #collect(Object)}, to be used with {@link #from(Iterable)}.
+     *
+     * @return list of the values in source order
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, V> List<V> parallelCollect(V value) {
+        try {
+            Iterable<T> items = (Iterable<T>) localItems.get();
+            if (items instanceof List) {
+                return parallelCollect((List<T>) items, value);
+            }
+            return collect(items, value, new ArrayList<V>());
+        } finally {
+            localItems.remove();
+        }
+    }
+
+    /**
+     * Parallel version of {@link #remove(Iterable, Object, Matcher)}. The matches are
+     * found in parallel, the list is then compacted in a single pass on the calling thread.
+     *
+     * @return number of elements removed
+     * @see #parallelSelect(List, Object, Matcher)
+     */
+    public static <T, V> int parallelRemove(List<T> items, V whereclause, Matcher<V> matcher) {
+        Accessor<T, V> accessor = getCurrentAccessor(whereclause);
+        return parallelRemoveWith(items, accessor, matcher);
+    }
+
+    /**
+     * Parallel version of {@link #remove(Iterable, Function, Matcher)}.
+     *
+     * @return number of elements removed
+     * @see #parallelRemove(List, Object, Matcher)
+     */
+    public static <T, V> int parallelRemove(List<T> items, Function<T, V> function, Matcher<V> matcher) {
+        return parallelRemoveWith(items, function, matcher);
+    }
+
+    /**
+     * Parallel version of {@link #sum(Iterable, int)}, each chunk is summed by its
+     * own task and the partial sums are added together.
+     */
+    public static <T> long parallelSum(List<T> items, int byclause) {
+        Accessor<T, ?> accessor = getCurrentAccessor(byclause);
+        return parallelLongStats(items, accessor, "parallelSum").getSum();
+    }
+
+    /**
+     * Parallel version of {@link #sum(Iterable, long)}, each chunk is summed by its
+     * own task and the partial sums are added together.
+     */
+    public static <T> long parallelSum(List<T> items, long byclause) {
+        Accessor<T, ?> accessor = getCurrentAccessor(byclause);
+        return parallelLongStats(items, accessor, "parallelSum").getSum();
+    }
+
+    /**
+     * Parallel version of {@link #sum(Iterable, double)}, each chunk is summed by its
+     * own task and the partial sums are added together.
+     */
+    public static <T> double parallelSum(List<T> items, double byclause) {
+        Accessor<T, ?> accessor = getCurrentAccessor(byclause);
+        return parallelDoubleStats(items, accessor, "parallelSum").getSum();
+    }
+
+    /**
+     * Parallel version of {@link #stats(Iterable, int)}, per chunk statistics are
+     * merged once every chunk is done.
+     */
+    public static <T> LongStatistics parallelStats(List<T> items, int byclause) {
+        Accessor<T, ?> accessor = getCurrentAccessor(byclause);
+        return parallelLongStats(items, accessor, "parallelStats");
+    }
+
+    /**
+     * Parallel version of {@link #stats(Iterable, long)}, per chunk statistics are
+     * merged once every chunk is done.
+     */
+    public static <T> LongStatistics parallelStats(List<T> items, long byclause) {
+        Accessor<T, ?> accessor = getCurrentAccessor(byclause);
+        return parallelLongStats(items, accessor, "parallelStats");
+    }
+
+    /**
+     * Parallel version of {@link #stats(Iterable, double)}, per chunk statistics are
+     * merged once every chunk is done.
+     */
+    public static <T> DoubleStatistics parallelStats(List<T> items, double byclause) {
+        Accessor<T, ?> accessor = getCurrentAccessor(byclause);
+        return parallelDoubleStats(items, accessor, "parallelStats");
+    }
+
+    /**
+     * Lists with no more elements than threshold are always processed on the calling
+     * thread by the {@code parallel*} methods, larger lists are split into ranges of at
+     * least threshold elements. Defaults to 8192.
+     *
+     * @param threshold positive number of elements
+     */
+    public static void setParallelThreshold(int threshold) {
+        Parallel.setThreshold(threshold);
+    }
+
+    public static int getParallelThreshold() {
+        return Parallel.getThreshold();
+    }
+
+    /**
+     * Sets the pool used by the {@code parallel*} methods, null restores the default
+     * pool which is created on first use with one worker per processor.
+     */
+    public static void setParallelPool(ForkJoinPool pool) {
+        Parallel.setPool(pool);
+    }
+
+    /**
+     * Provides the where clause for {@link #select(Iterable, Object, Matcher)}.
+     * Returns an instance of the type provided, this proxy will attempt to
+     * record the subsequent method invokations in order for them to be replayed
+     * later by the {@link #select(Iterable, Object, Matcher)}.
+     * <p>
+     * {@link com.logicalpractice.collections.support.MethodCapture#capture(java.lang.Class)} provides the proxy and it in turn uses
+     * CGLIB to implement it. There are some rescitions to the use of
+     * MethodCapture please refer it's documentation for more information.
+     * </p>
+     *
+     * @param <T> type of the instance
+     * @param cls none null class
+     * @return Capturing instance of cls
+     * @throws IllegalArgumentException if cls is null
+     */
+    @SuppressWarnings("cast")
+    public static <T> T where(Class<T> cls) {
+        if (cls == null) {
+            throw new IllegalArgumentException("Null cls parameter for where(Class). cls is required");
+        }
+        return (T) MethodCapture.capture(cls);
+    }
+
+    /**
+     * by() is just an alais for {@link #where(Class)}, but is included
+     * to provide a more logical syntax.
+     *
+     * @param <T>
+     * @param cls non-null class
+     * @return Capturing instance of cls
+     * @see #where(Class)
+     */
+    public static <T> T by(Class<T> cls) {
+        return where(cls);
+    }
+
+    /**
+     * Turns a captured clause into a reusable Function.
+     * <p>
+     * Only one clause can be captured at a time, so methods that need two of them,
+     * such as {@link #join(Iterable, Function, Iterable, Function) join}, take
+     * Functions made with property():
+     * </p>
+     * <pre>
+     *    join(orders, property(by(Order.class).getAccountId()),
+     *         accounts, property(by(Account.class).getId()));
+     * </pre>
+     *
+     * @param clause should be used as by(YourClass.class).getProperty()
+     * @return compiled Function evaluating the clause, safe to keep and share
+     */
+    public static <T, V> Function<T, V> property(V clause) {
+        Accessor<T, V> accessor = getCurrentAccessor(clause);
+        return accessor;
+    }
+
+    /**
+     * from source method, to be used in conjunction with
+     * {@link #select(Object, Matcher)}.
+     * <p>
+     * It is important to understand that this method uses a ThreadLocal to pass
+     * that actual collection to the select method. If the caller fails to call
+     * {@link #select(Object, Matcher)} then the reference will be left hanging,
+     * and will prevent the collection from being garbage collected.
+     * </p>
+     * <p>
+     * This method must obtain the runtime type of the contents of the Iterable.
+     * There are two ways of providing runtime type information to the
+     * Selector, first is to supply a none empty list, the first
+     * element will be used as the prototype for CapturingProxy. An Alternative
+     * is to use an implementation of {@link Typed}, Typed implementations of
+     * the collection classes can be obtained with via
+     * </p>
+     * <p>
+     * {@link com.logicalpractice.collections.support.MethodCapture#capture(Class)} provides the proxy and it in turn uses
+     * CGLIB to implement it. There are some rescitions to the use of
+     * MethodCapture please refer it's documentation for more information.
+     * </p>
+     *
+     * @param <T>
+     * @param items
+     * @return
+     */
+    @SuppressWarnings("cast")
+    public final static <T> T from(Iterable<T> items) {
+        Class<T> type = typeOfIterable(items);
+        localItems.set(items);
+        return (T) MethodCapture.capture(type);
+    }
+
+    @SuppressWarnings("unchecked")
+    static <F, V> Accessor<F, V> getCurrentAccessor(V value) {
+        CapturingProxy<F, V> proxy = (CapturingProxy<F, V>) MethodCapture.clearAndReturn();
+        if (proxy == null) {
+            throw new IllegalStateException("No capture in progress, the clause must be supplied by where(), by() or from()");
+        }
+        return proxy.compile();
+    }
+
+
+    private static <T, V, C extends Collection<? super T>> C selectInto(Iterable<T> items, Function<T, V> function, Matcher<V> matcher, C destination) {
+        return selectInto(items, function, matcher, destination, "select");
+    }
+
+    /**
+     * @param operation name the operation is reported under
+     */
+    private static <T, V, C extends Collection<? super T>> C selectInto(Iterable<T> items, Function<T, V> function, Matcher<V> matcher, C destination,
+            String operation) {
+        Observation observed = Instrumentation.observe(function, items);
+        List<T> found;
+        try {
+            found = lookup(items, function, matcher);
+        } catch (RuntimeException e) {
+            if (observed != null) {
+                observed.failed(operation, e);
+            }
+            throw e;
+        }
+        if (found != null) {
+            destination.addAll(found);
+            if (observed != null) {
+                observed.completed(operation, 0, found.size());
+            }
+            return destination;
+        }
+        long scanned = 0;
+        long matched = 0;
+        for (T item : items) {
+            try {
+                scanned++;
+                if (matcher.matches(function.apply(item))) {
+                    destination.add(item);
+                    matched++;
+                }
+            } catch (Exception e) {
+                if (observed != null) {
+                    observed.failed(operation, e);
+                }
+                throw launderException(e);
+            }
+        }
+        if (observed != null) {
+            observed.completed(operation, scanned, matched);
+        }
+        return destination;
+    }
+
+    /**
+     * @return the elements selected by an index of items, or null if items can't
+     *         answer and must be scanned
+     */
+    @SuppressWarnings("unchecked")
+    private static <T, V> List<T> lookup(Iterable<T> items, Function<T, V> function, Matcher<V> matcher) {
+        if (items instanceof Searchable) {
+            return ((Searchable<T>) items).lookup(function, matcher);
+        }
+        return null;
+    }
+
+    private static <T, V> Predicate<T> matching(final Function<T, V> function, final Matcher<V> matcher) {
+        Preconditions.checkNotNull(matcher, "matcher is required");
+        return new Predicate<T>() {
+            public boolean apply(T input) {
+                return matcher.matches(function.apply(input));
+            }
+        };
+    }
+
+    private static <T, V> T firstWith(Iterable<T> items, Function<T, V> function, Matcher<V> matcher) {
+        Predicate<T> predicate = matching(function, matcher);
+        return firstWith(items, predicate, Instrumentation.observe(function, items));
+    }
+
+    /**
+     * @param observed observation to report to, null when nothing is reporting
+     */
+    private static <T> T firstWith(Iterable<T> items, Predicate<T> predicate, Observation observed) {
+        long scanned = 0;
+        T found = null;
+        for (T item : items) {
+            try {
+                scanned++;
+                if (predicate.apply(item)) {
+                    found = item;
+                    break;
+                }
+            } catch (Exception e) {
+                if (observed != null) {
+                    observed.failed("selectFirst", e);
+                }
+                throw launderException(e);
+            }
+        }
+        if (observed != null) {
+            observed.completed("selectFirst", scanned, found != null ? 1 : 0);
+        }
+        return found;
+    }
+
+    private static <T, V> boolean anyWith(Iterable<T> items, Function<T, V> function, Matcher<V> matcher, String operation) {
+        Predicate<T> predicate = matching(function, matcher);
+        return anyWith(items, predicate, Instrumentation.observe(function, items), operation);
+    }
+
+    /**
+     * @param operation name the operation is reported under, any or none
+     */
+    private static <T> boolean anyWith(Iterable<T> items, Predicate<T> predicate, Observation observed, String operation) {
+        long scanned = 0;
+        boolean found = false;
+        for (T item : items) {
+            try {
+                scanned++;
+                if (predicate.apply(item)) {
+                    found = true;
+                    break;
+                }
+            } catch (Exception e) {
+                if (observed != null) {
+                    observed.failed(operation, e);
+                }
+                throw launderException(e);
+            }
+        }
+        if (observed != null) {
+            observed.completed(operation, scanned, found ? 1 : 0);
+        }
+        return found;
+    }
+
+    private static <T, V> boolean allWith(Iterable<T> items, Function<T, V> function, Matcher<V> matcher) {
+        Predicate<T> predicate = matching(function, matcher);
+        return allWith(items, predicate, Instrumentation.observe(function, items));
+    }
+
+    private static <T> boolean allWith(Iterable<T> items, Predicate<T> predicate, Observation observed) {
+        long scanned = 0;
+        boolean all = true;
+        for (T item : items) {
+            try {
+                scanned++;
+                if (!predicate.apply(item)) {
+                    all = false;
+                    break;
+                }
+            } catch (Exception e) {
+                if (observed != null) {
+                    observed.failed("all", e);
+                }
+                throw launderException(e);
+            }
+        }
+        if (observed != null) {
+            observed.completed("all", scanned, all ? scanned : scanned - 1);
+        }
+        return all;
+    }
+
+    private static <T, V> int countWith(Iterable<T> items, Function<T, V> function, Matcher<V> matcher) {
+        Predicate<T> predicate = matching(function, matcher);
+        return countWith(items, predicate, Instrumentation.observe(function, items));
+    }
+
+    private static <T> int countWith(Iterable<T> items, Predicate<T> predicate, Observation observed) {
+        long scanned = 0;
+        int count = 0;
+        for (T item : items) {
+            try {
+                scanned++;
+                if (predicate.apply(item)) {
+                    count++;
+                }
+            } catch (Exception e) {
+                if (observed != null) {
+                    observed.failed("count", e);
+                }
+                throw launderException(e);
+            }
+        }
+        if (observed != null) {
+            observed.completed("count", scanned, count);
+        }
+        return count;
+    }
+
+    /**
+     * @param removed collection the removed elements are added to, may be null
+     */
+    private static <T, V> int removeWith(Iterable<T> items, Function<T, V> function, Matcher<V> matcher, Collection<? super T> removed) {
+        return removeWith(items, function, matcher, removed, "remove");
+    }
+
+    private static <T, V> int removeWith(Iterable<T> items, Function<T, V> function, Matcher<V> matcher, Collection<? super T> removed,
+            String operation) {
+        Observation observed = Instrumentation.observe(function, items);
+        if (observed == null) {
+            return removeMatching(items, function, matcher, removed);
+        }
+        // removal can only go through a collection's iterator, anything else reports nothing scanned
+        long scanned = items instanceof Collection ? ((Collection<?>) items).size() : 0;
+        try {
+            int count = removeMatching(items, function, matcher, removed);
+            observed.completed(operation, scanned, count);
+            return count;
+        } catch (RuntimeException e) {
+            observed.failed(operation, e);
+            throw e;
+        }
+    }
+
+    private static <T, V> int removeMatching(Iterable<T> items, Function<T, V> function, Matcher<V> matcher, Collection<? super T> removed) {
+        if (items instanceof List && items instanceof RandomAccess) {
+            return compact((List<T>) items, function, matcher, removed);
+        }
+        int count = 0;
+        for (Iterator<T> it = items.iterator(); it.hasNext();) {
+            T item = it.next();
+            try {
+                if (matcher.matches(function.apply(item))) {
+                    it.remove();
+                    count++;
+                    if (removed != null) {
+                        removed.add(item);
+                    }
+                }
+            } catch (Exception e) {
+                throw launderException(e);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Removes the matching elements of list in one pass: survivors are moved down
+     * over the gaps with set() and the tail is truncated with a single subList clear.
+     * <p>
+     * The first match is removed with {@link List#remove(int)} before anything is
+     * moved, so a list that can't shrink fails unmodified. Should function or matcher
+     * throw the gap opened so far is closed before the exception propagates, leaving
+     * the list as the iterator based removal would have.
+     * </p>
+     */
+    private static <T, V> int compact(List<T> list, Function<T, V> function, Matcher<V> matcher, Collection<? super T> removed) {
+        int size = list.size();
+        int write = 0;
+        int read = 0;
+        try {
+            // nothing has been removed yet, keep write level with read so a failure leaves no gap
+            while (read < size && !matcher.matches(function.apply(list.get(read)))) {
+                write = ++read;
+            }
+            if (read == size) {
+                return 0;
+            }
+            T first = list.remove(read);
+            if (removed != null) {
+                removed.add(first);
+            }
+            size--;
+            for (write = read; read < size; read++) {
+                T item = list.get(read);
+                if (matcher.matches(function.apply(item))) {
+                    if (removed != null) {
+                        removed.add(item);
+                    }
+                } else {
+                    if (write != read) {
+                        list.set(write, item);
+                    }
+                    write++;
+                }
+            }
+        } catch (Exception e) {
+            if (write < read) {
+                list.subList(write, read).clear();
+            }
+            throw launderException(e);
+        }
+        list.subList(write, size).clear();
+        return size + 1 - write;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> int[] collectIntWith(Iterable<T> items, Function<T, ?> function) {
+        Accessor<T, ?> accessor = function instanceof Accessor ? (Accessor<T, ?>) function : null;
+        Observation observed = Instrumentation.observe(function, items);
+        int[] values = new int[sizeOf(items)];
+        int size = 0;
+        try {
+            for (T item : items) {
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, size + (size >> 1) + 1);
+                }
+                values[size++] = accessor != null ? accessor.getInt(item) : ((Number) function.apply(item)).intValue();
+            }
+        } catch (Exception e) {
+            if (observed != null) {
+                observed.failed("collectInt", e);
+            }
+            throw launderException(e);
+        }
+        if (observed != null) {
+            observed.completed("collectInt", size, size);
+        }
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> long[] collectLongWith(Iterable<T> items, Function<T, ?> function) {
+        Accessor<T, ?> accessor = function instanceof Accessor ? (Accessor<T, ?>) function : null;
+        Observation observed = Instrumentation.observe(function, items);
+        long[] values = new long[sizeOf(items)];
+        int size = 0;
+        try {
+            for (T item : items) {
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, size + (size >> 1) + 1);
+                }
+                values[size++] = accessor != null ? accessor.getLong(item) : ((Number) function.apply(item)).longValue();
+            }
+        } catch (Exception e) {
+            if (observed != null) {
+                observed.failed("collectLong", e);
+            }
+            throw launderException(e);
+        }
+        if (observed != null) {
+            observed.completed("collectLong", size, size);
+        }
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> double[] collectDoubleWith(Iterable<T> items, Function<T, ?> function) {
+        Accessor<T, ?> accessor = function instanceof Accessor ? (Accessor<T, ?>) function : null;
+        Observation observed = Instrumentation.observe(function, items);
+        double[] values = new double[sizeOf(items)];
+        int size = 0;
+        try {
+            for (T item : items) {
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, size + (size >> 1) + 1);
+                }
+                values[size++] = accessor != null ? accessor.getDouble(item) : ((Number) function.apply(item)).doubleValue();
+            }
+        } catch (Exception e) {
+            if (observed != null) {
+                observed.failed("collectDouble", e);
+            }
+            throw launderException(e);
+        }
+        if (observed != null) {
+            observed.completed("collectDouble", size, size);
+        }
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+
+    /**
+     * @param operation name the aggregation is reported under
+     */
+    private static <T> LongStatistics longStats(Iterable<T> items, Accessor<T, ?> accessor, String operation) {
+        Observation observed = Instrumentation.observe(accessor, items);
+        LongStatistics stats = new LongStatistics();
+        try {
+            for (T item : items) {
+                stats.accept(accessor.getLong(item));
+            }
+        } catch (Exception e) {
+            if (observed != null) {
+                observed.failed(operation, e);
+            }
+            throw launderException(e);
+        }
+        if (observed != null) {
+            observed.completed(operation, stats.getCount(), stats.getCount());
+        }
+        return stats;
+    }
+
+    /**
+     * @param operation name the aggregation is reported under
+     */
+    private static <T> DoubleStatistics doubleStats(Iterable<T> items, Accessor<T, ?> accessor, String operation) {
+        Observation observed = Instrumentation.observe(accessor, items);
+        DoubleStatistics stats = new DoubleStatistics();
+        try {
+            for (T item : items) {
+                stats.accept(accessor.getDouble(item));
+            }
+        } catch (Exception e) {
+            if (observed != null) {
+                observed.failed(operation, e);
+            }
+            throw launderException(e);
+        }
+        if (observed != null) {
+            observed.completed(operation, stats.getCount(), stats.getCount());
+        }
+        return stats;
+    }
+
+    private static <T> LongStatistics parallelLongStats(List<T> items, Accessor<T, ?> accessor, String operation) {
+        if (!Parallel.isSplittable(items)) {
+            return longStats(items, accessor, operation);
+        }
+        Observation observed = Instrumentation.observe(accessor, items);
+        try {
+            LongStatistics stats = Parallel.longStats(items, accessor);
+            if (observed != null) {
+                observed.completed(operation, stats.getCount(), stats.getCount());
+            }
+            return stats;
+        } catch (Exception e) {
+            if (observed != null) {
+                observed.failed(operation, e);
+            }
+            throw launderException(e);
+        }
+    }
+
+    private static <T> DoubleStatistics parallelDoubleStats(List<T> items, Accessor<T, ?> accessor, String operation) {
+        if (!Parallel.isSplittable(items)) {
+            return doubleStats(items, accessor, operation);
+        }
+        Observation observed = Instrumentation.observe(accessor, items);
+        try {
+            DoubleStatistics stats = Parallel.doubleStats(items, accessor);
+            if (observed != null) {
+                observed.completed(operation, stats.getCount(), stats.getCount());
+            }
+            return stats;
+        } catch (Exception e) {
+            if (observed != null) {
+                observed.failed(operation, e);
+            }
+            throw launderException(e);
+        }
+    }
+
+    private static <T, V> Index<T, V> indexWith(Iterable<T> items, Function<T, V> function) {
+        Observation observed = Instrumentation.observe(function, items);
+        Index<T, V> index;
+        try {
+            index = new Index<T, V>(items, function);
+        } catch (RuntimeException e) {
+            if (observed != null) {
+                observed.failed("indexBy", e);
+            }
+            throw e;
+        }
+        if (observed != null) {
+            observed.completed("indexBy", index.size(), index.size());
+        }
+        return index;
+    }
+
+    private static void checkJoin(Iterable<?> left, Function<?, ?> leftKey, Iterable<?> right, Function<?, ?> rightKey) {
+        Preconditions.checkNotNull(left, "left is required");
+        Preconditions.checkNotNull(leftKey, "leftKey is required");
+        Preconditions.checkNotNull(right, "right is required");
+        Preconditions.checkNotNull(rightKey, "rightKey is required");
+    }
+
+    /**
+     * @return average of stats, NaN rather than the JDK's zero when there are no values
+     */
+    private static double averageOf(LongSummaryStatistics stats) {
+        return stats.getCount() == 0 ? Double.NaN : stats.getAverage();
+    }
+
+    private static double averageOf(DoubleSummaryStatistics stats) {
+        return stats.getCount() == 0 ? Double.NaN : stats.getAverage();
+    }
+
+    private static void requireElements(long count) {
+        if (count == 0) {
+            throw new NoSuchElementException("no elements to aggregate");
+        }
+    }
+
+    private static <T, V, C extends Collection<? super V>> C collectInto(Iterable<T> items, Function<T, V> function, C destination) {
+        return collectInto(items, function, destination, "collect");
+    }
+
+    private static <T, V, C extends Collection<? super V>> C collectInto(Iterable<T> items, Function<T, V> function, C destination,
+            String operation) {
+        Observation observed = Instrumentation.observe(function, items);
+        long scanned = 0;
+        for (T item : items) {
+            try {
+                scanned++;
+                destination.add(function.apply(item));
+            } catch (Exception e) {
+                if (observed != null) {
+                    observed.failed(operation, e);
+                }
+                throw launderException(e);
+            }
+        }
+        if (observed != null) {
+            observed.completed(operation, scanned, scanned);
+        }
+        return destination;
+    }
+
+    private static <T, V> V[] collectInto(Iterable<T> items, Function<T, V> function, V[] array) {
+        Observation observed = Instrumentation.observe(function, items);
+        V[] result = array;
+        if (items instanceof Collection && ((Collection<?>) items).size() > result.length) {
+            result = Arrays.copyOf(array, ((Collection<?>) items).size());
+        }
+        int count = 0;
+        for (T item : items) {
+            if (count == result.length) {
+                result = Arrays.copyOf(result, Math.max(10, count * 2));
+            }
+            try {
+                result[count++] = function.apply(item);
+            } catch (Exception e) {
+                if (observed != null) {
+                    observed.failed("collect", e);
+                }
+                throw launderException(e);
+            }
+        }
+        if (observed != null) {
+            observed.completed("collect", count, count);
+        }
+        if (result != array && count < result.length) {
+            result = Arrays.copyOf(result, count);
+        } else if (count < result.length) {
+            result[count] = null;
+        }
+        return result;
+    }
+
+    private static <T, V> List<T> parallelSelectWith(List<T> items, Function<T, V> function, Matcher<V> matcher) {
+        if (!Parallel.isSplittable(items)) {
+            return selectInto(items, function, matcher, new ArrayList<T>(), "parallelSelect");
+        }
+        Observation observed = Instrumentation.observe(function, items);
+        try {
+            List<T> selected = Parallel.select(items, function, matcher);
+            if (observed != null) {
+                observed.completed("parallelSelect", items.size(), selected.size());
+            }
+            return selected;
+        } catch (Exception e) {
+            if (observed != null) {
+                observed.failed("parallelSelect", e);
+            }
+            throw launderException(e);
+        }
+    }
+
+    private static <T, V> List<V> parallelCollectWith(List<T> items, Function<T, V> function) {
+        if (!Parallel.isSplittable(items)) {
+            return collectInto(items, function, new ArrayList<V>(items.size()), "parallelCollect");
+        }
+        Observation observed = Instrumentation.observe(function, items);
+        try {
+            List<V> collected = Parallel.collect(items, function);
+            if (observed != null) {
+                observed.completed("parallelCollect", items.size(), collected.size());
+            }
+            return collected;
+        } catch (Exception e) {
+            if (observed != null) {
+                observed.failed("parallelCollect", e);
+            }
+            throw launderException(e);
+        }
+    }
+
+    private static <T, V> int parallelRemoveWith(List<T> items, Function<T, V> function, Matcher<V> matcher) {
+        if (!Parallel.isSplittable(items)) {
+            return removeWith(items, function, matcher, null, "parallelRemove");
+        }
+        Observation observed = Instrumentation.observe(function, items);
+        // the marks are found for every element before any is removed
+        int scanned = items.size();
+        try {
+            int removed = Parallel.remove(items, function, matcher);
+            if (observed != null) {
+                observed.completed("parallelRemove", scanned, removed);
+            }
+            return removed;
+        } catch (Exception e) {
+            if (observed != null) {
+                observed.failed("parallelRemove", e);
+            }
+            throw launderException(e);
+        }
+    }
+
+    private static int sizeOf(Iterable<?> items) {
+        return items instanceof Collection ? ((Collection<?>) items).size() : 10;
+    }
 
     // visible for testing only
     @SuppressWarnings("unchecked")
@@ -415,7 +2224,7 @@ public class Selector {
         return checkedCollectionTypeField != null;
     }
 
-    private static RuntimeException launderException(Exception e) {
+    static RuntimeException launderException(Exception e) {
         if (e instanceof RuntimeException) {
             return (RuntimeException) e;
         } else if (e instanceof InvocationTargetException) {
@@ -0,0 +1,96 @@
+package com.logicalpractice.collections;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.base.Function;
+import org.hamcrest.Matcher;
+
+import com.logicalpractice.collections.typed.Typed;
+
+/**
+ * A collection together with a {@link Capture} of its element type, the
+ * alternative to {@link Selector#from(Iterable)} that carries the source
+ * explicitly instead of through a ThreadLocal.
+ * <pre>
+ *    Source&lt;Person&gt; people = source(listOfPeople);
+ *    List&lt;Person&gt; smiths = people.select(people.each().getLastName(), equalTo("Smith"));
+ *    List&lt;String&gt; towns = people.collect(people.each().getAddress().getTown());
+ * </pre>
+ * <p>
+ * Nothing is left behind if a clause is started and never used, and clauses on
+ * different sources can be nested. Like a Capture, a Source belongs to the
+ * thread using it.
+ * </p>
+ *
+ * @param <T> type of the elements
+ */
+public final class Source<T> implements Typed<T> {
+
+    // fields ****************************************************************
+
+    private final Iterable<T> items;
+
+    private final Capture<T> capture;
+
+    // constructors **********************************************************
+
+    Source(Iterable<T> items, Class<T> type) {
+        this.items = items;
+        this.capture = new Capture<T>(type);
+    }
+
+    // methods ***************************************************************
+
+    public Class<T> type() {
+        return capture.type();
+    }
+
+    public Iterable<T> items() {
+        return items;
+    }
+
+    /**
+     * @return instance of the element type recording the clause
+     * @see Capture#each()
+     */
+    public T each() {
+        return capture.each();
+    }
+
+    /**
+     * @param clause should be used as source.each().getProperty()
+     * @return new list of the elements whose value matches, in iteration order
+     */
+    public <V> List<T> select(V clause, Matcher<V> matcher) {
+        Function<T, V> function = capture.accessor(clause);
+        return Selector.select(items, function, matcher, new ArrayList<T>());
+    }
+
+    /**
+     * @param clause should be used as source.each().getProperty()
+     * @return new list of the value of clause for each element, in iteration order
+     */
+    public <V> List<V> collect(V clause) {
+        Function<T, V> function = capture.accessor(clause);
+        return Selector.collect(items, function, new ArrayList<V>());
+    }
+
+    /**
+     * @param clause should be used as source.each().getProperty()
+     * @return number of elements whose value matches
+     */
+    public <V> int count(V clause, Matcher<V> matcher) {
+        Function<T, V> function = capture.accessor(clause);
+        return Selector.count(items, function, matcher);
+    }
+
+    /**
+     * @param clause should be used as source.each().getProperty()
+     * @return compiled Function evaluating the clause, safe to keep and share
+     * @see Capture#freeze(Object)
+     */
+    public <V> Function<T, V> freeze(V clause) {
+        return capture.freeze(clause);
+    }
+}
@@ -0,0 +1,92 @@
+package com.logicalpractice.collections;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+import org.hamcrest.Matcher;
+
+import com.logicalpractice.collections.support.Accessor;
+import com.logicalpractice.collections.typed.TypedUtils;
+
+/**
+ * Adapters between clauses and {@code java.util.stream}.
+ * <pre>
+ *    List&lt;String&gt; towns = people.parallelStream()
+ *          .filter(Streams.&lt;Person, Integer&gt;predicate(where(Person.class).getAge(), greaterThan(18)))
+ *          .collect(Streams.&lt;Person, String&gt;toList(by(Person.class).getAddress().getTown()));
+ * </pre>
+ * <p>
+ * The clause is compiled when the adapter is created, the adapters themselves
+ * hold no state and can be shared by the threads of a parallel stream, provided
+ * the matchers used are thread safe as the hamcrest ones are.
+ * </p>
+ */
+public final class Streams {
+
+    private Streams() {
+        // static methods only
+    }
+
+    /**
+     * @param clause should be used as by(Class).getProperty()
+     * @return Function evaluating the clause
+     */
+    public static <T, V> Function<T, V> function(V clause) {
+        Accessor<T, V> accessor = Selector.getCurrentAccessor(clause);
+        return accessor::get;
+    }
+
+    /**
+     * @return function as a {@code java.util.function.Function}
+     */
+    public static <T, V> Function<T, V> function(com.google.common.base.Function<T, V> function) {
+        return function::apply;
+    }
+
+    /**
+     * @param whereclause should be used as where(Class).getProperty()
+     * @return Predicate true for the elements whose value matches
+     */
+    public static <T, V> Predicate<T> predicate(V whereclause, Matcher<? super V> matcher) {
+        Accessor<T, V> accessor = Selector.getCurrentAccessor(whereclause);
+        return predicate(accessor, matcher);
+    }
+
+    /**
+     * @return Predicate true for the elements whose value of function matches
+     */
+    public static <T, V> Predicate<T> predicate(com.google.common.base.Function<T, V> function, Matcher<? super V> matcher) {
+        return element -> matcher.matches(function.apply(element));
+    }
+
+    /**
+     * Collects the value of the clause for each element, the stream equivalent
+     * of {@link Selector#collect(Object)}.
+     *
+     * @param byclause should be used as by(Class).getProperty()
+     */
+    public static <T, V> Collector<T, ?, List<V>> toList(V byclause) {
+        Accessor<T, V> accessor = Selector.getCurrentAccessor(byclause);
+        return Collectors.mapping(accessor::get, Collectors.<V>toList());
+    }
+
+    /**
+     * Collects the elements into a list that keeps type, so that it can be used
+     * with {@link Selector#from(Iterable)} without sniffing its first element.
+     */
+    public static <T> Collector<T, ?, List<T>> toTypedList(Class<T> type) {
+        if (type == null) {
+            throw new IllegalArgumentException("type is required");
+        }
+        return Collector.<T, List<T>, List<T>>of(ArrayList::new, List::add,
+                (left, right) -> {
+                    left.addAll(right);
+                    return left;
+                },
+                list -> TypedUtils.typedList(list, type));
+    }
+}
@@ -0,0 +1,29 @@
+package com.logicalpractice.collections.metamodel;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class for which {@link MetamodelProcessor} generates a metamodel, a
+ * class named after it with a trailing underscore holding a {@link Property} for
+ * each public getter.
+ * <pre>
+ *    &#64;Metamodel
+ *    public class Person { ... }
+ *
+ *    Iterable&lt;Person&gt; smiths = Selector.&lt;Person, String&gt;select(people, Person_.lastName, equalTo("Smith"));
+ *    Iterable&lt;String&gt; towns = collect(people, Person_.address.town);
+ * </pre>
+ * Java 8 and later need the type arguments on select() and remove() when the
+ * matcher's type is inferred, otherwise the clause overloads are also applicable.
+ * Getters returning another class marked with Metamodel can be followed, unless
+ * that would lead back to the class they started from.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface Metamodel {
+}
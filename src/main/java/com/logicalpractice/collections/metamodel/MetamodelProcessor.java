@@ -0,0 +1,308 @@
+package com.logicalpractice.collections.metamodel;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates the metamodel of classes marked with {@link Metamodel}.
+ * <p>
+ * For {@code Person} the generated {@code Person_} holds a static {@link Property}
+ * of Person for each public getter, plus a nested {@code Person_.Path} used when
+ * a Person is reached from another class, so that {@code Order_.customer.lastName}
+ * is a Property of Order. Getters are public, non static, take no arguments and
+ * are named getX, or isX when they return boolean.
+ * </p>
+ * <p>
+ * Generic classes and classes nested in anything but a static context are
+ * reported as errors, their metamodel could not be referred to.
+ * </p>
+ */
+@SupportedAnnotationTypes("com.logicalpractice.collections.metamodel.Metamodel")
+public class MetamodelProcessor extends AbstractProcessor {
+
+   private static final String PROPERTY = Property.class.getName();
+
+   @Override
+   public SourceVersion getSupportedSourceVersion() {
+      return SourceVersion.latestSupported();
+   }
+
+   @Override
+   public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+      for (Element element : round.getElementsAnnotatedWith(Metamodel.class)) {
+         TypeElement type = (TypeElement) element;
+         String problem = unsupported(type);
+         if (problem != null) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "@Metamodel " + problem, type);
+            continue;
+         }
+         try {
+            generate(type);
+         } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write metamodel: " + e, type);
+         }
+      }
+      return true;
+   }
+
+   // analysis **************************************************************
+
+   /**
+    * @return why type cannot have a metamodel, null if it can
+    */
+   private static String unsupported(TypeElement type) {
+      if (type.getKind() != ElementKind.CLASS && type.getKind() != ElementKind.INTERFACE) {
+         return "is only supported on classes and interfaces";
+      }
+      if (!type.getTypeParameters().isEmpty()) {
+         return "is not supported on generic types";
+      }
+      if (type.getModifiers().contains(Modifier.PRIVATE)) {
+         return "is not supported on private types";
+      }
+      Element enclosing = type.getEnclosingElement();
+      if (enclosing.getKind() == ElementKind.PACKAGE) {
+         return null;
+      }
+      if (!(enclosing instanceof TypeElement)
+            || (type.getKind() == ElementKind.CLASS && !type.getModifiers().contains(Modifier.STATIC))) {
+         return "is not supported on inner or local classes";
+      }
+      return unsupported((TypeElement) enclosing);
+   }
+
+   /**
+    * @return getters of type by property name, in the order they were found
+    */
+   private Map<String, ExecutableElement> getters(TypeElement type) {
+      Map<String, ExecutableElement> getters = new LinkedHashMap<String, ExecutableElement>();
+      for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+         String property = propertyName(method);
+         if (property != null && !getters.containsKey(property)) {
+            getters.put(property, method);
+         }
+      }
+      return getters;
+   }
+
+   private static String propertyName(ExecutableElement method) {
+      Set<Modifier> modifiers = method.getModifiers();
+      if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.STATIC)
+            || !method.getParameters().isEmpty() || !method.getTypeParameters().isEmpty()
+            || ((TypeElement) method.getEnclosingElement()).getQualifiedName().contentEquals("java.lang.Object")) {
+         return null;
+      }
+      String name = method.getSimpleName().toString();
+      TypeKind returns = method.getReturnType().getKind();
+      String property;
+      if (name.startsWith("get") && name.length() > 3 && returns != TypeKind.VOID) {
+         property = name.substring(3);
+      } else if (name.startsWith("is") && name.length() > 2 && returns == TypeKind.BOOLEAN) {
+         property = name.substring(2);
+      } else {
+         return null;
+      }
+      if (property.length() == 1 || !Character.isUpperCase(property.charAt(1))) {
+         property = Character.toLowerCase(property.charAt(0)) + property.substring(1);
+      }
+      return SourceVersion.isKeyword(property) ? property + "_" : property;
+   }
+
+   /**
+    * @return the metamodel type a getter returning type can be followed into, or
+    *         null if it is a plain Property
+    */
+   private TypeElement followed(TypeMirror type, TypeElement from) {
+      TypeElement target = marked(type);
+      if (target == null || reaches(target, from, new HashSet<TypeElement>())) {
+         return null;
+      }
+      return target;
+   }
+
+   private static TypeElement marked(TypeMirror type) {
+      if (type.getKind() != TypeKind.DECLARED || !((DeclaredType) type).getTypeArguments().isEmpty()) {
+         return null;
+      }
+      TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+      if (element.getAnnotation(Metamodel.class) == null || unsupported(element) != null) {
+         return null;
+      }
+      return element;
+   }
+
+   /**
+    * Following a getter into a metamodel that can lead back would nest paths
+    * without end, so those stay plain properties.
+    */
+   private boolean reaches(TypeElement from, TypeElement target, Set<TypeElement> visited) {
+      if (from.equals(target)) {
+         return true;
+      }
+      if (!visited.add(from)) {
+         return false;
+      }
+      for (ExecutableElement getter : getters(from).values()) {
+         TypeElement next = marked(getter.getReturnType());
+         if (next != null && reaches(next, target, visited)) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   // generation ************************************************************
+
+   private void generate(TypeElement type) throws IOException {
+      PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+      String name = metamodelName(type);
+      String typeName = type.getQualifiedName().toString();
+
+      List<String> statics = new ArrayList<String>();
+      List<String> fields = new ArrayList<String>();
+      List<String> assignments = new ArrayList<String>();
+      for (Map.Entry<String, ExecutableElement> entry : getters(type).entrySet()) {
+         String property = entry.getKey();
+         ExecutableElement getter = entry.getValue();
+         String method = getter.getSimpleName().toString();
+         TypeElement followed = followed(getter.getReturnType(), type);
+         String valueType = followed != null
+               ? followed.getQualifiedName().toString() : boxed(getter.getReturnType());
+
+         statics.add("   public static final " + declaredType(followed, typeName, valueType) + " " + property
+               + " = new " + declaredType(followed, typeName, valueType)
+               + "(" + typeName + ".class, null, " + typeName + ".class, \"" + method + "\") {\n"
+               + body("      ", typeName, valueType, getter, "target." + method + "()")
+               + "   };\n");
+         fields.add("      public final " + declaredType(followed, "R", valueType) + " " + property + ";\n");
+         assignments.add("         this." + property + " = new " + declaredType(followed, "R", valueType)
+               + "(root, this, " + typeName + ".class, \"" + method + "\") {\n"
+               + body("            ", "R", valueType, getter, "self.get(target)." + method + "()")
+               + "         };\n");
+      }
+
+      StringBuilder out = new StringBuilder();
+      if (!pkg.isUnnamed()) {
+         out.append("package ").append(pkg.getQualifiedName()).append(";\n\n");
+      }
+      out.append("/**\n * Metamodel of {@link ").append(typeName).append("}, generated by ")
+            .append(MetamodelProcessor.class.getSimpleName()).append(".\n */\n");
+      out.append(type.getModifiers().contains(Modifier.PUBLIC) ? "public " : "")
+            .append("final class ").append(name).append(" {\n\n");
+      for (String field : statics) {
+         out.append(field).append('\n');
+      }
+      out.append("   private ").append(name).append("() {\n   }\n\n");
+      out.append("   /**\n    * A ").append(type.getSimpleName()).append(" reached from R.\n    */\n");
+      out.append("   public abstract static class Path<R> extends ").append(PROPERTY)
+            .append("<R, ").append(typeName).append("> {\n");
+      for (String field : fields) {
+         out.append(field);
+      }
+      out.append("\n      protected Path(Class<R> root, ").append(PROPERTY)
+            .append("<R, ?> parent, Class<?> owner, String getter) {\n");
+      out.append("         super(root, parent, owner, getter);\n");
+      out.append("         final ").append(PROPERTY).append("<R, ").append(typeName).append("> self = this;\n");
+      for (String assignment : assignments) {
+         out.append(assignment);
+      }
+      out.append("      }\n   }\n}\n");
+
+      String qualified = pkg.isUnnamed() ? name : pkg.getQualifiedName() + "." + name;
+      Writer writer = processingEnv.getFiler().createSourceFile(qualified, type).openWriter();
+      try {
+         writer.write(out.toString());
+      } finally {
+         writer.close();
+      }
+   }
+
+   private String declaredType(TypeElement followed, String root, String valueType) {
+      if (followed != null) {
+         String pkg = processingEnv.getElementUtils().getPackageOf(followed).getQualifiedName().toString();
+         return (pkg.length() == 0 ? "" : pkg + ".") + metamodelName(followed) + ".Path<" + root + ">";
+      }
+      return PROPERTY + "<" + root + ", " + valueType + ">";
+   }
+
+   /**
+    * get() of the anonymous Property, with the primitive getters overridden so
+    * that numeric properties are read without boxing.
+    */
+   private static String body(String indent, String root, String valueType, ExecutableElement getter, String call) {
+      StringBuilder out = new StringBuilder();
+      method(out, indent, valueType, "get", root, call);
+      switch (getter.getReturnType().getKind()) {
+         case BYTE:
+         case SHORT:
+         case INT:
+            method(out, indent, "int", "getInt", root, call);
+            method(out, indent, "long", "getLong", root, call);
+            method(out, indent, "double", "getDouble", root, call);
+            break;
+         case LONG:
+            method(out, indent, "int", "getInt", root, "(int) " + call);
+            method(out, indent, "long", "getLong", root, call);
+            method(out, indent, "double", "getDouble", root, call);
+            break;
+         case FLOAT:
+         case DOUBLE:
+            method(out, indent, "int", "getInt", root, "(int) " + call);
+            method(out, indent, "long", "getLong", root, "(long) " + call);
+            method(out, indent, "double", "getDouble", root, call);
+            break;
+         default:
+            break;
+      }
+      return out.toString();
+   }
+
+   private static void method(StringBuilder out, String indent, String returns, String name, String root, String call) {
+      out.append(indent).append("@Override\n")
+            .append(indent).append("public ").append(returns).append(' ').append(name)
+            .append('(').append(root).append(" target) {\n")
+            .append(indent).append("   return ").append(call).append(";\n")
+            .append(indent).append("}\n");
+   }
+
+   private String boxed(TypeMirror type) {
+      if (type.getKind().isPrimitive()) {
+         return processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+      }
+      return type.toString();
+   }
+
+   /**
+    * @return Person_ for Person, Outer_Inner_ for the nested Outer.Inner
+    */
+   private static String metamodelName(TypeElement type) {
+      StringBuilder name = new StringBuilder(type.getSimpleName()).append('_');
+      for (Element e = type.getEnclosingElement(); e instanceof TypeElement; e = e.getEnclosingElement()) {
+         name.insert(0, e.getSimpleName() + "_");
+      }
+      return name.toString();
+   }
+}
@@ -0,0 +1,53 @@
+package com.logicalpractice.collections.metamodel;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.logicalpractice.collections.support.Accessor;
+import com.logicalpractice.collections.support.CapturedChain;
+
+/**
+ * Base of the accessors generated by {@link MetamodelProcessor}.
+ * <p>
+ * A Property is an {@link Accessor} whose {@link #get(Object)} was written at
+ * compile time, so neither proxies nor generated classes are involved in using
+ * one. Its chain is equal to the one captured by the equivalent
+ * {@code by(Person.class).getLastName()}, which lets the two be used
+ * interchangeably with indexes and in query statistics.
+ * </p>
+ *
+ * @param <F> From type
+ * @param <V> Value type
+ */
+public abstract class Property<F, V> extends Accessor<F, V> {
+
+   /**
+    * @param root   type the chain starts from
+    * @param parent property the getter is called on, null if it is called on root
+    * @param owner  declared type the getter is called on
+    * @param getter name of a public no argument method of owner
+    */
+   protected Property(Class<F> root, Property<F, ?> parent, Class<?> owner, String getter) {
+      super(chain(root, parent, owner, getter));
+   }
+
+   private static CapturedChain chain(Class<?> root, Property<?, ?> parent, Class<?> owner, String getter) {
+      List<Method> methods = new ArrayList<Method>();
+      List<Object[]> arguments = new ArrayList<Object[]>();
+      if (parent != null) {
+         CapturedChain chain = parent.getChain();
+         for (int i = 0; i < chain.length(); i++) {
+            methods.add(chain.getMethod(i));
+            arguments.add(null);
+         }
+      }
+      try {
+         methods.add(owner.getMethod(getter));
+      } catch (NoSuchMethodException e) {
+         throw new IllegalStateException("Metamodel is out of date, " + owner.getName() + "." + getter + "() does not exist", e);
+      }
+      arguments.add(null);
+      return new CapturedChain(root, methods, arguments);
+   }
+}
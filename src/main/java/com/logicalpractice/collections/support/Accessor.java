@@ -0,0 +1,143 @@
+package com.logicalpractice.collections.support;
+
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.base.Function;
+import com.google.common.collect.MapMaker;
+
+/**
+ * Compiled form of a {@link CapturedChain}.
+ * <p>
+ * Where possible {@link #compile(CapturedChain)} generates a dedicated subclass
+ * whose {@link #get(Object)} calls each method of the chain directly, so evaluating
+ * {@code where(Person.class).getAddress().getTown()} against an element costs about
+ * the same as the hand written {@code person.getAddress().getTown()}. Chains that
+ * the generated class would not be allowed to call (non public methods in another
+ * package, classes from an unrelated class loader) fall back to reflection.
+ * </p>
+ * <p>
+ * Accessors hold no mutable state and can be shared between threads.
+ * </p>
+ *
+ * @param <F> From type
+ * @param <T> To type
+ */
+public abstract class Accessor<F, T> implements Function<F, T> {
+
+   /**
+    * Compiled accessors by chain, values are soft so that rarely used chains
+    * (and the classes they refer to) can be reclaimed.
+    */
+   private static final ConcurrentMap<CapturedChain, Accessor<?, ?>> interned =
+         new MapMaker().softValues().makeMap();
+
+   /**
+    * The chain this accessor evaluates, visible to the generated subclasses.
+    */
+   protected final CapturedChain chain;
+
+   /**
+    * Arguments for each method of the chain, read by the generated subclasses.
+    */
+   protected final Object[][] arguments;
+
+   protected Accessor(CapturedChain chain) {
+      this.chain = chain;
+      this.arguments = chain.arguments();
+   }
+
+   /**
+    * Compiles chain into an Accessor.
+    * <p>
+    * Accessors are interned, compiling a chain equal to one that has been seen
+    * before (same root, same methods and equal arguments) returns the existing
+    * Accessor, so after warm up a repeated {@code where()} clause costs a lookup.
+    * </p>
+    *
+    * @param chain non-null chain
+    * @return accessor for chain
+    */
+   @SuppressWarnings("unchecked")
+   public static <F, T> Accessor<F, T> compile(CapturedChain chain) {
+      if (chain == null) {
+         throw new IllegalArgumentException("chain is required");
+      }
+      Accessor<?, ?> accessor = interned.get(chain);
+      if (accessor == null) {
+         accessor = AccessorGenerator.compile(chain);
+         Accessor<?, ?> existing = interned.putIfAbsent(chain, accessor);
+         if (existing != null) {
+            accessor = existing;
+         }
+      }
+      return (Accessor<F, T>) accessor;
+   }
+
+   /**
+    * Evaluates the chain against target. Exceptions thrown by the underlying
+    * methods are propagated unwrapped.
+    *
+    * @param target object to evaluate the chain against
+    * @return result of the last method in the chain
+    */
+   public abstract T get(F target);
+
+   /**
+    * Evaluates the chain against target as an int, without boxing when the chain
+    * ends in a primitive numeric method.
+    *
+    * @throws ClassCastException if the result is not a Number
+    * @throws NullPointerException if the result is null
+    */
+   public int getInt(F target) {
+      return ((Number) get(target)).intValue();
+   }
+
+   /**
+    * Evaluates the chain against target as a long, without boxing when the chain
+    * ends in a primitive numeric method.
+    *
+    * @throws ClassCastException if the result is not a Number
+    * @throws NullPointerException if the result is null
+    */
+   public long getLong(F target) {
+      return ((Number) get(target)).longValue();
+   }
+
+   /**
+    * Evaluates the chain against target as a double, without boxing when the chain
+    * ends in a primitive numeric method.
+    *
+    * @throws ClassCastException if the result is not a Number
+    * @throws NullPointerException if the result is null
+    */
+   public double getDouble(F target) {
+      return ((Number) get(target)).doubleValue();
+   }
+
+   public T apply(F from) {
+      return get(from);
+   }
+
+   public CapturedChain getChain() {
+      return chain;
+   }
+
+   /**
+    * Accessors are equal when they evaluate equal chains.
+    */
+   @Override
+   public boolean equals(Object o) {
+      return this == o || (o instanceof Accessor && chain.equals(((Accessor<?, ?>) o).chain));
+   }
+
+   @Override
+   public int hashCode() {
+      return chain.hashCode();
+   }
+
+   @Override
+   public String toString() {
+      return chain.toString();
+   }
+}
@@ -0,0 +1,286 @@
+package com.logicalpractice.collections.support;
+
+import static java.lang.reflect.Modifier.isPrivate;
+import static java.lang.reflect.Modifier.isPublic;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sf.cglib.core.AbstractClassGenerator;
+import net.sf.cglib.core.ClassEmitter;
+import net.sf.cglib.core.CodeEmitter;
+import net.sf.cglib.core.Constants;
+import net.sf.cglib.core.ReflectUtils;
+import net.sf.cglib.core.Signature;
+import net.sf.cglib.core.TypeUtils;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Type;
+
+/**
+ * Generates {@link Accessor} subclasses that invoke each method of a
+ * {@link CapturedChain} directly.
+ * <p>
+ * The generated {@code get(Object)} is the equivalent of
+ * </p>
+ * <pre>
+ *    public Object get(Object target) {
+ *       return ((Address)((Person) target).getAddress()).getTown();
+ *    }
+ * </pre>
+ * <p>
+ * with any recorded arguments loaded from {@link Accessor#arguments}. When the last
+ * method returns a numeric primitive {@code getInt}, {@code getLong} and {@code getDouble} are
+ * generated as well, converting the result without boxing it. Generated
+ * classes are cached by CGLIB per class loader and method sequence, so chains that
+ * only differ in their arguments share a class.
+ * </p>
+ */
+class AccessorGenerator extends AbstractClassGenerator {
+
+   private static final Source SOURCE = new Source(Accessor.class.getName());
+
+   private static final Type ACCESSOR = Type.getType(Accessor.class);
+
+   private static final Type OBJECT_ARRAY_ARRAY = Type.getType(Object[][].class);
+
+   private static final Signature CSTRUCT_CHAIN =
+         new Signature(Constants.CONSTRUCTOR_NAME, Type.VOID_TYPE, new Type[]{Type.getType(CapturedChain.class)});
+
+   private static final Signature GET = TypeUtils.parseSignature("Object get(Object)");
+
+   private static final Signature GET_INT = TypeUtils.parseSignature("int getInt(Object)");
+
+   private static final Signature GET_LONG = TypeUtils.parseSignature("long getLong(Object)");
+
+   private static final Signature GET_DOUBLE = TypeUtils.parseSignature("double getDouble(Object)");
+
+   // fields ****************************************************************
+
+   private final CapturedChain chain;
+
+   private final Class<?> host;
+
+   // constructor ***********************************************************
+
+   private AccessorGenerator(CapturedChain chain, Class<?> host) {
+      super(SOURCE);
+      this.chain = chain;
+      this.host = host;
+   }
+
+   // methods ***************************************************************
+
+   /**
+    * Returns a generated accessor for chain, or a reflective one if the chain
+    * cannot be called from generated code.
+    */
+   static Accessor<?, ?> compile(CapturedChain chain) {
+      if (chain.length() == 0) {
+         return new IdentityAccessor<Object>(chain);
+      }
+      Class<?> host = hostOf(chain);
+      if (host != null && isCallableFrom(host, chain)) {
+         try {
+            Object event = Instrumentation.beginGeneration();
+            Class<?> type = new AccessorGenerator(chain, host).generate();
+            Instrumentation.generated(event, "accessor", type);
+            return (Accessor<?, ?>) type.getConstructor(CapturedChain.class).newInstance(chain);
+         } catch (Exception e) {
+            // fall back to reflection below
+         } catch (LinkageError e) {
+            // fall back to reflection below
+         }
+      }
+      return new ReflectiveAccessor<Object, Object>(chain);
+   }
+
+   private Class<?> generate() {
+      setNamePrefix(host.getName());
+      setClassLoader(host.getClassLoader());
+      List<Method> key = new ArrayList<Method>(chain.length());
+      for (int i = 0; i < chain.length(); i++) {
+         key.add(chain.getMethod(i));
+      }
+      return (Class<?>) super.create(key);
+   }
+
+   @Override
+   protected ClassLoader getDefaultClassLoader() {
+      return host.getClassLoader();
+   }
+
+   public void generateClass(ClassVisitor v) throws Exception {
+      ClassEmitter ce = new ClassEmitter(v);
+      ce.begin_class(Constants.V1_2, Constants.ACC_PUBLIC, getClassName(), ACCESSOR, null, Constants.SOURCE_FILE);
+
+      CodeEmitter e = ce.begin_method(Constants.ACC_PUBLIC, CSTRUCT_CHAIN, null, null);
+      e.load_this();
+      e.load_arg(0);
+      e.super_invoke_constructor(CSTRUCT_CHAIN);
+      e.return_value();
+      e.end_method();
+
+      e = ce.begin_method(Constants.ACC_PUBLIC, GET, null, null);
+      Class<?> result = invokeChain(e);
+      if (result == Void.TYPE) {
+         e.aconst_null();
+      } else {
+         e.box(Type.getType(result));
+      }
+      e.return_value();
+      e.end_method();
+
+      if (isNumeric(result)) {
+         e = ce.begin_method(Constants.ACC_PUBLIC, GET_INT, null, null);
+         invokeChain(e);
+         e.cast_numeric(Type.getType(result), Type.INT_TYPE);
+         e.return_value();
+         e.end_method();
+
+         e = ce.begin_method(Constants.ACC_PUBLIC, GET_LONG, null, null);
+         invokeChain(e);
+         e.cast_numeric(Type.getType(result), Type.LONG_TYPE);
+         e.return_value();
+         e.end_method();
+
+         e = ce.begin_method(Constants.ACC_PUBLIC, GET_DOUBLE, null, null);
+         invokeChain(e);
+         e.cast_numeric(Type.getType(result), Type.DOUBLE_TYPE);
+         e.return_value();
+         e.end_method();
+      }
+
+      ce.end_class();
+   }
+
+   /**
+    * Emits the calls of the chain against argument 0, leaving the unboxed result
+    * of the last method on the stack (nothing for a void method).
+    *
+    * @return return type of the last method
+    */
+   private Class<?> invokeChain(CodeEmitter e) {
+      e.load_arg(0);
+      for (int i = 0; i < chain.length(); i++) {
+         Method method = chain.getMethod(i);
+         e.checkcast(Type.getType(method.getDeclaringClass()));
+         Class<?>[] parameterTypes = method.getParameterTypes();
+         for (int j = 0; j < parameterTypes.length; j++) {
+            e.load_this();
+            e.super_getfield("arguments", OBJECT_ARRAY_ARRAY);
+            e.push(i);
+            e.aaload();
+            e.push(j);
+            e.aaload();
+            e.unbox(Type.getType(parameterTypes[j]));
+         }
+         e.invoke(ReflectUtils.getMethodInfo(method));
+         if (i < chain.length() - 1) {
+            e.box(Type.getType(method.getReturnType()));
+         }
+      }
+      return chain.getMethod(chain.length() - 1).getReturnType();
+   }
+
+   private static boolean isNumeric(Class<?> type) {
+      return type.isPrimitive() && type != Void.TYPE && type != Boolean.TYPE;
+   }
+
+   @Override
+   protected Object firstInstance(Class type) {
+      return type;
+   }
+
+   @Override
+   protected Object nextInstance(Object instance) {
+      return instance;
+   }
+
+   /**
+    * The generated class is defined alongside the root of the chain so that
+    * package level methods remain callable, unless the root lives somewhere
+    * classes cannot be defined (the bootstrap loader or a java.* package).
+    */
+   private static Class<?> hostOf(CapturedChain chain) {
+      Class<?> root = chain.getRoot() != null ? chain.getRoot() : chain.getMethod(0).getDeclaringClass();
+      if (root.isArray() || root.isPrimitive()) {
+         return null;
+      }
+      if (root.getClassLoader() != null && !root.getName().startsWith("java.")) {
+         return root;
+      }
+      return Accessor.class.getClassLoader() != null ? Accessor.class : null;
+   }
+
+   private static boolean isCallableFrom(Class<?> host, CapturedChain chain) {
+      ClassLoader loader = host.getClassLoader();
+      if (!isVisible(Accessor.class, loader)) {
+         return false;
+      }
+      for (int i = 0; i < chain.length(); i++) {
+         Method method = chain.getMethod(i);
+         Class<?> owner = method.getDeclaringClass();
+         if (!isAccessible(owner, host) || !isVisible(owner, loader)) {
+            return false;
+         }
+         if (!isPublic(method.getModifiers()) && (isPrivate(method.getModifiers()) || !samePackage(owner, host))) {
+            return false;
+         }
+         for (Class<?> parameterType : method.getParameterTypes()) {
+            if (!isAccessible(parameterType, host) || !isVisible(parameterType, loader)) {
+               return false;
+            }
+         }
+      }
+      return true;
+   }
+
+   private static boolean isAccessible(Class<?> type, Class<?> host) {
+      while (type.isArray()) {
+         type = type.getComponentType();
+      }
+      if (type.isPrimitive() || isPublic(type.getModifiers())) {
+         return true;
+      }
+      return !isPrivate(type.getModifiers()) && samePackage(type, host);
+   }
+
+   private static boolean isVisible(Class<?> type, ClassLoader loader) {
+      while (type.isArray()) {
+         type = type.getComponentType();
+      }
+      if (type.isPrimitive()) {
+         return true;
+      }
+      try {
+         return Class.forName(type.getName(), false, loader) == type;
+      } catch (ClassNotFoundException e) {
+         return false;
+      }
+   }
+
+   private static boolean samePackage(Class<?> a, Class<?> b) {
+      return a.getClassLoader() == b.getClassLoader() && packageOf(a).equals(packageOf(b));
+   }
+
+   private static String packageOf(Class<?> type) {
+      String name = type.getName();
+      int dot = name.lastIndexOf('.');
+      return dot == -1 ? "" : name.substring(0, dot);
+   }
+
+   // fallbacks *************************************************************
+
+   private static class IdentityAccessor<F> extends Accessor<F, F> {
+
+      IdentityAccessor(CapturedChain chain) {
+         super(chain);
+      }
+
+      @Override
+      public F get(F target) {
+         return target;
+      }
+   }
+}
@@ -0,0 +1,148 @@
+package com.logicalpractice.collections.support;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.collect.MapMaker;
+import net.sf.cglib.core.NamingPolicy;
+import net.sf.cglib.core.Predicate;
+import net.sf.cglib.proxy.Enhancer;
+import net.sf.cglib.proxy.Factory;
+import net.sf.cglib.proxy.MethodInterceptor;
+import org.objenesis.Objenesis;
+import org.objenesis.ObjenesisStd;
+import org.objenesis.instantiator.ObjectInstantiator;
+
+/**
+ * Creates the capturing instances handed out by {@link CapturingProxy#proxy(Class)}.
+ * <p>
+ * The work needed to proxy a type is done once and cached per type: interfaces use
+ * a {@link java.lang.reflect.Proxy} class, everything else a CGLIB subclass which is
+ * instantiated through objenesis so that no constructor of the captured class is
+ * ever run. Creating further instances is then little more than an allocation.
+ * </p>
+ * <p>
+ * CGLIB classes are named {@code <type>$$CaptureProxy} rather than by hash, and a
+ * class of that name already on the class path, as written by
+ * {@link ProxyPregenerator}, is used instead of generating one.
+ * </p>
+ */
+final class CaptureProxies {
+
+   private static final Objenesis objenesis = new ObjenesisStd(true);
+
+   /**
+    * Weak keys so that captured classes can still be unloaded, the makers refer
+    * back to their class so the values are soft.
+    */
+   private static final ConcurrentMap<Class<?>, ProxyMaker> makers =
+         new MapMaker().weakKeys().softValues().makeMap();
+
+   private static final String SUFFIX = "$$CaptureProxy";
+
+   private static final NamingPolicy naming = new NamingPolicy() {
+      public String getClassName(String prefix, String source, Object key, Predicate names) {
+         // CGLIB drops Object as the superclass and with it the prefix
+         String base = proxyClassName(prefix == null ? Object.class.getName() : prefix);
+         String name = base;
+         for (int i = 2; names.evaluate(name); i++) {
+            name = base + "_" + i;
+         }
+         return name;
+      }
+   };
+
+   private CaptureProxies() {
+      // prevent construction
+   }
+
+   static <H extends MethodInterceptor & InvocationHandler> Object newProxy(Class<?> type, H handler) {
+      ProxyMaker maker = makers.get(type);
+      if (maker == null) {
+         Class<?> pregenerated = type.isInterface() ? null : pregenerated(type);
+         if (pregenerated != null) {
+            maker = new ClassProxyMaker(pregenerated);
+         } else {
+            Object event = Instrumentation.beginGeneration();
+            maker = type.isInterface() ? new InterfaceProxyMaker(type) : new ClassProxyMaker(enhancer(type).createClass());
+            Instrumentation.generated(event, type.isInterface() ? "interface proxy" : "capture proxy", type);
+         }
+         ProxyMaker existing = makers.putIfAbsent(type, maker);
+         if (existing != null) {
+            maker = existing;
+         }
+      }
+      return maker.newInstance(handler);
+   }
+
+   /**
+    * @return Enhancer configured to generate the capture proxy of class type
+    */
+   static Enhancer enhancer(Class<?> type) {
+      Enhancer enhancer = new Enhancer();
+      enhancer.setSuperclass(type);
+      enhancer.setCallbackType(MethodInterceptor.class);
+      enhancer.setNamingPolicy(naming);
+      return enhancer;
+   }
+
+   /**
+    * @return name of the capture proxy of the class named type, classes in java
+    *         packages can't be defined under their own package
+    */
+   static String proxyClassName(String type) {
+      return (type.startsWith("java") ? "$" : "") + type + SUFFIX;
+   }
+
+   private static Class<?> pregenerated(Class<?> type) {
+      ClassLoader loader = type.getClassLoader() != null ? type.getClassLoader() : CaptureProxies.class.getClassLoader();
+      try {
+         Class<?> proxy = Class.forName(proxyClassName(type.getName()), false, loader);
+         return proxy.getSuperclass() == type && Factory.class.isAssignableFrom(proxy) ? proxy : null;
+      } catch (ClassNotFoundException e) {
+         return null;
+      } catch (LinkageError e) {
+         return null;
+      }
+   }
+
+   private interface ProxyMaker {
+      <H extends MethodInterceptor & InvocationHandler> Object newInstance(H handler);
+   }
+
+   private static class InterfaceProxyMaker implements ProxyMaker {
+      private final Constructor<?> constructor;
+
+      InterfaceProxyMaker(Class<?> type) {
+         try {
+            constructor = Proxy.getProxyClass(type.getClassLoader(), type).getConstructor(InvocationHandler.class);
+         } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+         }
+      }
+
+      public <H extends MethodInterceptor & InvocationHandler> Object newInstance(H handler) {
+         try {
+            return constructor.newInstance(handler);
+         } catch (Exception e) {
+            throw new IllegalStateException("Unable to create proxy with " + constructor, e);
+         }
+      }
+   }
+
+   private static class ClassProxyMaker implements ProxyMaker {
+      private final ObjectInstantiator<?> instantiator;
+
+      ClassProxyMaker(Class<?> proxy) {
+         instantiator = objenesis.getInstantiatorOf(proxy);
+      }
+
+      public <H extends MethodInterceptor & InvocationHandler> Object newInstance(H handler) {
+         Factory proxy = (Factory) instantiator.newInstance();
+         proxy.setCallback(0, handler);
+         return proxy;
+      }
+   }
+}
@@ -0,0 +1,143 @@
+package com.logicalpractice.collections.support;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable description of a finished capture, the root type followed by the
+ * sequence of methods (and their arguments) recorded by a {@link CapturingProxy}.
+ * <p>
+ * A CapturedChain is the input to {@link Accessor#compile(CapturedChain)}, which
+ * turns it into something that can be evaluated against each element of a
+ * collection.
+ * </p>
+ */
+public final class CapturedChain {
+
+   private static final Object[] NO_ARGS = new Object[0];
+
+   // fields ****************************************************************
+
+   private final Class<?> root;
+
+   private final Method[] methods;
+
+   private final Object[][] arguments;
+
+   // constructor ***********************************************************
+
+   /**
+    * @param root      the type the capture was started on, may be null when unknown
+    * @param methods   methods in invocation order
+    * @param arguments arguments for each method, null entries are treated as no arguments
+    */
+   public CapturedChain(Class<?> root, List<Method> methods, List<Object[]> arguments) {
+      if (methods.size() != arguments.size()) {
+         throw new IllegalArgumentException("methods and arguments must be the same length");
+      }
+      this.root = root;
+      this.methods = methods.toArray(new Method[methods.size()]);
+      this.arguments = new Object[this.methods.length][];
+      for (int i = 0; i < this.arguments.length; i++) {
+         Object[] args = arguments.get(i);
+         this.arguments[i] = args == null || args.length == 0 ? NO_ARGS : args.clone();
+      }
+   }
+
+   // methods ***************************************************************
+
+   /**
+    * @return the type the capture was started on, or null if it was not recorded
+    */
+   public Class<?> getRoot() {
+      return root;
+   }
+
+   /**
+    * @return number of methods in the chain, zero means the chain is the identity
+    */
+   public int length() {
+      return methods.length;
+   }
+
+   public Method getMethod(int index) {
+      return methods[index];
+   }
+
+   /**
+    * @return copy of the arguments recorded for the method at index
+    */
+   public Object[] getArguments(int index) {
+      return arguments[index].length == 0 ? NO_ARGS : arguments[index].clone();
+   }
+
+   /**
+    * @return declared return type of the last method, or the root if the chain is empty
+    */
+   public Class<?> getResultType() {
+      return methods.length == 0 ? root : methods[methods.length - 1].getReturnType();
+   }
+
+   // package access for the generated accessors, these arrays are never handed out
+   Object[][] arguments() {
+      return arguments;
+   }
+
+   /**
+    * Evaluates the chain reflectively against target.
+    */
+   Object invoke(Object target) throws Exception {
+      Object current = target;
+      for (int i = 0; i < methods.length; i++) {
+         current = methods[i].invoke(current, arguments[i]);
+      }
+      return current;
+   }
+
+   @Override
+   public boolean equals(Object o) {
+      if (this == o) {
+         return true;
+      }
+      if (!(o instanceof CapturedChain)) {
+         return false;
+      }
+      CapturedChain other = (CapturedChain) o;
+      return (root == null ? other.root == null : root.equals(other.root))
+            && Arrays.equals(methods, other.methods)
+            && Arrays.deepEquals(arguments, other.arguments);
+   }
+
+   @Override
+   public int hashCode() {
+      int result = root == null ? 0 : root.hashCode();
+      result = 31 * result + Arrays.hashCode(methods);
+      result = 31 * result + Arrays.deepHashCode(arguments);
+      return result;
+   }
+
+   /**
+    * @return the chain in source form, for example {@code Person.getAddress().getTown()}
+    */
+   @Override
+   public String toString() {
+      StringBuilder sb = new StringBuilder();
+      if (root != null) {
+         sb.append(root.getSimpleName());
+      } else if (methods.length > 0) {
+         sb.append(methods[0].getDeclaringClass().getSimpleName());
+      }
+      for (int i = 0; i < methods.length; i++) {
+         sb.append('.').append(methods[i].getName()).append('(');
+         for (int j = 0; j < arguments[i].length; j++) {
+            if (j > 0) {
+               sb.append(", ");
+            }
+            sb.append(arguments[i][j]);
+         }
+         sb.append(')');
+      }
+      return sb.toString();
+   }
+}
@@ -3,17 +3,17 @@ package com.logicalpractice.collections.support;
 import static java.lang.Thread.currentThread;
 import static java.lang.reflect.Modifier.isFinal;
 
+import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
 
 import com.google.common.base.Function;
-import net.sf.cglib.proxy.Enhancer;
 import net.sf.cglib.proxy.MethodInterceptor;
 import net.sf.cglib.proxy.MethodProxy;
 
-public class CapturingProxy<F,T> implements MethodInterceptor, Function<F,T> {
+public class CapturingProxy<F,T> implements MethodInterceptor, InvocationHandler, Function<F,T> {
 
     private static class CapturedMethodInvocation {
       private final Method method;
@@ -24,10 +24,6 @@ public class CapturingProxy<F,T> implements MethodInterceptor, Function<F,T> {
          this.args = args;
       }
 
-      public Object invoke(Object obj) throws Exception {
-         return method.invoke(obj, args);
-      }
-
       @Override
       public String toString() {
          return new StringBuilder()
@@ -41,42 +37,129 @@ public class CapturingProxy<F,T> implements MethodInterceptor, Function<F,T> {
 
    // fields ****************************************************************
 
-   private List<CapturedMethodInvocation> invocations = new LinkedList<CapturedMethodInvocation>();
+   private List<CapturedMethodInvocation> invocations = new ArrayList<CapturedMethodInvocation>(4);
 
    private final Thread createdOn ;
+
+   private final Class<F> root ;
+
+   private volatile Accessor<F,T> compiled ;
    
    // constructor ***********************************************************
    
    public CapturingProxy() {
+      this(null);
+   }
+
+   /**
+    * @param root the type the capture is started on, recorded in the {@link CapturedChain}
+    */
+   public CapturingProxy(Class<F> root) {
       this.createdOn = currentThread();
+      this.root = root;
    }
    // methods ***************************************************************
 
    public Object intercept(Object obj, Method method, Object[] args, MethodProxy proxy)
          throws Throwable {
+      return record(method, args);
+   }
+
+   /**
+    * {@link InvocationHandler} entry point, used when the captured type is an interface.
+    */
+   public Object invoke(Object obj, Method method, Object[] args) throws Throwable {
+      return record(method, args);
+   }
+
+   /**
+    * Creates an instance of type whose method invocations are recorded by this
+    * CapturingProxy. Proxy classes are generated once per type and instances are
+    * created without running any constructor of type.
+    * @param type non-final class or interface
+    * @return capturing instance of type
+    */
+   @SuppressWarnings("unchecked")
+   public <P> P proxy(Class<P> type) {
+      return (P) CaptureProxies.newProxy(type, this);
+   }
+
+   Object record(Method method, Object[] args) {
       if( currentThread().equals(createdOn)){
          invocations.add(new CapturedMethodInvocation(method, args));
+         compiled = null;
       }
       Class<?> returnType = method.getReturnType();
       if (!isFinal(returnType.getModifiers())) {
-         return Enhancer.create(method.getReturnType(), this);
+         return proxy(returnType);
+      }
+      return defaultValue(returnType);
+   }
+
+   /**
+    * Zero for primitives and their wrappers, so that a boxed property can be used
+    * as the clause of a primitive parameter such as sum(items, int) without unboxing
+    * null.
+    */
+   static Object defaultValue(Class<?> type) {
+      if (type == Boolean.TYPE || type == Boolean.class) {
+         return Boolean.FALSE;
+      } else if (type == Character.TYPE || type == Character.class) {
+         return Character.valueOf((char) 0);
+      } else if (type == Byte.TYPE || type == Byte.class) {
+         return Byte.valueOf((byte) 0);
+      } else if (type == Short.TYPE || type == Short.class) {
+         return Short.valueOf((short) 0);
+      } else if (type == Integer.TYPE || type == Integer.class) {
+         return Integer.valueOf(0);
+      } else if (type == Long.TYPE || type == Long.class) {
+         return Long.valueOf(0L);
+      } else if (type == Float.TYPE || type == Float.class) {
+         return Float.valueOf(0f);
+      } else if (type == Double.TYPE || type == Double.class) {
+         return Double.valueOf(0d);
       }
       return null;
    }
 
-   @SuppressWarnings("unchecked")
-   public T replay(F target) throws Exception {
-      Object currentTarget = target;
+   /**
+    * @return snapshot of the invocations captured so far
+    */
+   public CapturedChain getChain() {
+      List<Method> methods = new ArrayList<Method>(invocations.size());
+      List<Object[]> arguments = new ArrayList<Object[]>(invocations.size());
       for (CapturedMethodInvocation invocation : invocations) {
-         currentTarget = invocation.invoke(currentTarget);
+         methods.add(invocation.method);
+         arguments.add(invocation.args);
       }
-      return (T) currentTarget;
+      return new CapturedChain(root, methods, arguments);
+   }
+
+   /**
+    * Compiles the captured invocations into an {@link Accessor}. The result is
+    * kept until another invocation is captured.
+    * @return accessor for the captured chain
+    */
+   public Accessor<F,T> compile() {
+      Accessor<F,T> accessor = compiled;
+      if (accessor == null) {
+         accessor = Accessor.compile(getChain());
+         compiled = accessor;
+      }
+      return accessor;
+   }
+
+   public T replay(F target) throws Exception {
+      return compile().get(target);
    }
 
     public T apply(F from) {
         try {
             return replay(from);
         } catch (Exception e) {
+            if (Instrumentation.getMetrics() != null) {
+                Instrumentation.failed(getChain(), "replay", e);
+            }
             throw new CapturingProxyException(e);
         }
     }
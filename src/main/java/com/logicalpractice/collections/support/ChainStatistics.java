@@ -0,0 +1,147 @@
+package com.logicalpractice.collections.support;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counters for one capture chain, kept by {@link QueryStatistics}.
+ * <p>
+ * Times are recorded in a histogram of eight buckets per power of two, so
+ * percentiles are upper bounds within about 12% of the true value.
+ * </p>
+ */
+public final class ChainStatistics {
+
+   private static final int SUB_BUCKETS = 8;
+
+   private final String chain;
+
+   private final AtomicLong calls = new AtomicLong();
+
+   private final AtomicLong scanned = new AtomicLong();
+
+   private final AtomicLong matched = new AtomicLong();
+
+   private final AtomicLong failures = new AtomicLong();
+
+   private final AtomicLong totalNanos = new AtomicLong();
+
+   private final AtomicLong maxNanos = new AtomicLong();
+
+   private final AtomicLongArray histogram = new AtomicLongArray(bucketOf(Long.MAX_VALUE) + 1);
+
+   ChainStatistics(String chain) {
+      this.chain = chain;
+   }
+
+   void completed(long scanned, long matched, long nanos) {
+      calls.incrementAndGet();
+      this.scanned.addAndGet(scanned);
+      this.matched.addAndGet(matched);
+      totalNanos.addAndGet(nanos);
+      histogram.incrementAndGet(bucketOf(nanos));
+      long max = maxNanos.get();
+      while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+         max = maxNanos.get();
+      }
+   }
+
+   void failed() {
+      failures.incrementAndGet();
+   }
+
+   // accessors *************************************************************
+
+   /**
+    * @return the chain in source form, for example {@code Person.getAddress().getTown()}
+    */
+   public String getChain() {
+      return chain;
+   }
+
+   /**
+    * @return operations completed, failed operations are only counted by {@link #getFailures()}
+    */
+   public long getCalls() {
+      return calls.get();
+   }
+
+   public long getScanned() {
+      return scanned.get();
+   }
+
+   public long getMatched() {
+      return matched.get();
+   }
+
+   public long getFailures() {
+      return failures.get();
+   }
+
+   public long getTotalNanos() {
+      return totalNanos.get();
+   }
+
+   public long getMaxNanos() {
+      return maxNanos.get();
+   }
+
+   public long getMedianNanos() {
+      return getPercentileNanos(50);
+   }
+
+   public long getP90Nanos() {
+      return getPercentileNanos(90);
+   }
+
+   public long getP99Nanos() {
+      return getPercentileNanos(99);
+   }
+
+   /**
+    * @param percentile between 0 and 100
+    * @return time that percentile of the completed operations took no longer than,
+    *         0 if there are none
+    */
+   public long getPercentileNanos(double percentile) {
+      long total = 0;
+      for (int i = 0; i < histogram.length(); i++) {
+         total += histogram.get(i);
+      }
+      long rank = (long) Math.ceil(total * percentile / 100);
+      long seen = 0;
+      for (int i = 0; i < histogram.length(); i++) {
+         seen += histogram.get(i);
+         if (seen >= rank && seen > 0) {
+            return Math.min(upperBound(i), getMaxNanos());
+         }
+      }
+      return 0;
+   }
+
+   // histogram *************************************************************
+
+   static int bucketOf(long nanos) {
+      if (nanos < SUB_BUCKETS) {
+         return (int) Math.max(nanos, 0);
+      }
+      int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+      int sub = (int) (nanos >>> (exponent - 3)) & (SUB_BUCKETS - 1);
+      return (exponent - 2) * SUB_BUCKETS + sub;
+   }
+
+   static long upperBound(int bucket) {
+      if (bucket < SUB_BUCKETS) {
+         return bucket;
+      }
+      int exponent = bucket / SUB_BUCKETS + 2;
+      int sub = bucket % SUB_BUCKETS;
+      return ((SUB_BUCKETS + sub + 1L) << (exponent - 3)) - 1;
+   }
+
+   @Override
+   public String toString() {
+      return chain + " calls=" + getCalls() + " scanned=" + getScanned() + " matched=" + getMatched()
+            + " failures=" + getFailures() + " p50=" + getMedianNanos() + "ns p99=" + getP99Nanos() + "ns";
+   }
+}
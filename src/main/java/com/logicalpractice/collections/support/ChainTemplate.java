@@ -0,0 +1,202 @@
+package com.logicalpractice.collections.support;
+
+import static java.lang.reflect.Modifier.isFinal;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.sf.cglib.proxy.MethodInterceptor;
+import net.sf.cglib.proxy.MethodProxy;
+
+/**
+ * A compiled chain together with shared proxies that accept the same calls again
+ * without recording them, so code that captures the same chain over and over can
+ * skip the capture once it has been compiled.
+ * <p>
+ * Each use of the template is a {@link Replay}, which follows the calls made on
+ * the proxies by the thread that started it. A call that isn't the next method of
+ * the chain with equal arguments, or a chain that stops short, makes the replay
+ * fall back to what a fresh {@link CapturingProxy} would have captured, so a
+ * template never answers for a chain other than its own.
+ * </p>
+ */
+public final class ChainTemplate {
+
+   /**
+    * The replay the proxies of this thread report to.
+    */
+   private static final ThreadLocal<Replay<?, ?>> current = new ThreadLocal<Replay<?, ?>>();
+
+   private static final Object[] NO_ARGS = new Object[0];
+
+   // fields ****************************************************************
+
+   private final Accessor<?, ?> accessor;
+
+   private final CapturedChain chain;
+
+   private final Object root;
+
+   // constructors **********************************************************
+
+   private ChainTemplate(Accessor<?, ?> accessor) {
+      this.accessor = accessor;
+      this.chain = accessor.getChain();
+      Object next = null;
+      for (int i = chain.length(); i >= 0; i--) {
+         Class<?> proxied = i == 0 ? chain.getRoot() : chain.getMethod(i - 1).getReturnType();
+         next = isFinal(proxied.getModifiers()) ? null : CaptureProxies.newProxy(proxied, new Step(i, next));
+      }
+      this.root = next;
+   }
+
+   // methods ***************************************************************
+
+   /**
+    * @return template replaying the chain compiled into accessor, null if the
+    *         chain has no known root type or its root can't be proxied
+    */
+   public static ChainTemplate of(Accessor<?, ?> accessor) {
+      Class<?> root = accessor.getChain().getRoot();
+      if (root == null || isFinal(root.getModifiers())) {
+         return null;
+      }
+      return new ChainTemplate(accessor);
+   }
+
+   public Class<?> getRoot() {
+      return chain.getRoot();
+   }
+
+   /**
+    * Starts a replay on the current thread, the calls made on its proxy from now
+    * on are checked against this template.
+    */
+   public <F, T> Replay<F, T> replay() {
+      Replay<F, T> replay = new Replay<F, T>(this);
+      current.set(replay);
+      return replay;
+   }
+
+   /**
+    * One use of a template, the calls made so far and, once they have differed
+    * from the template, the capture they were handed to.
+    */
+   public static final class Replay<F, T> {
+      private final ChainTemplate template;
+      private int position;
+      private CapturingProxy<F, T> diverged;
+
+      Replay(ChainTemplate template) {
+         this.template = template;
+      }
+
+      /**
+       * @return the shared instance of the root type to make the calls on
+       */
+      @SuppressWarnings("unchecked")
+      public F proxy() {
+         return (F) template.root;
+      }
+
+      /**
+       * Ends the replay.
+       *
+       * @return the template's accessor when exactly its chain was called, otherwise
+       *         the accessor for the calls that were made
+       */
+      @SuppressWarnings("unchecked")
+      public Accessor<F, T> compile() {
+         if (current.get() == this) {
+            current.remove();
+         }
+         if (diverged != null) {
+            return diverged.compile();
+         }
+         if (position == template.chain.length()) {
+            return (Accessor<F, T>) template.accessor;
+         }
+         return Accessor.compile(template.prefix(position));
+      }
+
+      /**
+       * @return true if the call is the next one of the template
+       */
+      private boolean follows(int index, Method method, Object[] args) {
+         if (diverged == null && index == position && template.expects(index, method, args)) {
+            position++;
+            return true;
+         }
+         return false;
+      }
+
+      /**
+       * @return what the capture taking over from the template returns for the call
+       */
+      private Object divert(Method method, Object[] args) {
+         if (diverged == null) {
+            // hand the calls matched so far to a real capture and let it take over
+            @SuppressWarnings("unchecked")
+            CapturingProxy<F, T> capture = new CapturingProxy<F, T>((Class<F>) template.getRoot());
+            for (int i = 0; i < position; i++) {
+               capture.record(template.chain.getMethod(i), template.chain.getArguments(i));
+            }
+            diverged = capture;
+         }
+         return diverged.record(method, args);
+      }
+   }
+
+   private boolean expects(int index, Method method, Object[] args) {
+      return index < chain.length()
+            && chain.getMethod(index).equals(method)
+            && Arrays.deepEquals(chain.arguments()[index], args == null ? NO_ARGS : args);
+   }
+
+   private CapturedChain prefix(int length) {
+      List<Method> methods = new ArrayList<Method>(length);
+      List<Object[]> arguments = new ArrayList<Object[]>(length);
+      for (int i = 0; i < length; i++) {
+         methods.add(chain.getMethod(i));
+         arguments.add(chain.getArguments(i));
+      }
+      return new CapturedChain(chain.getRoot(), methods, arguments);
+   }
+
+   /**
+    * Stateless handler of the proxy reached after index calls of the chain.
+    */
+   private final class Step implements MethodInterceptor, InvocationHandler {
+      private final int index;
+      private final Object next;
+
+      Step(int index, Object next) {
+         this.index = index;
+         this.next = next;
+      }
+
+      public Object intercept(Object obj, Method method, Object[] args, MethodProxy proxy) {
+         return accept(method, args);
+      }
+
+      public Object invoke(Object proxy, Method method, Object[] args) {
+         return accept(method, args);
+      }
+
+      private Object accept(Method method, Object[] args) {
+         Replay<?, ?> replay = current.get();
+         if (replay == null || replay.template != ChainTemplate.this) {
+            throw new IllegalStateException("Calls on a chain template must be made by the thread replaying it, "
+                  + method + " was called outside of a replay of " + chain);
+         }
+         if (!replay.follows(index, method, args)) {
+            return replay.divert(method, args);
+         }
+         Class<?> returnType = method.getReturnType();
+         return isFinal(returnType.getModifiers()) ? CapturingProxy.defaultValue(returnType) : next;
+      }
+   }
+}
@@ -0,0 +1,117 @@
+package com.logicalpractice.collections.support;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * Flight recorder events, only loaded by {@link Instrumentation} when the jdk.jfr
+ * module is present. Listens to the recorder so that instrumentation is switched
+ * on only while a recording is running.
+ */
+final class FlightRecorderEvents implements Instrumentation.EventSink, FlightRecorderListener {
+
+   @Name("com.logicalpractice.collections.Query")
+   @Label("Selector Query")
+   @Category("logicalpractice collections")
+   @Description("A select, collect, remove or query evaluating a captured clause")
+   static final class QueryEvent extends Event {
+      @Label("Chain")
+      String chain;
+
+      @Label("Operation")
+      String operation;
+
+      @Label("Source Size")
+      @Description("Elements in the collection queried, -1 when it isn't a Collection")
+      long sourceSize;
+
+      @Label("Scanned")
+      @Description("Elements the clause was evaluated against, zero when an index answered")
+      long scanned;
+
+      @Label("Matched")
+      long matched;
+
+      @Label("Failure")
+      String failure;
+   }
+
+   @Name("com.logicalpractice.collections.ClassGeneration")
+   @Label("Class Generation")
+   @Category("logicalpractice collections")
+   @Description("A capture proxy or accessor class being generated")
+   static final class ClassGenerationEvent extends Event {
+      @Label("Kind")
+      String kind;
+
+      @Label("Type")
+      Class<?> type;
+   }
+
+   FlightRecorderEvents() {
+      FlightRecorder.addListener(this);
+      if (FlightRecorder.isInitialized()) {
+         recordingStateChanged(null);
+      }
+   }
+
+   // FlightRecorderListener ************************************************
+
+   public void recorderInitialized(FlightRecorder recorder) {
+      // recordings are tracked as they change state
+   }
+
+   public void recordingStateChanged(Recording changed) {
+      boolean running = false;
+      for (Recording recording : FlightRecorder.getFlightRecorder().getRecordings()) {
+         running |= recording.getState() == RecordingState.RUNNING;
+      }
+      Instrumentation.setRecording(running);
+   }
+
+   // EventSink *************************************************************
+
+   public Object beginQuery() {
+      QueryEvent event = new QueryEvent();
+      event.begin();
+      return event;
+   }
+
+   public void commitQuery(Object token, CapturedChain chain, String operation, long sourceSize, long scanned, long matched,
+         Throwable failure) {
+      QueryEvent event = (QueryEvent) token;
+      event.end();
+      if (event.shouldCommit()) {
+         event.chain = chain.toString();
+         event.operation = operation;
+         event.sourceSize = sourceSize;
+         event.scanned = scanned;
+         event.matched = matched;
+         event.failure = failure == null ? null : failure.toString();
+         event.commit();
+      }
+   }
+
+   public Object beginGeneration() {
+      ClassGenerationEvent event = new ClassGenerationEvent();
+      event.begin();
+      return event;
+   }
+
+   public void commitGeneration(Object token, String kind, Class<?> type) {
+      ClassGenerationEvent event = (ClassGenerationEvent) token;
+      event.end();
+      if (event.shouldCommit()) {
+         event.kind = kind;
+         event.type = type;
+         event.commit();
+      }
+   }
+}
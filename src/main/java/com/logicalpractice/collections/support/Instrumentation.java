@@ -0,0 +1,181 @@
+package com.logicalpractice.collections.support;
+
+import java.util.Collection;
+
+import com.google.common.base.Function;
+
+/**
+ * Opt in reporting of Selector operations to a {@link QueryMetrics} and, while
+ * a recording is running, to Java Flight Recorder.
+ * <p>
+ * Disabled by default, while no metrics are installed and nothing is recording
+ * an operation pays two volatile reads. The operations evaluating a clause
+ * (select, collect and remove, their parallel forms and the execution methods
+ * of a Query) report their clause, the elements scanned and matched and the time
+ * taken, functions that aren't captured clauses are not reported.
+ * </p>
+ * <pre>
+ *    QueryStatistics statistics = QueryStatistics.install();   // also registers the MXBean
+ *    ...
+ *    for (ChainStatistics chain : statistics.getChains()) { ... }
+ * </pre>
+ * <p>
+ * The flight recorder events, {@code com.logicalpractice.collections.Query} and
+ * {@code com.logicalpractice.collections.ClassGeneration}, need no setup beyond
+ * starting a recording. On a JVM without the jdk.jfr module they are never loaded.
+ * </p>
+ */
+public final class Instrumentation {
+
+   /**
+    * One instrumented operation in progress, from {@link Instrumentation#observe(Function, Iterable)}.
+    */
+   public static final class Observation {
+      private final CapturedChain chain;
+      private final long started;
+      private final Object event;
+      private final long sourceSize;
+
+      Observation(CapturedChain chain, Object event, long sourceSize) {
+         this.chain = chain;
+         this.event = event;
+         this.sourceSize = sourceSize;
+         this.started = System.nanoTime();
+      }
+
+      /**
+       * @param operation name of the Selector operation, for example "select"
+       * @param scanned   elements the clause was evaluated against, zero when an index answered
+       * @param matched   elements selected, collected or removed
+       */
+      public void completed(String operation, long scanned, long matched) {
+         long nanos = System.nanoTime() - started;
+         QueryMetrics current = metrics;
+         if (current != null) {
+            current.completed(chain, operation, scanned, matched, nanos);
+         }
+         if (event != null) {
+            recorder.commitQuery(event, chain, operation, sourceSize, scanned, matched, null);
+         }
+      }
+
+      public void failed(String operation, Throwable failure) {
+         Instrumentation.failed(chain, operation, failure);
+         if (event != null) {
+            recorder.commitQuery(event, chain, operation, sourceSize, 0, 0, failure);
+         }
+      }
+   }
+
+   /**
+    * Where the flight recorder events are written, implemented against jdk.jfr
+    * by {@link FlightRecorderEvents}.
+    */
+   interface EventSink {
+      Object beginQuery();
+
+      void commitQuery(Object event, CapturedChain chain, String operation, long sourceSize, long scanned, long matched,
+            Throwable failure);
+
+      Object beginGeneration();
+
+      void commitGeneration(Object event, String kind, Class<?> type);
+   }
+
+   private static volatile QueryMetrics metrics;
+
+   private static volatile boolean recording;
+
+   private static final EventSink recorder = loadRecorder();
+
+   private Instrumentation() {
+      // static methods only
+   }
+
+   /**
+    * @param metrics receives the reports from now on, null disables them
+    */
+   public static void setMetrics(QueryMetrics metrics) {
+      Instrumentation.metrics = metrics;
+   }
+
+   /**
+    * @return the installed metrics, or null if none are installed
+    */
+   public static QueryMetrics getMetrics() {
+      return metrics;
+   }
+
+   /**
+    * Called as an operation starts.
+    *
+    * @param source the elements the operation runs over
+    * @return the observation to complete, or null when there is nothing to report
+    *         to or function isn't a captured clause
+    */
+   public static Observation observe(Function<?, ?> function, Iterable<?> source) {
+      if (metrics == null && !recording) {
+         return null;
+      }
+      CapturedChain chain;
+      if (function instanceof Accessor) {
+         chain = ((Accessor<?, ?>) function).getChain();
+      } else if (function instanceof CapturingProxy) {
+         chain = ((CapturingProxy<?, ?>) function).getChain();
+      } else {
+         return null;
+      }
+      if (!recording) {
+         return new Observation(chain, null, -1);
+      }
+      // only the event reports the size, a concurrent collection may have to count it
+      long size = source instanceof Collection ? ((Collection<?>) source).size() : -1;
+      return new Observation(chain, recorder.beginQuery(), size);
+   }
+
+   /**
+    * Reports a failure outside of an observed operation, for example by a
+    * {@link CapturingProxy} applied as a Function.
+    */
+   public static void failed(CapturedChain chain, String operation, Throwable failure) {
+      QueryMetrics current = metrics;
+      if (current != null) {
+         current.failed(chain, operation, failure);
+      }
+   }
+
+   // flight recorder *******************************************************
+
+   static boolean isRecording() {
+      return recording;
+   }
+
+   static void setRecording(boolean recording) {
+      Instrumentation.recording = recording;
+   }
+
+   /**
+    * @return token for {@link #generated(Object, String, Class)}, null when not recording
+    */
+   static Object beginGeneration() {
+      return recording ? recorder.beginGeneration() : null;
+   }
+
+   static void generated(Object event, String kind, Class<?> type) {
+      if (event != null) {
+         recorder.commitGeneration(event, kind, type);
+      }
+   }
+
+   private static EventSink loadRecorder() {
+      try {
+         Class.forName("jdk.jfr.FlightRecorder");
+         return (EventSink) Class.forName(Instrumentation.class.getPackage().getName() + ".FlightRecorderEvents")
+               .getDeclaredConstructor().newInstance();
+      } catch (Exception e) {
+         return null;
+      } catch (LinkageError e) {
+         return null;
+      }
+   }
+}
@@ -0,0 +1,334 @@
+package com.logicalpractice.collections.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The set of property values a matcher can accept, as a union of disjoint
+ * intervals of {@link Comparable} values plus whether null is accepted.
+ * <p>
+ * Produced by {@link MatcherValues#ranges(org.hamcrest.Matcher)} so that a sorted
+ * index can answer the matcher with range scans. A KeyRanges is either exact, it
+ * accepts precisely the values the matcher does, or a superset (some part of the
+ * matcher was not understood) in which case the candidates must still be checked
+ * against the matcher.
+ * </p>
+ */
+public final class KeyRanges {
+
+   /**
+    * A non empty interval, a null bound is unbounded.
+    */
+   public static final class Range {
+      private final Comparable<Object> lower;
+      private final boolean lowerInclusive;
+      private final Comparable<Object> upper;
+      private final boolean upperInclusive;
+
+      Range(Comparable<Object> lower, boolean lowerInclusive, Comparable<Object> upper, boolean upperInclusive) {
+         this.lower = lower;
+         this.lowerInclusive = lower != null && lowerInclusive;
+         this.upper = upper;
+         this.upperInclusive = upper != null && upperInclusive;
+      }
+
+      /**
+       * @return lower bound, or null if unbounded below
+       */
+      public Comparable<Object> getLower() {
+         return lower;
+      }
+
+      public boolean isLowerInclusive() {
+         return lowerInclusive;
+      }
+
+      /**
+       * @return upper bound, or null if unbounded above
+       */
+      public Comparable<Object> getUpper() {
+         return upper;
+      }
+
+      public boolean isUpperInclusive() {
+         return upperInclusive;
+      }
+
+      /**
+       * Primitive test for ranges with {@link Double} bounds, ordered as
+       * {@link Double#compare(double, double)} so NaN and -0.0 agree with the boxed comparison.
+       */
+      public boolean contains(double value) {
+         if (lower != null) {
+            int c = Double.compare(value, (Double) (Object) lower);
+            if (c < 0 || (c == 0 && !lowerInclusive)) {
+               return false;
+            }
+         }
+         if (upper != null) {
+            int c = Double.compare(value, (Double) (Object) upper);
+            if (c > 0 || (c == 0 && !upperInclusive)) {
+               return false;
+            }
+         }
+         return true;
+      }
+
+      boolean isEmpty() {
+         if (lower == null || upper == null) {
+            return false;
+         }
+         int c = lower.compareTo(upper);
+         return c > 0 || (c == 0 && !(lowerInclusive && upperInclusive));
+      }
+
+      @Override
+      public String toString() {
+         return (lowerInclusive ? "[" : "(") + (lower == null ? "-inf" : lower) + ", "
+               + (upper == null ? "+inf" : upper) + (upperInclusive ? "]" : ")");
+      }
+   }
+
+   private static final Comparator<Range> byLower = new Comparator<Range>() {
+      public int compare(Range a, Range b) {
+         if (a.lower == null || b.lower == null) {
+            return a.lower == null ? (b.lower == null ? 0 : -1) : 1;
+         }
+         int c = a.lower.compareTo(b.lower);
+         if (c == 0 && a.lowerInclusive != b.lowerInclusive) {
+            return a.lowerInclusive ? -1 : 1;
+         }
+         return c;
+      }
+   };
+
+   private static final List<Range> NONE = Collections.emptyList();
+
+   private static final List<Range> ALL = Collections.singletonList(new Range(null, false, null, false));
+
+   private final List<Range> ranges;
+
+   private final boolean includesNull;
+
+   private final boolean exact;
+
+   private KeyRanges(List<Range> ranges, boolean includesNull, boolean exact) {
+      this.ranges = ranges;
+      this.includesNull = includesNull;
+      this.exact = exact;
+   }
+
+   // factories *************************************************************
+
+   /**
+    * @return every value, including null
+    */
+   public static KeyRanges all() {
+      return new KeyRanges(ALL, true, true);
+   }
+
+   public static KeyRanges onlyNull() {
+      return new KeyRanges(NONE, true, true);
+   }
+
+   @SuppressWarnings("unchecked")
+   public static KeyRanges point(Comparable<?> value) {
+      Comparable<Object> v = (Comparable<Object>) value;
+      return new KeyRanges(Collections.singletonList(new Range(v, true, v, true)), false, true);
+   }
+
+   /**
+    * @return values strictly greater than value, null excluded
+    */
+   @SuppressWarnings("unchecked")
+   public static KeyRanges greaterThan(Comparable<?> value) {
+      return new KeyRanges(Collections.singletonList(new Range((Comparable<Object>) value, false, null, false)), false, true);
+   }
+
+   // accessors *************************************************************
+
+   /**
+    * @return disjoint intervals in ascending order
+    */
+   public List<Range> getRanges() {
+      return ranges;
+   }
+
+   public boolean includesNull() {
+      return includesNull;
+   }
+
+   /**
+    * @return false if these ranges are only known to contain the accepted values
+    */
+   public boolean isExact() {
+      return exact;
+   }
+
+   /**
+    * @return a copy of this marked as a superset
+    */
+   public KeyRanges inexact() {
+      return exact ? new KeyRanges(ranges, includesNull, false) : this;
+   }
+
+   // primitive tests *****************************************************
+
+   /**
+    * @return true if every bound is exactly of type, so the ranges can be tested
+    *         against unboxed values of that type
+    */
+   public boolean boundsAre(Class<?> type) {
+      for (Range range : ranges) {
+         if ((range.lower != null && range.lower.getClass() != type)
+               || (range.upper != null && range.upper.getClass() != type)) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   /**
+    * Inclusive bounds for testing integral primitives, value {@code v} is in range
+    * {@code r} when {@code bounds[0][r] <= v && v <= bounds[1][r]}.
+    *
+    * @param boxed Integer or Long, the boxed type of the values tested
+    * @return the bounds, or null unless {@link #boundsAre(Class)} boxed (an Integer
+    *         never equals a Long, so the primitive comparison would disagree with the matcher)
+    */
+   public long[][] longBounds(Class<? extends Number> boxed) {
+      if (!boundsAre(boxed)) {
+         return null;
+      }
+      long[][] bounds = new long[2][ranges.size()];
+      for (int r = 0; r < ranges.size(); r++) {
+         Range range = ranges.get(r);
+         long lower = Long.MIN_VALUE;
+         long upper = Long.MAX_VALUE;
+         if (range.lower != null) {
+            lower = ((Number) (Object) range.lower).longValue();
+            if (!range.lowerInclusive) {
+               if (lower == Long.MAX_VALUE) {
+                  lower = 1;
+                  upper = 0;
+               } else {
+                  lower++;
+               }
+            }
+         }
+         if (range.upper != null) {
+            upper = Math.min(upper, ((Number) (Object) range.upper).longValue());
+            if (!range.upperInclusive) {
+               if (upper == Long.MIN_VALUE) {
+                  lower = 1;
+                  upper = 0;
+               } else {
+                  upper--;
+               }
+            }
+         }
+         bounds[0][r] = lower;
+         bounds[1][r] = upper;
+      }
+      return bounds;
+   }
+
+   // set operations ********************************************************
+
+   public KeyRanges union(KeyRanges other) {
+      List<Range> all = new ArrayList<Range>(ranges.size() + other.ranges.size());
+      all.addAll(ranges);
+      all.addAll(other.ranges);
+      return new KeyRanges(merge(all), includesNull || other.includesNull, exact && other.exact);
+   }
+
+   public KeyRanges intersect(KeyRanges other) {
+      KeyRanges result = complement(complement(this).union(complement(other)));
+      return new KeyRanges(result.ranges, includesNull && other.includesNull, exact && other.exact);
+   }
+
+   /**
+    * @throws IllegalStateException if this is not exact, the complement of a superset is meaningless
+    */
+   public KeyRanges complement() {
+      if (!exact) {
+         throw new IllegalStateException("only exact ranges can be complemented");
+      }
+      return complement(this);
+   }
+
+   private static KeyRanges complement(KeyRanges set) {
+      List<Range> gaps = new ArrayList<Range>(set.ranges.size() + 1);
+      Comparable<Object> from = null;
+      boolean fromInclusive = false;
+      for (Range range : set.ranges) {
+         if (range.lower != null) {
+            Range gap = new Range(from, fromInclusive, range.lower, !range.lowerInclusive);
+            if (!gap.isEmpty()) {
+               gaps.add(gap);
+            }
+         }
+         if (range.upper == null) {
+            return new KeyRanges(gaps, !set.includesNull, set.exact);
+         }
+         from = range.upper;
+         fromInclusive = !range.upperInclusive;
+      }
+      gaps.add(new Range(from, fromInclusive, null, false));
+      return new KeyRanges(gaps, !set.includesNull, set.exact);
+   }
+
+   /**
+    * Sorts ranges by lower bound and merges any that overlap or touch.
+    */
+   private static List<Range> merge(List<Range> ranges) {
+      if (ranges.size() < 2) {
+         return ranges;
+      }
+      Collections.sort(ranges, byLower);
+      List<Range> merged = new ArrayList<Range>(ranges.size());
+      Range current = ranges.get(0);
+      for (int i = 1; i < ranges.size(); i++) {
+         Range next = ranges.get(i);
+         if (joins(current, next)) {
+            if (extendsFurther(next, current)) {
+               current = new Range(current.lower, current.lowerInclusive, next.upper, next.upperInclusive);
+            }
+         } else {
+            merged.add(current);
+            current = next;
+         }
+      }
+      merged.add(current);
+      return merged;
+   }
+
+   /**
+    * @return true if next, which starts no earlier than current, overlaps or touches it
+    */
+   private static boolean joins(Range current, Range next) {
+      if (current.upper == null || next.lower == null) {
+         return true;
+      }
+      int c = next.lower.compareTo(current.upper);
+      return c < 0 || (c == 0 && (next.lowerInclusive || current.upperInclusive));
+   }
+
+   private static boolean extendsFurther(Range a, Range b) {
+      if (b.upper == null) {
+         return false;
+      }
+      if (a.upper == null) {
+         return true;
+      }
+      int c = a.upper.compareTo(b.upper);
+      return c > 0 || (c == 0 && a.upperInclusive && !b.upperInclusive);
+   }
+
+   @Override
+   public String toString() {
+      return ranges + (includesNull ? " + null" : "") + (exact ? "" : " (superset)");
+   }
+}
@@ -0,0 +1,160 @@
+package com.logicalpractice.collections.support;
+
+import java.lang.reflect.Field;
+
+import org.hamcrest.Matcher;
+import org.hamcrest.core.AllOf;
+import org.hamcrest.core.AnyOf;
+import org.hamcrest.core.DescribedAs;
+import org.hamcrest.core.Is;
+import org.hamcrest.core.IsAnything;
+import org.hamcrest.core.IsEqual;
+import org.hamcrest.core.IsNot;
+import org.hamcrest.core.IsNull;
+import org.hamcrest.number.IsGreaterThan;
+
+/**
+ * Reads the operands out of well known hamcrest matchers, so that a lookup such as
+ * {@code equalTo("Smith")} can be answered from an index instead of by evaluating
+ * the matcher against every element.
+ * <p>
+ * Hamcrest does not expose the operands so they are read reflectively; should
+ * that fail the matcher is simply reported as not understood and callers fall
+ * back to a scan.
+ * </p>
+ */
+public final class MatcherValues {
+
+   /**
+    * Returned by {@link #equalToValue(Matcher)} for matchers that are not an equality test.
+    */
+   public static final Object NOT_EQUALITY = new Object();
+
+   private static final Field isEqualObject = field(IsEqual.class, "object");
+
+   private static final Field isMatcher = field(Is.class, "matcher");
+
+   private static final Field describedAsMatcher = field(DescribedAs.class, "matcher");
+
+   private static final Field isNotMatcher = field(IsNot.class, "matcher");
+
+   private static final Field allOfMatchers = field(AllOf.class, "matchers");
+
+   private static final Field anyOfMatchers = field(AnyOf.class, "matchers");
+
+   private static final Field isGreaterThanCompareTo = field(IsGreaterThan.class, "compareTo");
+
+   private MatcherValues() {
+      // prevent construction
+   }
+
+   /**
+    * @return the operand of an {@code equalTo()} (optionally wrapped in {@code is()}),
+    *         or {@link #NOT_EQUALITY}. Arrays compare by content in hamcrest but not
+    *         in a hash table, so an array operand is also reported as NOT_EQUALITY
+    */
+   public static Object equalToValue(Matcher<?> matcher) {
+      Matcher<?> current = matcher;
+      while (current instanceof Is && isMatcher != null) {
+         current = (Matcher<?>) read(isMatcher, current);
+      }
+      if (current instanceof IsEqual && isEqualObject != null) {
+         Object value = read(isEqualObject, current);
+         return value != null && value.getClass().isArray() ? NOT_EQUALITY : value;
+      }
+      return NOT_EQUALITY;
+   }
+
+   /**
+    * Plans matcher as a set of key ranges, understanding {@code equalTo}, {@code greaterThan},
+    * {@code greaterThanOrEqualTo}, {@code lessThan}, {@code lessThanOrEqualTo},
+    * {@code nullValue}, {@code notNullValue}, {@code anything}, {@code allOf},
+    * {@code anyOf}, {@code not}, {@code is} and {@code describedAs}.
+    * <p>
+    * Inside an {@code allOf} clauses that aren't understood are ignored and the result
+    * is marked as a superset, anywhere else they make the whole matcher unplannable.
+    * </p>
+    *
+    * @return the values matcher can accept, or null if it can't be planned
+    */
+   public static KeyRanges ranges(Matcher<?> matcher) {
+      try {
+         return plan(matcher);
+      } catch (ClassCastException e) {
+         // operands of different types, e.g. allOf(greaterThan(1), lessThan(2L))
+         return null;
+      }
+   }
+
+   private static KeyRanges plan(Matcher<?> matcher) {
+      if (matcher instanceof Is && isMatcher != null) {
+         return plan((Matcher<?>) read(isMatcher, matcher));
+      }
+      if (matcher instanceof DescribedAs && describedAsMatcher != null) {
+         return plan((Matcher<?>) read(describedAsMatcher, matcher));
+      }
+      if (matcher instanceof IsEqual && isEqualObject != null) {
+         Object value = read(isEqualObject, matcher);
+         if (value == null) {
+            return KeyRanges.onlyNull();
+         }
+         return value instanceof Comparable ? KeyRanges.point((Comparable<?>) value) : null;
+      }
+      if (matcher instanceof IsGreaterThan && isGreaterThanCompareTo != null) {
+         return KeyRanges.greaterThan((Comparable<?>) read(isGreaterThanCompareTo, matcher));
+      }
+      if (matcher instanceof IsNull) {
+         return KeyRanges.onlyNull();
+      }
+      if (matcher instanceof IsAnything) {
+         return KeyRanges.all();
+      }
+      if (matcher instanceof IsNot && isNotMatcher != null) {
+         KeyRanges inner = plan((Matcher<?>) read(isNotMatcher, matcher));
+         return inner == null || !inner.isExact() ? null : inner.complement();
+      }
+      if (matcher instanceof AnyOf && anyOfMatchers != null) {
+         KeyRanges result = null;
+         for (Object each : (Iterable<?>) read(anyOfMatchers, matcher)) {
+            KeyRanges inner = plan((Matcher<?>) each);
+            if (inner == null) {
+               return null;
+            }
+            result = result == null ? inner : result.union(inner);
+         }
+         return result;
+      }
+      if (matcher instanceof AllOf && allOfMatchers != null) {
+         KeyRanges result = null;
+         boolean skipped = false;
+         for (Object each : (Iterable<?>) read(allOfMatchers, matcher)) {
+            KeyRanges inner = plan((Matcher<?>) each);
+            if (inner == null) {
+               skipped = true;
+            } else {
+               result = result == null ? inner : result.intersect(inner);
+            }
+         }
+         return result == null || !skipped ? result : result.inexact();
+      }
+      return null;
+   }
+
+   static Field field(Class<?> type, String name) {
+      try {
+         Field field = type.getDeclaredField(name);
+         field.setAccessible(true);
+         return field;
+      } catch (Exception e) {
+         return null;
+      }
+   }
+
+   static Object read(Field field, Object target) {
+      try {
+         return field.get(target);
+      } catch (IllegalAccessException e) {
+         throw new IllegalStateException(e);
+      }
+   }
+}
@@ -2,19 +2,16 @@ package com.logicalpractice.collections.support;
 
 import java.lang.reflect.Modifier;
 
-import net.sf.cglib.proxy.Enhancer;
-
 /**
  * Supplies and holds a CapturingProxy bound to the current Thread.
- * {@link #capture(Class)} uses CGLIB
- * {@link net.sf.cglib.proxy.Enhancer#create(Class,net.sf.cglib.proxy.Callback) Enchancer.create(Class,Callback)}
- * to provide the instance.
+ * {@link #capture(Class)} uses {@link CapturingProxy#proxy(Class)} to provide the
+ * instance, a {@link java.lang.reflect.Proxy} for interfaces and a CGLIB subclass
+ * for everything else. Proxy classes are generated once per type.
  * <br/>Class must:
  * <ul>
  * <li>not be null</li>
  * <li>not marked as final</li>
  * <li>not be a primitive</li>
- * <li>must have a visable no args constructor</li>
  * </ul>
  * <p>
  *    The contract of use is that once finished with the {@link #capture(Class)} method the caller must call
@@ -22,9 +19,8 @@ import net.sf.cglib.proxy.Enhancer;
  *    Failing to do this will result the reference being maintained and a potiental memory leak will exist.
  * </p>
  * <p>
- *    it is worth noting that CGLIB will create an instance of class in order to provide the proxy, the CapturingProxy
- *    will prevent any of it's methods from actually called, but would be a good idea to avoid classes that do
- *    anything in there default constructor.
+ *    Instances are created without calling any constructor of the class, so classes without a no args
+ *    constructor can be captured and constructors with side effects are never run.
  * </p>
  * @author gareth
  */
@@ -52,9 +48,10 @@ public class MethodCapture {
       if( context.get() != null ){
          throw new IllegalStateException("An existing CapturingProxy() exists for this thread, calls to capture cannot be nested, or clearAndReturn has not been called correctly");
       }
-      context.set(new CapturingProxy<Object,Object>());
+      CapturingProxy<T,Object> proxy = new CapturingProxy<T,Object>(cls);
+      context.set(proxy);
 
-      return (T) Enhancer.create(cls, context.get());
+      return proxy.proxy(cls);
    }
 
    public final static CapturingProxy<?,?> clearAndReturn() {
@@ -63,7 +60,10 @@ public class MethodCapture {
       return capture;
    }
 
-   private static <T> void checkClass(Class<T> cls) {
+   /**
+    * @throws IllegalArgumentException if cls is null or cannot be proxied
+    */
+   public static <T> void checkClass(Class<T> cls) {
       if (cls == null) {
          throw new IllegalArgumentException("cls is null");
       }
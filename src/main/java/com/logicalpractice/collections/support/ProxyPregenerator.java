@@ -0,0 +1,214 @@
+package com.logicalpractice.collections.support;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import net.sf.cglib.core.ClassNameReader;
+import net.sf.cglib.core.DefaultGeneratorStrategy;
+import net.sf.cglib.proxy.Enhancer;
+import org.objectweb.asm.ClassReader;
+
+/**
+ * Build time step writing the capture proxies of a set of classes, so that
+ * {@code where()}, {@code from()} and {@code Expression.each} find them on the
+ * class path instead of generating them on first use.
+ * <pre>
+ *    java -cp ... com.logicalpractice.collections.support.ProxyPregenerator target/classes com.acme.Person,com.acme.Address
+ * </pre>
+ * <p>
+ * Alongside the classes it writes the GraalVM native-image reflection and proxy
+ * configuration for the captured types under
+ * {@value #CONFIG_DIRECTORY}, where native-image picks it up from the class path.
+ * Interfaces are captured through {@link java.lang.reflect.Proxy}, for those only
+ * the configuration is written.
+ * </p>
+ * <p>
+ * The classes to capture must be on the class path the generator runs with, so
+ * it belongs in the build of the project owning them. The
+ * {@code pregenerate-proxies} profile of this library's pom is the execution to
+ * copy into that project's pom, then
+ * {@code mvn -Ppregenerate-proxies -Dcapture.classes=com.acme.Person package}:
+ * </p>
+ * <pre>
+ *    &lt;profile&gt;
+ *       &lt;id&gt;pregenerate-proxies&lt;/id&gt;
+ *       &lt;properties&gt;
+ *          &lt;capture.jvmArgs&gt;-XX:+IgnoreUnrecognizedVMOptions --add-opens=java.base/java.lang=ALL-UNNAMED&lt;/capture.jvmArgs&gt;
+ *       &lt;/properties&gt;
+ *       &lt;build&gt;&lt;plugins&gt;&lt;plugin&gt;
+ *          &lt;groupId&gt;org.codehaus.mojo&lt;/groupId&gt;
+ *          &lt;artifactId&gt;exec-maven-plugin&lt;/artifactId&gt;
+ *          &lt;version&gt;3.1.0&lt;/version&gt;
+ *          &lt;executions&gt;&lt;execution&gt;
+ *             &lt;id&gt;pregenerate-proxies&lt;/id&gt;
+ *             &lt;phase&gt;process-classes&lt;/phase&gt;
+ *             &lt;goals&gt;&lt;goal&gt;exec&lt;/goal&gt;&lt;/goals&gt;
+ *             &lt;configuration&gt;
+ *                &lt;executable&gt;${java.home}/bin/java&lt;/executable&gt;
+ *                &lt;classpathScope&gt;compile&lt;/classpathScope&gt;
+ *                &lt;commandlineArgs&gt;${capture.jvmArgs} -classpath %classpath com.logicalpractice.collections.support.ProxyPregenerator ${project.build.outputDirectory} ${capture.classes}&lt;/commandlineArgs&gt;
+ *             &lt;/configuration&gt;
+ *          &lt;/execution&gt;&lt;/executions&gt;
+ *       &lt;/plugin&gt;&lt;/plugins&gt;&lt;/build&gt;
+ *    &lt;/profile&gt;
+ * </pre>
+ * <p>
+ * The add-opens lets CGLIB define classes on Java 9 and later, a Java 8 JVM is
+ * told to ignore it.
+ * </p>
+ */
+public final class ProxyPregenerator {
+
+   public static final String CONFIG_DIRECTORY = "META-INF/native-image/com.logicalpractice/capture-proxies";
+
+   private ProxyPregenerator() {
+      // static methods only
+   }
+
+   /**
+    * @param args output directory followed by the names of the classes to capture,
+    *             separately or comma separated
+    */
+   public static void main(String[] args) throws Exception {
+      if (args.length < 2) {
+         throw new IllegalArgumentException("usage: ProxyPregenerator <output directory> <class name>...");
+      }
+      ClassLoader loader = Thread.currentThread().getContextClassLoader();
+      List<Class<?>> types = new ArrayList<Class<?>>();
+      for (int i = 1; i < args.length; i++) {
+         for (String name : args[i].split(",")) {
+            if (name.trim().length() > 0) {
+               types.add(Class.forName(name.trim(), false, loader));
+            }
+         }
+      }
+      generate(new File(args[0]), types);
+   }
+
+   /**
+    * Writes the capture proxy of each class in types to directory, together with
+    * the native-image configuration for all of them.
+    *
+    * @return the classes written
+    */
+   public static List<File> generate(File directory, Collection<Class<?>> types) throws IOException {
+      Set<Class<?>> unique = new LinkedHashSet<Class<?>>(types);
+      List<File> written = new ArrayList<File>();
+      StringBuilder reflect = new StringBuilder();
+      StringBuilder proxies = new StringBuilder();
+      Set<Class<?>> registered = new LinkedHashSet<Class<?>>();
+      for (Class<?> type : unique) {
+         MethodCapture.checkClass(type);
+         if (type.isInterface()) {
+            entry(proxies, "{\"interfaces\":[\"" + type.getName() + "\"]}");
+         } else {
+            String name = CaptureProxies.proxyClassName(type.getName());
+            File file = new File(directory, name.replace('.', File.separatorChar) + ".class");
+            write(file, bytesOf(type, name));
+            written.add(file);
+            entry(reflect, "{\"name\":\"" + name + "\",\"allDeclaredConstructors\":true,"
+                  + "\"allDeclaredMethods\":true,\"allDeclaredFields\":true,\"unsafeAllocated\":true}");
+         }
+         hierarchy(type, registered);
+      }
+      // the proxies look up the methods they intercept reflectively when initialised
+      for (Class<?> type : registered) {
+         entry(reflect, "{\"name\":\"" + type.getName() + "\",\"allDeclaredMethods\":true,\"allPublicMethods\":true}");
+      }
+      File config = new File(directory, CONFIG_DIRECTORY.replace('/', File.separatorChar));
+      writeJson(new File(config, "reflect-config.json"), reflect);
+      writeJson(new File(config, "proxy-config.json"), proxies);
+      return written;
+   }
+
+   private static byte[] bytesOf(Class<?> type, String name) {
+      Capturing strategy = new Capturing();
+      Enhancer enhancer = CaptureProxies.enhancer(type);
+      enhancer.setStrategy(strategy);
+      enhancer.setUseCache(false);
+      // only the bytes are needed, a throwaway loader keeps the name free of any proxy already defined
+      ClassLoader parent = type.getClassLoader() != null ? type.getClassLoader() : ProxyPregenerator.class.getClassLoader();
+      enhancer.setClassLoader(new ClassLoader(parent) {
+      });
+      try {
+         enhancer.createClass();
+      } catch (RuntimeException e) {
+         // package private types can't be defined in another loader, the bytes are already kept
+         if (strategy.bytes == null) {
+            throw e;
+         }
+      } catch (LinkageError e) {
+         if (strategy.bytes == null) {
+            throw e;
+         }
+      }
+      if (!name.equals(strategy.name)) {
+         throw new IllegalStateException("Capture proxy of " + type.getName() + " was named " + strategy.name);
+      }
+      return strategy.bytes;
+   }
+
+   private static void hierarchy(Class<?> type, Set<Class<?>> registered) {
+      if (type == null || !registered.add(type)) {
+         return;
+      }
+      hierarchy(type.getSuperclass(), registered);
+      for (Class<?> implemented : type.getInterfaces()) {
+         hierarchy(implemented, registered);
+      }
+   }
+
+   private static void entry(StringBuilder json, String entry) {
+      json.append(json.length() == 0 ? "  " : ",\n  ").append(entry);
+   }
+
+   private static void writeJson(File file, StringBuilder entries) throws IOException {
+      Writer writer = new OutputStreamWriter(open(file), "UTF-8");
+      try {
+         writer.write("[\n" + entries + (entries.length() == 0 ? "" : "\n") + "]\n");
+      } finally {
+         writer.close();
+      }
+   }
+
+   private static void write(File file, byte[] bytes) throws IOException {
+      OutputStream out = open(file);
+      try {
+         out.write(bytes);
+      } finally {
+         out.close();
+      }
+   }
+
+   private static OutputStream open(File file) throws IOException {
+      File parent = file.getParentFile();
+      if (!parent.isDirectory() && !parent.mkdirs()) {
+         throw new IOException("Unable to create " + parent);
+      }
+      return new FileOutputStream(file);
+   }
+
+   /**
+    * Keeps the bytes of the class CGLIB generates.
+    */
+   private static final class Capturing extends DefaultGeneratorStrategy {
+      String name;
+      byte[] bytes;
+
+      @Override
+      protected byte[] transform(byte[] b) {
+         name = ClassNameReader.getClassName(new ClassReader(b));
+         bytes = b;
+         return b;
+      }
+   }
+}
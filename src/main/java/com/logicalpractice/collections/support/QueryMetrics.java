@@ -0,0 +1,31 @@
+package com.logicalpractice.collections.support;
+
+/**
+ * Receives a report of each instrumented Selector operation once it has been
+ * installed with {@link Instrumentation#setMetrics(QueryMetrics)}.
+ * <p>
+ * Implementations are called on the thread that ran the operation, possibly
+ * from many threads at once, and should return quickly.
+ * </p>
+ *
+ * @see QueryStatistics
+ */
+public interface QueryMetrics {
+
+   /**
+    * @param chain     the clause the operation evaluated
+    * @param operation name of the Selector operation, for example "select"
+    * @param scanned   elements the clause was evaluated against, zero when an index answered
+    * @param matched   elements selected, collected or removed
+    * @param nanos     elapsed time of the operation
+    */
+   void completed(CapturedChain chain, String operation, long scanned, long matched, long nanos);
+
+   /**
+    * @param chain     the clause being evaluated
+    * @param operation name of the Selector operation, or "replay" for a
+    *                  {@link CapturingProxy} applied as a Function
+    * @param failure   what evaluating the clause threw
+    */
+   void failed(CapturedChain chain, String operation, Throwable failure);
+}
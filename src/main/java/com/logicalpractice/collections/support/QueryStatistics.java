@@ -0,0 +1,177 @@
+package com.logicalpractice.collections.support;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * {@link QueryMetrics} that aggregates the reports per capture chain, readable
+ * directly or through JMX.
+ * <p>
+ * Chains are told apart by their root and methods only, the arguments are left
+ * out so that a clause such as {@code by(List.class).get(i)} evaluated for many
+ * values of i is a single entry, named {@code List.get(?)}.
+ * </p>
+ */
+public final class QueryStatistics implements QueryMetrics, QueryStatisticsMXBean {
+
+   public static final String OBJECT_NAME = "com.logicalpractice.collections:type=QueryStatistics";
+
+   // the source form is only built once for each key
+   private final ConcurrentMap<ChainKey, ChainStatistics> chains = new ConcurrentHashMap<ChainKey, ChainStatistics>();
+
+   /**
+    * Installs a new QueryStatistics as the metrics and registers it with the
+    * platform MBean server, replacing any registered before.
+    *
+    * @throws IllegalStateException if it can't be registered
+    */
+   public static synchronized QueryStatistics install() {
+      QueryStatistics statistics = new QueryStatistics();
+      try {
+         MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+         ObjectName name = new ObjectName(OBJECT_NAME);
+         if (server.isRegistered(name)) {
+            server.unregisterMBean(name);
+         }
+         server.registerMBean(statistics, name);
+      } catch (JMException e) {
+         throw new IllegalStateException("unable to register " + OBJECT_NAME, e);
+      }
+      Instrumentation.setMetrics(statistics);
+      return statistics;
+   }
+
+   /**
+    * Disables instrumentation and unregisters the MBean installed by {@link #install()}.
+    */
+   public static synchronized void uninstall() {
+      Instrumentation.setMetrics(null);
+      try {
+         MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+         ObjectName name = new ObjectName(OBJECT_NAME);
+         if (server.isRegistered(name)) {
+            server.unregisterMBean(name);
+         }
+      } catch (JMException e) {
+         throw new IllegalStateException("unable to unregister " + OBJECT_NAME, e);
+      }
+   }
+
+   public void completed(CapturedChain chain, String operation, long scanned, long matched, long nanos) {
+      statisticsFor(chain).completed(scanned, matched, nanos);
+   }
+
+   public void failed(CapturedChain chain, String operation, Throwable failure) {
+      statisticsFor(chain).failed();
+   }
+
+   /**
+    * @param chain in source form, as {@link CapturedChain#toString()} with each
+    *              argument replaced by {@code ?}
+    * @return statistics for chain, or null if it hasn't been reported, found by a
+    *         search of the chains reported
+    */
+   public ChainStatistics get(String chain) {
+      for (ChainStatistics statistics : chains.values()) {
+         if (statistics.getChain().equals(chain)) {
+            return statistics;
+         }
+      }
+      return null;
+   }
+
+   /**
+    * @return statistics for chain and any chain differing from it only in its
+    *         arguments, or null if none has been reported
+    */
+   public ChainStatistics get(CapturedChain chain) {
+      return chains.get(new ChainKey(chain));
+   }
+
+   public List<ChainStatistics> getChains() {
+      return new ArrayList<ChainStatistics>(chains.values());
+   }
+
+   public void reset() {
+      chains.clear();
+   }
+
+   private ChainStatistics statisticsFor(CapturedChain chain) {
+      ChainKey key = new ChainKey(chain);
+      ChainStatistics statistics = chains.get(key);
+      if (statistics == null) {
+         ChainStatistics created = new ChainStatistics(key.toString());
+         statistics = chains.putIfAbsent(key, created);
+         if (statistics == null) {
+            statistics = created;
+         }
+      }
+      return statistics;
+   }
+
+   /**
+    * The root and methods of a chain without its arguments.
+    */
+   private static final class ChainKey {
+      private final Class<?> root;
+      private final Method[] methods;
+      private final int hash;
+
+      ChainKey(CapturedChain chain) {
+         root = chain.getRoot();
+         methods = new Method[chain.length()];
+         for (int i = 0; i < methods.length; i++) {
+            methods[i] = chain.getMethod(i);
+         }
+         hash = 31 * (root == null ? 0 : root.hashCode()) + Arrays.hashCode(methods);
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         if (this == o) {
+            return true;
+         }
+         if (!(o instanceof ChainKey)) {
+            return false;
+         }
+         ChainKey other = (ChainKey) o;
+         return (root == null ? other.root == null : root.equals(other.root))
+               && Arrays.equals(methods, other.methods);
+      }
+
+      @Override
+      public int hashCode() {
+         return hash;
+      }
+
+      /**
+       * @return the chain in source form with ? for each argument, for example {@code List.get(?)}
+       */
+      @Override
+      public String toString() {
+         StringBuilder sb = new StringBuilder();
+         if (root != null) {
+            sb.append(root.getSimpleName());
+         } else if (methods.length > 0) {
+            sb.append(methods[0].getDeclaringClass().getSimpleName());
+         }
+         for (Method method : methods) {
+            sb.append('.').append(method.getName()).append('(');
+            for (int j = 0; j < method.getParameterTypes().length; j++) {
+               sb.append(j > 0 ? ", ?" : "?");
+            }
+            sb.append(')');
+         }
+         return sb.toString();
+      }
+   }
+}
@@ -0,0 +1,20 @@
+package com.logicalpractice.collections.support;
+
+import java.util.List;
+
+/**
+ * Management interface of {@link QueryStatistics}, registered as
+ * {@value QueryStatistics#OBJECT_NAME}.
+ */
+public interface QueryStatisticsMXBean {
+
+   /**
+    * @return statistics for each chain reported so far
+    */
+   List<ChainStatistics> getChains();
+
+   /**
+    * Forgets everything recorded so far.
+    */
+   void reset();
+}
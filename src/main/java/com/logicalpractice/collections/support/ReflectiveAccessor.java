@@ -0,0 +1,35 @@
+package com.logicalpractice.collections.support;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Accessor that replays the chain with {@link java.lang.reflect.Method#invoke(Object, Object[])},
+ * used when a generated class would not be able to call the methods of the chain.
+ */
+class ReflectiveAccessor<F, T> extends Accessor<F, T> {
+
+   ReflectiveAccessor(CapturedChain chain) {
+      super(chain);
+   }
+
+   @Override
+   @SuppressWarnings("unchecked")
+   public T get(F target) {
+      try {
+         return (T) chain.invoke(target);
+      } catch (InvocationTargetException e) {
+         Throwable cause = e.getCause();
+         if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+         }
+         if (cause instanceof Error) {
+            throw (Error) cause;
+         }
+         throw new RuntimeException(cause);
+      } catch (RuntimeException e) {
+         throw e;
+      } catch (Exception e) {
+         throw new RuntimeException(e);
+      }
+   }
+}
@@ -0,0 +1,54 @@
+package com.logicalpractice.collections.typed;
+
+import com.google.common.base.Function;
+
+/**
+ * A Typed collection that maintains indexes over some properties of its
+ * elements, so that selecting on those properties is a lookup rather than a scan.
+ * <p>
+ * A hash index answers {@code equalTo()}. A sorted index answers any combination
+ * of {@code equalTo}, {@code greaterThan}, {@code lessThan} (and their
+ * {@code OrEqualTo} forms), {@code nullValue}, {@code allOf}, {@code anyOf} and
+ * {@code not}. Either way the selected elements are in iteration order of the
+ * collection, as a scan would have selected them.
+ * </p>
+ * <p>
+ * As with the keys of a HashMap an indexed property must not change while the
+ * element is in the collection.
+ * </p>
+ *
+ * @param <T> type of the elements
+ */
+public interface Indexed<T> extends Typed<T>, Searchable<T> {
+
+   /**
+    * Indexes the property selected by clause, used as
+    * {@code people.indexOn(by(Person.class).getLastName())}.
+    *
+    * @return this
+    */
+   <V> Indexed<T> indexOn(V clause);
+
+   /**
+    * Indexes the value of function, which must be equal to the function later
+    * passed to {@link #lookup(Function, org.hamcrest.Matcher)}.
+    *
+    * @return this
+    */
+   <V> Indexed<T> indexOn(Function<T, V> function);
+
+   /**
+    * Keeps a sorted index of the property selected by clause, whose values must be
+    * {@link Comparable} with a natural ordering consistent with equals.
+    *
+    * @return this
+    */
+   <V> Indexed<T> sortedIndexOn(V clause);
+
+   /**
+    * Function version of {@link #sortedIndexOn(Object)}.
+    *
+    * @return this
+    */
+   <V> Indexed<T> sortedIndexOn(Function<T, V> function);
+}
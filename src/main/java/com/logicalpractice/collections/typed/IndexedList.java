@@ -0,0 +1,22 @@
+package com.logicalpractice.collections.typed;
+
+import java.util.List;
+
+import com.google.common.base.Function;
+
+/**
+ * List with self maintaining indexes, obtained from
+ * {@link TypedUtils#indexedList(List, Class)}.
+ *
+ * @param <T> type of the elements
+ */
+public interface IndexedList<T> extends List<T>, Indexed<T> {
+
+   <V> IndexedList<T> indexOn(V clause);
+
+   <V> IndexedList<T> indexOn(Function<T, V> function);
+
+   <V> IndexedList<T> sortedIndexOn(V clause);
+
+   <V> IndexedList<T> sortedIndexOn(Function<T, V> function);
+}
@@ -0,0 +1,22 @@
+package com.logicalpractice.collections.typed;
+
+import java.util.Set;
+
+import com.google.common.base.Function;
+
+/**
+ * Set with self maintaining indexes, obtained from
+ * {@link TypedUtils#indexedSet(Set, Class)}.
+ *
+ * @param <T> type of the elements
+ */
+public interface IndexedSet<T> extends Set<T>, Indexed<T> {
+
+   <V> IndexedSet<T> indexOn(V clause);
+
+   <V> IndexedSet<T> indexOn(Function<T, V> function);
+
+   <V> IndexedSet<T> sortedIndexOn(V clause);
+
+   <V> IndexedSet<T> sortedIndexOn(Function<T, V> function);
+}
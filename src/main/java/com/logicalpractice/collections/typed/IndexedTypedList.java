@@ -0,0 +1,253 @@
+package com.logicalpractice.collections.typed;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+
+import com.google.common.base.Function;
+import org.hamcrest.Matcher;
+
+/**
+ * List wrapper that keeps the {@link Indexes} of its elements up to date.
+ *
+ * @param <T> Type of collection
+ */
+class IndexedTypedList<T> extends TypedList<T> implements IndexedList<T> {
+
+   // statics ***************************************************************
+
+   /**
+    * View returned by subList(), changes made through it mark the indexes of the
+    * owning list stale.
+    */
+   static class IndexedSubList<T> extends TypedList<T> {
+      private final Indexes<T> indexes;
+
+      IndexedSubList(List<T> delegate, Class<T> type, Indexes<T> indexes) {
+         super(delegate, type);
+         this.indexes = indexes;
+      }
+
+      @Override
+      public boolean add(T o) {
+         indexes.invalidate();
+         return super.add(o);
+      }
+
+      @Override
+      public void add(int index, T element) {
+         indexes.invalidate();
+         super.add(index, element);
+      }
+
+      @Override
+      public boolean addAll(Collection<? extends T> c) {
+         indexes.invalidate();
+         return super.addAll(c);
+      }
+
+      @Override
+      public boolean addAll(int index, Collection<? extends T> c) {
+         indexes.invalidate();
+         return super.addAll(index, c);
+      }
+
+      @Override
+      public void clear() {
+         indexes.invalidate();
+         super.clear();
+      }
+
+      @Override
+      public boolean remove(Object o) {
+         indexes.invalidate();
+         return super.remove(o);
+      }
+
+      @Override
+      public T remove(int index) {
+         indexes.invalidate();
+         return super.remove(index);
+      }
+
+      @Override
+      public boolean removeAll(Collection<?> c) {
+         indexes.invalidate();
+         return super.removeAll(c);
+      }
+
+      @Override
+      public boolean retainAll(Collection<?> c) {
+         indexes.invalidate();
+         return super.retainAll(c);
+      }
+
+      @Override
+      public T set(int index, T element) {
+         indexes.invalidate();
+         return super.set(index, element);
+      }
+
+      @Override
+      public Iterator<T> iterator() {
+         return listIterator();
+      }
+
+      @Override
+      public ListIterator<T> listIterator() {
+         return indexes.track(super.listIterator(), type());
+      }
+
+      @Override
+      public ListIterator<T> listIterator(int index) {
+         return indexes.track(super.listIterator(index), type());
+      }
+
+      @Override
+      public List<T> subList(int fromIndex, int toIndex) {
+         return new IndexedSubList<T>(super.subList(fromIndex, toIndex), type(), indexes);
+      }
+   }
+
+   // fields ****************************************************************
+
+   private final Indexes<T> indexes;
+
+   // constructors **********************************************************
+
+   IndexedTypedList(List<T> delegate, Class<T> type) {
+      super(delegate, type);
+      this.indexes = new Indexes<T>(delegate);
+   }
+
+   Indexes<T> indexes() {
+      return indexes;
+   }
+
+   // implementation of IndexedList *****************************************
+
+   public <V> IndexedList<T> indexOn(V clause) {
+      Function<T, V> accessor = Indexes.currentAccessor(clause);
+      return indexOn(accessor);
+   }
+
+   public <V> IndexedList<T> indexOn(Function<T, V> function) {
+      indexes.add(function, false);
+      return this;
+   }
+
+   public <V> IndexedList<T> sortedIndexOn(V clause) {
+      Function<T, V> accessor = Indexes.currentAccessor(clause);
+      return sortedIndexOn(accessor);
+   }
+
+   public <V> IndexedList<T> sortedIndexOn(Function<T, V> function) {
+      indexes.add(function, true);
+      return this;
+   }
+
+   public <V> List<T> lookup(Function<T, V> function, Matcher<V> matcher) {
+      return indexes.lookup(function, matcher);
+   }
+
+   // mutators **************************************************************
+
+   @Override
+   public boolean add(T o) {
+      boolean changed = super.add(o);
+      indexes.added(o);
+      return changed;
+   }
+
+   @Override
+   public void add(int index, T element) {
+      boolean append = index == size();
+      super.add(index, element);
+      if (append) {
+         indexes.added(element);
+      } else {
+         indexes.invalidate();
+      }
+   }
+
+   @Override
+   public boolean addAll(Collection<? extends T> c) {
+      boolean changed = super.addAll(c);
+      for (T element : c) {
+         indexes.added(element);
+      }
+      return changed;
+   }
+
+   @Override
+   public boolean addAll(int index, Collection<? extends T> c) {
+      indexes.invalidate();
+      return super.addAll(index, c);
+   }
+
+   @Override
+   public void clear() {
+      super.clear();
+      indexes.cleared();
+   }
+
+   @Override
+   public boolean remove(Object o) {
+      int index = indexOf(o);
+      if (index < 0) {
+         return false;
+      }
+      remove(index);
+      return true;
+   }
+
+   @Override
+   public T remove(int index) {
+      T removed = super.remove(index);
+      indexes.removed(removed);
+      return removed;
+   }
+
+   @Override
+   public boolean removeAll(Collection<?> c) {
+      indexes.invalidate();
+      return super.removeAll(c);
+   }
+
+   @Override
+   public boolean retainAll(Collection<?> c) {
+      indexes.invalidate();
+      return super.retainAll(c);
+   }
+
+   /**
+    * Keeping each bucket in list order would mean a search of the bucket, so a
+    * replacement marks the indexes stale.
+    */
+   @Override
+   public T set(int index, T element) {
+      indexes.invalidate();
+      return super.set(index, element);
+   }
+
+   @Override
+   public Iterator<T> iterator() {
+      return indexes.track(super.iterator());
+   }
+
+   @Override
+   public ListIterator<T> listIterator() {
+      return indexes.track(super.listIterator(), type());
+   }
+
+   @Override
+   public ListIterator<T> listIterator(int index) {
+      return indexes.track(super.listIterator(index), type());
+   }
+
+   @Override
+   public List<T> subList(int fromIndex, int toIndex) {
+      return new IndexedSubList<T>(super.subList(fromIndex, toIndex), type(), indexes);
+   }
+}
@@ -0,0 +1,109 @@
+package com.logicalpractice.collections.typed;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import com.google.common.base.Function;
+import org.hamcrest.Matcher;
+
+/**
+ * Set wrapper that keeps the {@link Indexes} of its elements up to date.
+ */
+class IndexedTypedSet<T> extends TypedSet<T> implements IndexedSet<T> {
+
+   private final Indexes<T> indexes;
+
+   IndexedTypedSet(Set<T> delegate, Class<T> type) {
+      super(delegate, type);
+      this.indexes = new Indexes<T>(delegate);
+   }
+
+   Indexes<T> indexes() {
+      return indexes;
+   }
+
+   // implementation of IndexedSet ******************************************
+
+   public <V> IndexedSet<T> indexOn(V clause) {
+      Function<T, V> accessor = Indexes.currentAccessor(clause);
+      return indexOn(accessor);
+   }
+
+   public <V> IndexedSet<T> indexOn(Function<T, V> function) {
+      indexes.add(function, false);
+      return this;
+   }
+
+   public <V> IndexedSet<T> sortedIndexOn(V clause) {
+      Function<T, V> accessor = Indexes.currentAccessor(clause);
+      return sortedIndexOn(accessor);
+   }
+
+   public <V> IndexedSet<T> sortedIndexOn(Function<T, V> function) {
+      indexes.add(function, true);
+      return this;
+   }
+
+   public <V> List<T> lookup(Function<T, V> function, Matcher<V> matcher) {
+      return indexes.lookup(function, matcher);
+   }
+
+   // mutators **************************************************************
+
+   @Override
+   public boolean add(T o) {
+      boolean changed = super.add(o);
+      if (changed) {
+         indexes.added(o);
+      }
+      return changed;
+   }
+
+   @Override
+   public boolean addAll(Collection<? extends T> c) {
+      boolean changed = false;
+      for (T element : c) {
+         changed |= add(element);
+      }
+      return changed;
+   }
+
+   @Override
+   public void clear() {
+      super.clear();
+      indexes.cleared();
+   }
+
+   /**
+    * o may only be equal to the element in the set rather than the same instance,
+    * in which case the indexes will be rebuilt on the next lookup.
+    */
+   @Override
+   @SuppressWarnings("unchecked")
+   public boolean remove(Object o) {
+      boolean changed = super.remove(o);
+      if (changed) {
+         indexes.removed((T) o);
+      }
+      return changed;
+   }
+
+   @Override
+   public boolean removeAll(Collection<?> c) {
+      indexes.invalidate();
+      return super.removeAll(c);
+   }
+
+   @Override
+   public boolean retainAll(Collection<?> c) {
+      indexes.invalidate();
+      return super.retainAll(c);
+   }
+
+   @Override
+   public Iterator<T> iterator() {
+      return indexes.track(super.iterator());
+   }
+}
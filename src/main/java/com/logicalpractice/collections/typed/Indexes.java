@@ -0,0 +1,443 @@
+package com.logicalpractice.collections.typed;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Ordering;
+import org.hamcrest.Matcher;
+
+import com.logicalpractice.collections.support.Accessor;
+import com.logicalpractice.collections.support.CapturingProxy;
+import com.logicalpractice.collections.support.KeyRanges;
+import com.logicalpractice.collections.support.MatcherValues;
+import com.logicalpractice.collections.support.MethodCapture;
+
+/**
+ * The hash and sorted indexes of an {@link Indexed} collection.
+ * <p>
+ * Appends and removals of a known element are applied to every index as they
+ * happen. Anything that would be awkward to apply in place (positional inserts,
+ * bulk removals, changes made through iterators and views) marks the indexes
+ * stale instead, and they are rebuilt from the collection by the next lookup.
+ * </p>
+ * <p>
+ * Lookups may run on many threads at once, as reads of the collection can, so the
+ * rebuild they may trigger is made under a lock and published through the
+ * volatile stale flag. Everything else changes the indexes along with the
+ * collection and needs the same external synchronization as the collection does.
+ * </p>
+ * <p>
+ * Each element is indexed with its position in iteration order, so that a lookup
+ * spanning several keys returns the elements in that order as a scan would.
+ * Positions are counted from the last rebuild and only grow, removals leave gaps
+ * but keep the order. That holds for lists and insertion ordered sets, a sorted
+ * set is put back in the order of its comparator instead, and the order from a
+ * set with no defined iteration order is as unspecified as the set's own.
+ * </p>
+ */
+final class Indexes<T> {
+
+   /**
+    * An element and its position in the collection.
+    */
+   private static final class Entry<T> {
+      final T element;
+      final long position;
+
+      Entry(T element, long position) {
+         this.element = element;
+         this.position = position;
+      }
+   }
+
+   private static final Comparator<Entry<?>> byPosition = new Comparator<Entry<?>>() {
+      public int compare(Entry<?> left, Entry<?> right) {
+         return left.position < right.position ? -1 : left.position == right.position ? 0 : 1;
+      }
+   };
+
+   private static class HashIndex<T> {
+      final Function<T, ?> function;
+      final Map<Object, List<Entry<T>>> buckets;
+
+      HashIndex(Function<T, ?> function) {
+         this(function, new HashMap<Object, List<Entry<T>>>());
+      }
+
+      HashIndex(Function<T, ?> function, Map<Object, List<Entry<T>>> buckets) {
+         this.function = function;
+         this.buckets = buckets;
+      }
+
+      void add(T element, long position) {
+         Object key = function.apply(element);
+         List<Entry<T>> bucket = buckets.get(key);
+         if (bucket == null) {
+            bucket = new ArrayList<Entry<T>>(2);
+            buckets.put(key, bucket);
+         }
+         bucket.add(new Entry<T>(element, position));
+      }
+
+      boolean remove(T element) {
+         List<Entry<T>> bucket = buckets.get(function.apply(element));
+         if (bucket != null) {
+            for (int i = 0; i < bucket.size(); i++) {
+               if (bucket.get(i).element == element) {
+                  bucket.remove(i);
+                  if (bucket.isEmpty()) {
+                     buckets.remove(function.apply(element));
+                  }
+                  return true;
+               }
+            }
+         }
+         return false;
+      }
+
+      /**
+       * @return the matching elements, or null if this index can't answer matcher
+       */
+      List<T> lookup(Matcher<?> matcher) {
+         Object value = MatcherValues.equalToValue(matcher);
+         if (value == MatcherValues.NOT_EQUALITY) {
+            return null;
+         }
+         List<Entry<T>> bucket = buckets.get(value);
+         return bucket == null ? new ArrayList<T>(0) : elements(bucket);
+      }
+
+      static <T> List<T> elements(List<Entry<T>> entries) {
+         List<T> elements = new ArrayList<T>(entries.size());
+         for (Entry<T> entry : entries) {
+            elements.add(entry.element);
+         }
+         return elements;
+      }
+   }
+
+   /**
+    * Index with its keys in natural order (nulls first), answers anything
+    * {@link MatcherValues#ranges(Matcher)} can plan with one range scan per interval.
+    * The matcher is still applied to each distinct key found, so a key that compares
+    * equal without being equal is not returned for {@code equalTo()}. Each bucket is
+    * in position order, the buckets found are merged back into it.
+    */
+   private static final class SortedIndex<T> extends HashIndex<T> {
+
+      @SuppressWarnings({"unchecked", "rawtypes"})
+      private static final Comparator<Object> naturalNullsFirst = (Comparator) Ordering.natural().nullsFirst();
+
+      SortedIndex(Function<T, ?> function) {
+         super(function, new TreeMap<Object, List<Entry<T>>>(naturalNullsFirst));
+      }
+
+      @Override
+      List<T> lookup(Matcher<?> matcher) {
+         KeyRanges ranges = MatcherValues.ranges(matcher);
+         if (ranges == null) {
+            return null;
+         }
+         NavigableMap<Object, List<Entry<T>>> sorted = (NavigableMap<Object, List<Entry<T>>>) buckets;
+         List<Entry<T>> result = new ArrayList<Entry<T>>();
+         int found = 0;
+         try {
+            if (ranges.includesNull() && sorted.containsKey(null) && matcher.matches(null)) {
+               result.addAll(sorted.get(null));
+               found++;
+            }
+            for (KeyRanges.Range range : ranges.getRanges()) {
+               NavigableMap<Object, List<Entry<T>>> part = range.getLower() == null
+                     ? sorted.tailMap(null, false)
+                     : sorted.tailMap(range.getLower(), range.isLowerInclusive());
+               if (range.getUpper() != null) {
+                  part = part.headMap(range.getUpper(), range.isUpperInclusive());
+               }
+               for (Map.Entry<Object, List<Entry<T>>> entry : part.entrySet()) {
+                  if (matcher.matches(entry.getKey())) {
+                     result.addAll(entry.getValue());
+                     found++;
+                  }
+               }
+            }
+         } catch (ClassCastException e) {
+            // the keys aren't comparable with the operands of the matcher
+            return null;
+         }
+         if (found > 1) {
+            // a merge of sorted runs, which is what the sort does best
+            Collections.sort(result, byPosition);
+         }
+         return elements(result);
+      }
+   }
+
+   private final List<HashIndex<T>> indexes = new ArrayList<HashIndex<T>>(2);
+
+   private final Iterable<T> elements;
+
+   private volatile boolean stale;
+
+   /**
+    * Position of the next element appended.
+    */
+   private long next;
+
+   Indexes(Iterable<T> elements) {
+      this.elements = elements;
+   }
+
+   /**
+    * @return the accessor for the clause currently being captured
+    */
+   @SuppressWarnings("unchecked")
+   static <T, V> Accessor<T, V> currentAccessor(V clause) {
+      CapturingProxy<T, V> proxy = (CapturingProxy<T, V>) MethodCapture.clearAndReturn();
+      if (proxy == null) {
+         throw new IllegalStateException("No capture in progress, the clause must be supplied by by(Type.class)");
+      }
+      return proxy.compile();
+   }
+
+   void add(Function<T, ?> function, boolean sorted) {
+      if (function == null) {
+         throw new IllegalArgumentException("function is required");
+      }
+      for (HashIndex<T> index : indexes) {
+         if (index.function.equals(function) && (index instanceof SortedIndex) == sorted) {
+            return;
+         }
+      }
+      HashIndex<T> index = sorted ? new SortedIndex<T>(function) : new HashIndex<T>(function);
+      if (!stale) {
+         // positions of the other indexes may have gaps, but none reaches past next
+         long position = 0;
+         for (T element : elements) {
+            index.add(element, position++);
+         }
+         next = Math.max(next, position);
+      }
+      indexes.add(index);
+   }
+
+   void added(T element) {
+      if (!stale) {
+         long position = next++;
+         for (HashIndex<T> index : indexes) {
+            index.add(element, position);
+         }
+      }
+   }
+
+   void removed(T element) {
+      if (!stale) {
+         for (HashIndex<T> index : indexes) {
+            if (!index.remove(element)) {
+               stale = true;
+               return;
+            }
+         }
+      }
+   }
+
+   void cleared() {
+      for (HashIndex<T> index : indexes) {
+         index.buckets.clear();
+      }
+      next = 0;
+      stale = false;
+   }
+
+   void invalidate() {
+      stale = true;
+   }
+
+   /**
+    * @return the matching elements from the first index on function able to
+    *         answer matcher, or null if there isn't one
+    */
+   <V> List<T> lookup(Function<T, V> function, Matcher<V> matcher) {
+      for (HashIndex<T> index : indexes) {
+         if (index.function.equals(function)) {
+            ensureBuilt();
+            List<T> found = index.lookup(matcher);
+            if (found != null) {
+               return inOrder(found);
+            }
+         }
+      }
+      return null;
+   }
+
+   /**
+    * Rebuilds stale indexes, once however many readers find them stale.
+    */
+   private void ensureBuilt() {
+      if (stale) {
+         synchronized (this) {
+            if (stale) {
+               rebuild();
+            }
+         }
+      }
+   }
+
+   private void rebuild() {
+      for (HashIndex<T> index : indexes) {
+         index.buckets.clear();
+      }
+      next = 0;
+      for (T element : elements) {
+         long position = next++;
+         for (HashIndex<T> index : indexes) {
+            index.add(element, position);
+         }
+      }
+      stale = false;
+   }
+
+   /**
+    * A sorted set places appended elements by its comparator, not at the end.
+    */
+   @SuppressWarnings("unchecked")
+   private List<T> inOrder(List<T> found) {
+      if (elements instanceof SortedSet && found.size() > 1) {
+         Comparator<? super T> comparator = ((SortedSet<T>) elements).comparator();
+         Collections.sort(found, comparator != null ? comparator : (Comparator<? super T>) Ordering.natural());
+      }
+      return found;
+   }
+
+   // snapshots *************************************************************
+
+   /**
+    * Writes the indexes {@link Snapshots} can describe, each bucket as the
+    * positions of its elements in elements.
+    */
+   void write(DataOutput out, List<T> elements) throws IOException {
+      ensureBuilt();
+      Map<Object, List<Integer>> positions = new IdentityHashMap<Object, List<Integer>>();
+      for (int i = 0; i < elements.size(); i++) {
+         List<Integer> at = positions.get(elements.get(i));
+         if (at == null) {
+            at = new ArrayList<Integer>(1);
+            positions.put(elements.get(i), at);
+         }
+         at.add(i);
+      }
+      List<HashIndex<T>> portable = new ArrayList<HashIndex<T>>(indexes.size());
+      for (HashIndex<T> index : indexes) {
+         if (Snapshots.isPortable(index.function)) {
+            portable.add(index);
+         }
+      }
+      out.writeInt(portable.size());
+      Map<Object, Integer> seen = new IdentityHashMap<Object, Integer>();
+      for (HashIndex<T> index : portable) {
+         out.writeBoolean(index instanceof SortedIndex);
+         Snapshots.writeFunction(index.function, out);
+         out.writeInt(index.buckets.size());
+         for (List<Entry<T>> bucket : index.buckets.values()) {
+            out.writeInt(bucket.size());
+            // an element in the collection more than once is in the same bucket each time
+            seen.clear();
+            for (Entry<T> entry : bucket) {
+               T element = entry.element;
+               Integer n = seen.get(element);
+               n = n == null ? 0 : n;
+               seen.put(element, n + 1);
+               out.writeInt(positions.get(element).get(n));
+            }
+         }
+      }
+   }
+
+   /**
+    * Restores the indexes written by {@link #write(DataOutput, List)}, applying
+    * each function once per bucket rather than once per element.
+    */
+   void read(DataInput in, List<T> elements, ClassLoader loader) throws IOException {
+      int count = in.readInt();
+      for (int i = 0; i < count; i++) {
+         boolean sorted = in.readBoolean();
+         Function<T, Object> function = Snapshots.readFunction(in, loader);
+         HashIndex<T> index = sorted ? new SortedIndex<T>(function) : new HashIndex<T>(function);
+         int buckets = in.readInt();
+         for (int b = 0; b < buckets; b++) {
+            int size = in.readInt();
+            List<Entry<T>> bucket = new ArrayList<Entry<T>>(Math.max(size, 2));
+            for (int e = 0; e < size; e++) {
+               int position = in.readInt();
+               bucket.add(new Entry<T>(elements.get(position), position));
+            }
+            if (!bucket.isEmpty()) {
+               index.buckets.put(function.apply(bucket.get(0).element), bucket);
+            }
+         }
+         indexes.add(index);
+      }
+      next = Math.max(next, elements.size());
+   }
+
+   /**
+    * @return iterator whose remove() keeps the indexes up to date
+    */
+   Iterator<T> track(final Iterator<T> iterator) {
+      return new Iterator<T>() {
+         private T last;
+
+         public boolean hasNext() {
+            return iterator.hasNext();
+         }
+
+         public T next() {
+            last = iterator.next();
+            return last;
+         }
+
+         public void remove() {
+            iterator.remove();
+            removed(last);
+         }
+      };
+   }
+
+   /**
+    * @return list iterator whose modifications mark the indexes stale
+    */
+   ListIterator<T> track(ListIterator<T> iterator, Class<T> type) {
+      return new TypedList.TypedListIterator<T>(iterator, type) {
+         @Override
+         public void add(T o) {
+            super.add(o);
+            invalidate();
+         }
+
+         @Override
+         public void remove() {
+            super.remove();
+            invalidate();
+         }
+
+         @Override
+         public void set(T o) {
+            super.set(o);
+            invalidate();
+         }
+      };
+   }
+}
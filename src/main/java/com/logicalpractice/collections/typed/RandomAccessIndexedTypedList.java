@@ -0,0 +1,10 @@
+package com.logicalpractice.collections.typed;
+
+import java.util.List;
+import java.util.RandomAccess;
+
+class RandomAccessIndexedTypedList<T> extends IndexedTypedList<T> implements RandomAccess {
+   RandomAccessIndexedTypedList(List<T> delegate, Class<T> type) {
+      super(delegate, type);
+   }
+}
@@ -0,0 +1,637 @@
+package com.logicalpractice.collections.typed;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Function;
+import com.google.common.collect.AbstractIterator;
+import org.hamcrest.Matcher;
+
+import com.logicalpractice.collections.support.Accessor;
+import com.logicalpractice.collections.support.KeyRanges;
+import com.logicalpractice.collections.support.MatcherValues;
+
+/**
+ * Read only collection whose elements are kept as fixed width records in a
+ * direct or memory mapped {@link ByteBuffer} rather than as objects on the heap.
+ * <p>
+ * Each record holds the declared columns of one element: {@code int},
+ * {@code long}, {@code double} and {@code boolean} properties in place, anything
+ * else as an {@code int} code into a dictionary of the distinct values (which
+ * stays on the heap, so suits low cardinality properties). Elements are rebuilt
+ * by a {@link Materializer} from their record when they are needed.
+ * </p>
+ * <p>
+ * The store is {@link Typed} and {@link Searchable}, so the usual Selector calls
+ * work against it and selections on a declared column scan the buffer, only
+ * materializing the matches:
+ * </p>
+ * <pre>
+ *    RecordStore&lt;Person&gt; people = recordStore(Person.class)
+ *          .column(by(Person.class).getAge())
+ *          .column(by(Person.class).getLastName())
+ *          .materializer(new Materializer&lt;Person&gt;() {
+ *             public Person materialize(Record record) {
+ *                return new Person(null, (String) record.get(1), record.getInt(0));
+ *             }
+ *          })
+ *          .build(source, new File("people.records"));
+ *    List&lt;Person&gt; adults = select(people, where(Person.class).getAge(), greaterThanOrEqualTo(18));
+ * </pre>
+ * <p>
+ * Every iteration or selection materializes new element instances. A store holds
+ * at most {@code Integer.MAX_VALUE} bytes of records.
+ * </p>
+ *
+ * @param <T> type of the elements
+ */
+public final class RecordStore<T> implements Iterable<T>, Typed<T>, Searchable<T> {
+
+   /**
+    * Builds an element from the declared columns of its record.
+    */
+   public interface Materializer<T> {
+      T materialize(Record record);
+   }
+
+   /**
+    * The columns of one record, numbered in the order they were declared.
+    * Only valid during the call to {@link Materializer#materialize(Record)}.
+    */
+   public static final class Record {
+      private final RecordStore<?> store;
+      private final int position;
+
+      Record(RecordStore<?> store, int position) {
+         this.store = store;
+         this.position = position;
+      }
+
+      /**
+       * @return position of the record in the store
+       */
+      public int position() {
+         return position;
+      }
+
+      public int getInt(int column) {
+         return store.buffer.getInt(offset(column, IntColumn.class));
+      }
+
+      public long getLong(int column) {
+         return store.buffer.getLong(offset(column, LongColumn.class));
+      }
+
+      public double getDouble(int column) {
+         return store.buffer.getDouble(offset(column, DoubleColumn.class));
+      }
+
+      public boolean getBoolean(int column) {
+         return store.buffer.get(offset(column, BooleanColumn.class)) != 0;
+      }
+
+      /**
+       * @return value of any column, boxed or looked up in its dictionary
+       */
+      public Object get(int column) {
+         return store.columns[column].read(store.buffer, position * store.width);
+      }
+
+      private int offset(int column, Class<?> type) {
+         Column c = store.columns[column];
+         if (c.getClass() != type) {
+            throw new IllegalArgumentException("column " + column + " is " + c);
+         }
+         return position * store.width + c.offset;
+      }
+   }
+
+   /**
+    * Declares the columns and materializer of a store, obtained from
+    * {@link TypedUtils#recordStore(Class)}.
+    */
+   public static final class Builder<T> {
+      private final Class<T> type;
+      private final List<Accessor<T, ?>> accessors = new ArrayList<Accessor<T, ?>>();
+      private Materializer<T> materializer;
+
+      Builder(Class<T> type) {
+         this.type = type;
+      }
+
+      /**
+       * @param clause should be used as by(YourClass.class).getProperty()
+       * @return this
+       */
+      public <V> Builder<T> column(V clause) {
+         Accessor<T, V> accessor = Indexes.currentAccessor(clause);
+         if (!accessors.contains(accessor)) {
+            accessors.add(accessor);
+         }
+         return this;
+      }
+
+      public Builder<T> materializer(Materializer<T> materializer) {
+         this.materializer = materializer;
+         return this;
+      }
+
+      /**
+       * Writes the records of items to a direct buffer.
+       */
+      public RecordStore<T> build(Iterable<? extends T> items) {
+         Column[] columns = columns();
+         int width = widthOf(columns);
+         int expected = items instanceof Collection ? ((Collection<?>) items).size() : 1024;
+         ByteBuffer buffer = ByteBuffer.allocateDirect(capacity(expected, width));
+         int size = 0;
+         for (T item : items) {
+            if (buffer.remaining() < width) {
+               ByteBuffer larger = ByteBuffer.allocateDirect(capacity(size * 2 + 1, width));
+               buffer.flip();
+               larger.put(buffer);
+               buffer = larger;
+            }
+            write(columns, item, buffer);
+            size++;
+         }
+         return new RecordStore<T>(type, columns, width, size, buffer, materializer);
+      }
+
+      /**
+       * Writes the records of items to file, replacing its contents, and maps it
+       * read only. If the build fails the file is left empty.
+       *
+       * @throws IllegalArgumentException as soon as the records would exceed the
+       *         capacity of a store
+       */
+      public RecordStore<T> build(Iterable<? extends T> items, File file) throws IOException {
+         Column[] columns = columns();
+         int width = widthOf(columns);
+         RandomAccessFile out = new RandomAccessFile(file, "rw");
+         FileChannel channel = out.getChannel();
+         boolean built = false;
+         try {
+            channel.truncate(0);
+            ByteBuffer chunk = ByteBuffer.allocate(Math.max(width, 64 * 1024));
+            int size = 0;
+            for (T item : items) {
+               capacity(size + 1L, width);
+               if (chunk.remaining() < width) {
+                  drain(chunk, channel);
+               }
+               write(columns, item, chunk);
+               size++;
+            }
+            drain(chunk, channel);
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, (long) size * width);
+            RecordStore<T> store = new RecordStore<T>(type, columns, width, size, buffer, materializer);
+            built = true;
+            return store;
+         } finally {
+            try {
+               if (!built) {
+                  discard(channel);
+               }
+            } finally {
+               out.close();
+            }
+         }
+      }
+
+      private Column[] columns() {
+         if (materializer == null) {
+            throw new IllegalStateException("materializer is required");
+         }
+         Column[] columns = new Column[accessors.size()];
+         int offset = 0;
+         for (int i = 0; i < columns.length; i++) {
+            columns[i] = Column.of(accessors.get(i), offset);
+            offset += columns[i].width();
+         }
+         return columns;
+      }
+
+      private static int widthOf(Column[] columns) {
+         int width = 0;
+         for (Column column : columns) {
+            width += column.width();
+         }
+         return width;
+      }
+
+      private static int capacity(long rows, int width) {
+         long bytes = rows * width;
+         if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(rows + " records of " + width + " bytes exceed the capacity of a buffer");
+         }
+         return (int) bytes;
+      }
+
+      private static void write(Column[] columns, Object item, ByteBuffer out) {
+         for (Column column : columns) {
+            column.write(item, out);
+         }
+      }
+
+      private static void drain(ByteBuffer chunk, FileChannel channel) throws IOException {
+         chunk.flip();
+         while (chunk.hasRemaining()) {
+            channel.write(chunk);
+         }
+         chunk.clear();
+      }
+
+      /**
+       * Drops the records written so far, ignoring a failure to do so in favour of
+       * the failure of the build.
+       */
+      private static void discard(FileChannel channel) {
+         try {
+            channel.truncate(0);
+         } catch (IOException e) {
+            // the build is failing already
+         }
+      }
+   }
+
+   // fields ****************************************************************
+
+   private final Class<T> type;
+
+   private final Column[] columns;
+
+   private final int width;
+
+   private final int size;
+
+   private final ByteBuffer buffer;
+
+   private final Materializer<T> materializer;
+
+   // constructors **********************************************************
+
+   private RecordStore(Class<T> type, Column[] columns, int width, int size, ByteBuffer buffer, Materializer<T> materializer) {
+      this.type = type;
+      this.columns = columns;
+      this.width = width;
+      this.size = size;
+      this.buffer = buffer;
+      this.materializer = materializer;
+   }
+
+   // methods ***************************************************************
+
+   public Class<T> type() {
+      return type;
+   }
+
+   public int size() {
+      return size;
+   }
+
+   /**
+    * @return a new instance of the element at position
+    */
+   public T get(int position) {
+      if (position < 0 || position >= size) {
+         throw new IndexOutOfBoundsException("position " + position + ", size " + size);
+      }
+      return materializer.materialize(new Record(this, position));
+   }
+
+   public Iterator<T> iterator() {
+      return new AbstractIterator<T>() {
+         private int position;
+
+         @Override
+         protected T computeNext() {
+            return position < size ? get(position++) : endOfData();
+         }
+      };
+   }
+
+   /**
+    * Scans the column of function when it is one of the declared columns.
+    */
+   public <V> List<T> lookup(Function<T, V> function, Matcher<V> matcher) {
+      int[] positions = positions(function, matcher);
+      if (positions == null) {
+         return null;
+      }
+      List<T> result = new ArrayList<T>(positions.length);
+      for (int position : positions) {
+         result.add(get(position));
+      }
+      return result;
+   }
+
+   /**
+    * @return positions of the records whose column for function matches, or null if
+    *         function isn't a declared column
+    */
+   public <V> int[] positions(Function<T, V> function, Matcher<V> matcher) {
+      if (matcher == null) {
+         throw new IllegalArgumentException("matcher is required");
+      }
+      for (Column column : columns) {
+         if (column.accessor.equals(function)) {
+            BitSet matches = column.matching(matcher, buffer, width, size);
+            int[] positions = new int[matches.cardinality()];
+            for (int i = matches.nextSetBit(0), n = 0; i >= 0; i = matches.nextSetBit(i + 1)) {
+               positions[n++] = i;
+            }
+            return positions;
+         }
+      }
+      return null;
+   }
+
+   // columns ***************************************************************
+
+   private abstract static class Column {
+      final Accessor<Object, ?> accessor;
+      final int offset;
+
+      Column(Accessor<?, ?> accessor, int offset) {
+         this.accessor = cast(accessor);
+         this.offset = offset;
+      }
+
+      @SuppressWarnings("unchecked")
+      private static Accessor<Object, ?> cast(Accessor<?, ?> accessor) {
+         return (Accessor<Object, ?>) accessor;
+      }
+
+      static Column of(Accessor<?, ?> accessor, int offset) {
+         Class<?> type = accessor.getChain().getResultType();
+         if (type == Integer.TYPE) {
+            return new IntColumn(accessor, offset);
+         }
+         if (type == Long.TYPE) {
+            return new LongColumn(accessor, offset);
+         }
+         if (type == Double.TYPE) {
+            return new DoubleColumn(accessor, offset);
+         }
+         if (type == Boolean.TYPE) {
+            return new BooleanColumn(accessor, offset);
+         }
+         return new DictionaryColumn(accessor, offset);
+      }
+
+      abstract int width();
+
+      abstract void write(Object item, ByteBuffer out);
+
+      abstract Object read(ByteBuffer buffer, int record);
+
+      /**
+       * Evaluates matcher against the boxed value of every record.
+       */
+      BitSet matching(Matcher<?> matcher, ByteBuffer buffer, int width, int size) {
+         BitSet result = new BitSet(size);
+         for (int i = 0; i < size; i++) {
+            if (matcher.matches(read(buffer, i * width))) {
+               result.set(i);
+            }
+         }
+         return result;
+      }
+
+      /**
+       * Applies matcher to the records selected by a superset plan.
+       */
+      BitSet refine(BitSet candidates, KeyRanges plan, Matcher<?> matcher, ByteBuffer buffer, int width) {
+         if (!plan.isExact()) {
+            for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+               if (!matcher.matches(read(buffer, i * width))) {
+                  candidates.clear(i);
+               }
+            }
+         }
+         return candidates;
+      }
+
+      @Override
+      public String toString() {
+         return getClass().getSimpleName() + "(" + accessor + ")";
+      }
+   }
+
+   private static final class IntColumn extends Column {
+
+      IntColumn(Accessor<?, ?> accessor, int offset) {
+         super(accessor, offset);
+      }
+
+      int width() {
+         return 4;
+      }
+
+      void write(Object item, ByteBuffer out) {
+         out.putInt(accessor.getInt(item));
+      }
+
+      Object read(ByteBuffer buffer, int record) {
+         return buffer.getInt(record + offset);
+      }
+
+      @Override
+      BitSet matching(Matcher<?> matcher, ByteBuffer buffer, int width, int size) {
+         KeyRanges plan = MatcherValues.ranges(matcher);
+         long[][] bounds = plan == null ? null : plan.longBounds(Integer.class);
+         if (bounds == null) {
+            return super.matching(matcher, buffer, width, size);
+         }
+         long[] lower = bounds[0];
+         long[] upper = bounds[1];
+         BitSet result = new BitSet(size);
+         for (int i = 0, at = offset; i < size; i++, at += width) {
+            int value = buffer.getInt(at);
+            for (int r = 0; r < lower.length; r++) {
+               if (lower[r] <= value && value <= upper[r]) {
+                  result.set(i);
+                  break;
+               }
+            }
+         }
+         return refine(result, plan, matcher, buffer, width);
+      }
+   }
+
+   private static final class LongColumn extends Column {
+
+      LongColumn(Accessor<?, ?> accessor, int offset) {
+         super(accessor, offset);
+      }
+
+      int width() {
+         return 8;
+      }
+
+      void write(Object item, ByteBuffer out) {
+         out.putLong(accessor.getLong(item));
+      }
+
+      Object read(ByteBuffer buffer, int record) {
+         return buffer.getLong(record + offset);
+      }
+
+      @Override
+      BitSet matching(Matcher<?> matcher, ByteBuffer buffer, int width, int size) {
+         KeyRanges plan = MatcherValues.ranges(matcher);
+         long[][] bounds = plan == null ? null : plan.longBounds(Long.class);
+         if (bounds == null) {
+            return super.matching(matcher, buffer, width, size);
+         }
+         long[] lower = bounds[0];
+         long[] upper = bounds[1];
+         BitSet result = new BitSet(size);
+         for (int i = 0, at = offset; i < size; i++, at += width) {
+            long value = buffer.getLong(at);
+            for (int r = 0; r < lower.length; r++) {
+               if (lower[r] <= value && value <= upper[r]) {
+                  result.set(i);
+                  break;
+               }
+            }
+         }
+         return refine(result, plan, matcher, buffer, width);
+      }
+   }
+
+   private static final class DoubleColumn extends Column {
+
+      DoubleColumn(Accessor<?, ?> accessor, int offset) {
+         super(accessor, offset);
+      }
+
+      int width() {
+         return 8;
+      }
+
+      void write(Object item, ByteBuffer out) {
+         out.putDouble(accessor.getDouble(item));
+      }
+
+      Object read(ByteBuffer buffer, int record) {
+         return buffer.getDouble(record + offset);
+      }
+
+      @Override
+      BitSet matching(Matcher<?> matcher, ByteBuffer buffer, int width, int size) {
+         KeyRanges plan = MatcherValues.ranges(matcher);
+         if (plan == null || !plan.boundsAre(Double.class)) {
+            return super.matching(matcher, buffer, width, size);
+         }
+         List<KeyRanges.Range> ranges = plan.getRanges();
+         BitSet result = new BitSet(size);
+         for (int i = 0, at = offset; i < size; i++, at += width) {
+            double value = buffer.getDouble(at);
+            for (KeyRanges.Range range : ranges) {
+               if (range.contains(value)) {
+                  result.set(i);
+                  break;
+               }
+            }
+         }
+         return refine(result, plan, matcher, buffer, width);
+      }
+   }
+
+   private static final class BooleanColumn extends Column {
+
+      BooleanColumn(Accessor<?, ?> accessor, int offset) {
+         super(accessor, offset);
+      }
+
+      int width() {
+         return 1;
+      }
+
+      void write(Object item, ByteBuffer out) {
+         out.put((Boolean) accessor.get(item) ? (byte) 1 : (byte) 0);
+      }
+
+      Object read(ByteBuffer buffer, int record) {
+         return buffer.get(record + offset) != 0;
+      }
+
+      @Override
+      BitSet matching(Matcher<?> matcher, ByteBuffer buffer, int width, int size) {
+         boolean whenTrue = matcher.matches(Boolean.TRUE);
+         boolean whenFalse = matcher.matches(Boolean.FALSE);
+         BitSet result = new BitSet(size);
+         if (whenTrue || whenFalse) {
+            for (int i = 0, at = offset; i < size; i++, at += width) {
+               if (buffer.get(at) != 0 ? whenTrue : whenFalse) {
+                  result.set(i);
+               }
+            }
+         }
+         return result;
+      }
+   }
+
+   /**
+    * Codes are assigned as values are first written, the matcher sees each
+    * distinct value once.
+    */
+   private static final class DictionaryColumn extends Column {
+      private final Map<Object, Integer> codes = new HashMap<Object, Integer>();
+      private final List<Object> dictionary = new ArrayList<Object>();
+
+      DictionaryColumn(Accessor<?, ?> accessor, int offset) {
+         super(accessor, offset);
+      }
+
+      int width() {
+         return 4;
+      }
+
+      void write(Object item, ByteBuffer out) {
+         Object value = accessor.get(item);
+         Integer code = codes.get(value);
+         if (code == null) {
+            code = dictionary.size();
+            codes.put(value, code);
+            dictionary.add(value);
+         }
+         out.putInt(code);
+      }
+
+      Object read(ByteBuffer buffer, int record) {
+         return dictionary.get(buffer.getInt(record + offset));
+      }
+
+      @Override
+      BitSet matching(Matcher<?> matcher, ByteBuffer buffer, int width, int size) {
+         boolean[] accepted = new boolean[dictionary.size()];
+         boolean any = false;
+         for (int code = 0; code < accepted.length; code++) {
+            accepted[code] = matcher.matches(dictionary.get(code));
+            any |= accepted[code];
+         }
+         BitSet result = new BitSet(size);
+         if (any) {
+            for (int i = 0, at = offset; i < size; i++, at += width) {
+               if (accepted[buffer.getInt(at)]) {
+                  result.set(i);
+               }
+            }
+         }
+         return result;
+      }
+   }
+}
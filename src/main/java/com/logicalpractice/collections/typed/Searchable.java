@@ -0,0 +1,23 @@
+package com.logicalpractice.collections.typed;
+
+import java.util.List;
+
+import com.google.common.base.Function;
+import org.hamcrest.Matcher;
+
+/**
+ * Implemented by collections that can answer some selections without a scan,
+ * the Selector asks before falling back to evaluating every element.
+ *
+ * @param <T> type of the elements
+ */
+public interface Searchable<T> {
+
+   /**
+    * @param function the function being selected on, typically a compiled where() clause
+    * @param matcher matcher applied to the value of function
+    * @return new list of the matching elements in iteration order, or null if this
+    *         collection cannot answer the selection and the caller should scan
+    */
+   <V> List<T> lookup(Function<T, V> function, Matcher<V> matcher);
+}
@@ -0,0 +1,21 @@
+package com.logicalpractice.collections.typed;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Binary form of the elements of a snapshot, see
+ * {@link TypedUtils#writeSnapshot(Iterable, SnapshotCodec, java.io.File)}.
+ * <p>
+ * read must consume exactly what write produced for the element.
+ * </p>
+ *
+ * @param <T> type of the elements
+ */
+public interface SnapshotCodec<T> {
+
+   void write(T element, DataOutput out) throws IOException;
+
+   T read(DataInput in) throws IOException;
+}
@@ -0,0 +1,200 @@
+package com.logicalpractice.collections.typed;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.base.Function;
+
+import com.logicalpractice.collections.support.Accessor;
+import com.logicalpractice.collections.support.CapturedChain;
+
+/**
+ * The snapshot file format.
+ * <pre>
+ *    int     magic
+ *    UTF     element type name
+ *    int     element count, followed by each element as written by the codec
+ *    int     index count, followed by each index:
+ *       boolean sorted
+ *       UTF     root type name ("" if unknown)
+ *       int     method count, followed by the declaring class and name of each method
+ *       int     bucket count, followed by each bucket as a count and element positions
+ * </pre>
+ * All values are big endian, as written by {@link DataOutput}. Only indexes on
+ * compiled clauses without arguments are written, the key of a bucket is recomputed
+ * from its first element on reload.
+ */
+final class Snapshots {
+
+   private static final int MAGIC = 0x4c505331;
+
+   private Snapshots() {
+      // static methods only
+   }
+
+   static <T> void write(Iterable<T> items, Class<T> type, SnapshotCodec<? super T> codec, File file) throws IOException {
+      List<T> elements = new ArrayList<T>();
+      for (T item : items) {
+         elements.add(item);
+      }
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 64 * 1024));
+      try {
+         out.writeInt(MAGIC);
+         out.writeUTF(type.getName());
+         out.writeInt(elements.size());
+         for (T element : elements) {
+            codec.write(element, out);
+         }
+         Indexes<T> indexes = indexesOf(items);
+         if (indexes == null) {
+            out.writeInt(0);
+         } else {
+            indexes.write(out, elements);
+         }
+      } finally {
+         out.close();
+      }
+   }
+
+   static <T> IndexedList<T> read(File file, Class<T> type, SnapshotCodec<T> codec) throws IOException {
+      ByteBuffer buffer;
+      RandomAccessFile raf = new RandomAccessFile(file, "r");
+      try {
+         buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+      } finally {
+         raf.close();
+      }
+      DataInputStream in = new DataInputStream(new BufferInput(buffer));
+      if (in.readInt() != MAGIC) {
+         throw new IOException(file + " is not a snapshot");
+      }
+      String name = in.readUTF();
+      if (!name.equals(type.getName())) {
+         throw new IOException(file + " is a snapshot of " + name + ", not " + type.getName());
+      }
+      int size = in.readInt();
+      List<T> elements = new ArrayList<T>(size);
+      for (int i = 0; i < size; i++) {
+         elements.add(type.cast(codec.read(in)));
+      }
+      RandomAccessIndexedTypedList<T> list = new RandomAccessIndexedTypedList<T>(elements, type);
+      list.indexes().read(in, elements, loaderOf(type));
+      return list;
+   }
+
+   @SuppressWarnings("unchecked")
+   private static <T> Indexes<T> indexesOf(Iterable<T> items) {
+      if (items instanceof IndexedTypedList) {
+         return ((IndexedTypedList<T>) items).indexes();
+      }
+      if (items instanceof IndexedTypedSet) {
+         return ((IndexedTypedSet<T>) items).indexes();
+      }
+      return null;
+   }
+
+   private static ClassLoader loaderOf(Class<?> type) {
+      return type.getClassLoader() != null ? type.getClassLoader() : Snapshots.class.getClassLoader();
+   }
+
+   // index functions *******************************************************
+
+   /**
+    * @return true if function can be written by {@link #writeFunction(Function, DataOutput)}
+    */
+   static boolean isPortable(Function<?, ?> function) {
+      if (!(function instanceof Accessor)) {
+         return false;
+      }
+      CapturedChain chain = ((Accessor<?, ?>) function).getChain();
+      for (int i = 0; i < chain.length(); i++) {
+         if (chain.getArguments(i).length > 0) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   static void writeFunction(Function<?, ?> function, DataOutput out) throws IOException {
+      CapturedChain chain = ((Accessor<?, ?>) function).getChain();
+      out.writeUTF(chain.getRoot() == null ? "" : chain.getRoot().getName());
+      out.writeInt(chain.length());
+      for (int i = 0; i < chain.length(); i++) {
+         Method method = chain.getMethod(i);
+         out.writeUTF(method.getDeclaringClass().getName());
+         out.writeUTF(method.getName());
+      }
+   }
+
+   static <T> Function<T, Object> readFunction(DataInput in, ClassLoader loader) throws IOException {
+      String rootName = in.readUTF();
+      Class<?> root = rootName.length() == 0 ? null : load(rootName, loader);
+      int length = in.readInt();
+      List<Method> methods = new ArrayList<Method>(length);
+      List<Object[]> arguments = new ArrayList<Object[]>(length);
+      for (int i = 0; i < length; i++) {
+         Class<?> owner = load(in.readUTF(), loader);
+         String name = in.readUTF();
+         try {
+            methods.add(owner.getDeclaredMethod(name));
+         } catch (NoSuchMethodException e) {
+            throw (IOException) new IOException("indexed method " + owner.getName() + "." + name + "() no longer exists").initCause(e);
+         }
+         arguments.add(null);
+      }
+      return Accessor.compile(new CapturedChain(root, methods, arguments));
+   }
+
+   private static Class<?> load(String name, ClassLoader loader) throws IOException {
+      try {
+         return Class.forName(name, false, loader);
+      } catch (ClassNotFoundException e) {
+         throw (IOException) new IOException("indexed class " + name + " no longer exists").initCause(e);
+      }
+   }
+
+   /**
+    * Sequential stream over a buffer, so the mapped file is read without copying it
+    * into a heap array first.
+    */
+   private static final class BufferInput extends InputStream {
+      private final ByteBuffer buffer;
+
+      BufferInput(ByteBuffer buffer) {
+         this.buffer = buffer;
+      }
+
+      @Override
+      public int read() {
+         return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+      }
+
+      @Override
+      public int read(byte[] bytes, int offset, int length) {
+         if (!buffer.hasRemaining()) {
+            return -1;
+         }
+         int n = Math.min(length, buffer.remaining());
+         buffer.get(bytes, offset, n);
+         return n;
+      }
+
+      @Override
+      public int available() {
+         return buffer.remaining();
+      }
+   }
+}
@@ -6,6 +6,7 @@
 package com.logicalpractice.collections.typed;
 
 import java.util.Iterator;
+import java.util.Spliterator;
 
 /**
  * @author gareth
@@ -35,6 +36,14 @@ class TypedIterable<T> implements Iterable<T>, Typed<T> {
       return delegate.iterator();
    }
 
+   /**
+    * The spliterator of the underlying collection, so that parallel streams split
+    * it as well as they would the collection itself, carrying {@link #type()}.
+    */
+   public Spliterator<T> spliterator() {
+      return new TypedSpliterator<T>(delegate.spliterator(), type);
+   }
+
    /* (non-Javadoc)
     * @see com.logicalpractice.collections.typed.Typed#type()
     */
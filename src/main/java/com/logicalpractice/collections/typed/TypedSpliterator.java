@@ -0,0 +1,58 @@
+package com.logicalpractice.collections.typed;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator of the typed wrappers, the wrapped collection's own spliterator
+ * (so an ArrayList still splits by index and reports SIZED and SUBSIZED) carrying
+ * the runtime type of the elements, including through each split.
+ */
+class TypedSpliterator<T> implements Spliterator<T>, Typed<T> {
+
+   private final Spliterator<T> delegate;
+   private final Class<T> type;
+
+   TypedSpliterator(Spliterator<T> delegate, Class<T> type) {
+      this.delegate = delegate;
+      this.type = type;
+   }
+
+   public Class<T> type() {
+      return type;
+   }
+
+   public boolean tryAdvance(Consumer<? super T> action) {
+      return delegate.tryAdvance(action);
+   }
+
+   public void forEachRemaining(Consumer<? super T> action) {
+      delegate.forEachRemaining(action);
+   }
+
+   public Spliterator<T> trySplit() {
+      Spliterator<T> split = delegate.trySplit();
+      return split == null ? null : new TypedSpliterator<T>(split, type);
+   }
+
+   public long estimateSize() {
+      return delegate.estimateSize();
+   }
+
+   public long getExactSizeIfKnown() {
+      return delegate.getExactSizeIfKnown();
+   }
+
+   public int characteristics() {
+      return delegate.characteristics();
+   }
+
+   public boolean hasCharacteristics(int characteristics) {
+      return delegate.hasCharacteristics(characteristics);
+   }
+
+   public Comparator<? super T> getComparator() {
+      return delegate.getComparator();
+   }
+}
@@ -2,6 +2,8 @@ package com.logicalpractice.collections.typed;
 
 import static java.lang.String.format;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
 import java.util.RandomAccess;
@@ -51,4 +53,80 @@ public class TypedUtils {
    public static <T> Set<T> typedSet(Set<T> set, Class<T> type){
       return new TypedSet<T>(set, type);
    }
+
+   /**
+    * Wraps list so that it maintains hash indexes on the properties registered
+    * with {@link IndexedList#indexOn(Object)}, for example:
+    * <pre>
+    *    IndexedList&lt;Person&gt; people = indexedList(new ArrayList&lt;Person&gt;(), Person.class)
+    *          .indexOn(by(Person.class).getLastName());
+    * </pre>
+    * Selecting on an indexed property with {@code equalTo()} is then a lookup.
+    * All changes must be made through the returned list.
+    * <p>
+    * Like the list it wraps, the result may be read and selected from by any
+    * number of threads at once, including the lookup that rebuilds indexes made
+    * stale by an earlier change. Changes, and {@code indexOn}, need the same
+    * external synchronization against readers as the wrapped list does.
+    * </p>
+    */
+   public static <T> IndexedList<T> indexedList(List<T> list, Class<T> type) {
+      return list instanceof RandomAccess ? new RandomAccessIndexedTypedList<T>(list, type) : new IndexedTypedList<T>(list, type);
+   }
+
+   /**
+    * Set version of {@link #indexedList(List, Class)}, with the same thread safety.
+    */
+   public static <T> IndexedSet<T> indexedSet(Set<T> set, Class<T> type) {
+      return new IndexedTypedSet<T>(set, type);
+   }
+
+   /**
+    * Starts a {@link RecordStore} of type, for collections too large to keep
+    * on the heap as objects.
+    */
+   public static <T> RecordStore.Builder<T> recordStore(Class<T> type) {
+      if (type == null) {
+         throw new IllegalArgumentException("type is required");
+      }
+      return new RecordStore.Builder<T>(type);
+   }
+
+   /**
+    * Writes the elements of items, its type and its indexes to file, replacing
+    * its contents. Indexes are written if items came from {@link #indexedList(List, Class)}
+    * or {@link #indexedSet(Set, Class)} and are on clauses without arguments.
+    *
+    * @param items a Typed collection
+    * @param codec writes each element
+    * @see #readSnapshot(File, Class, SnapshotCodec)
+    */
+   public static <T> void writeSnapshot(Iterable<T> items, SnapshotCodec<? super T> codec, File file) throws IOException {
+      if (!(items instanceof Typed)) {
+         throw new IllegalArgumentException("items must be Typed, see typedList()");
+      }
+      if (codec == null || file == null) {
+         throw new IllegalArgumentException("codec and file are required");
+      }
+      @SuppressWarnings("unchecked")
+      Class<T> type = ((Typed<T>) items).type();
+      Snapshots.write(items, type, codec, file);
+   }
+
+   /**
+    * Reads a snapshot written by {@link #writeSnapshot(Iterable, SnapshotCodec, File)}
+    * in one sequential pass over the memory mapped file. Saved indexes are
+    * restored without re-evaluating their clause against every element.
+    *
+    * @return new random access list of the elements, a snapshot of a set reads
+    *         back as a list in the order the set iterated
+    * @throws IOException if file isn't a snapshot of type, or an index refers to a
+    *                     method that no longer exists
+    */
+   public static <T> IndexedList<T> readSnapshot(File file, Class<T> type, SnapshotCodec<T> codec) throws IOException {
+      if (file == null || type == null || codec == null) {
+         throw new IllegalArgumentException("file, type and codec are required");
+      }
+      return Snapshots.read(file, type, codec);
+   }
 }
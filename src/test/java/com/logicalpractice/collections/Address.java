@@ -5,9 +5,12 @@
  */
 package com.logicalpractice.collections;
 
+import com.logicalpractice.collections.metamodel.Metamodel;
+
 /**
  * @author gareth
  */
+@Metamodel
 public class Address {
 
    private String street ;
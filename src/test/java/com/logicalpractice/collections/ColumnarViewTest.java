@@ -0,0 +1,110 @@
+package com.logicalpractice.collections;
+
+import static com.logicalpractice.collections.Selector.by;
+import static com.logicalpractice.collections.Selector.columnar;
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.anyOf;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.logicalpractice.collections.support.MethodCapture;
+
+public class ColumnarViewTest {
+
+    Person billy = person("Billy", 30, "Brighton");
+    Person james = person("James", 17, "Leeds");
+    Person sally = person("Sally", 45, "Brighton");
+    Person nobody = person("Nobody", 18, null);
+
+    List<Person> people = asList(billy, james, sally, nobody);
+
+    ColumnarView<Person> view;
+
+    @Before
+    public void buildView() {
+        view = columnar(people)
+                .column(by(Person.class).getAge())
+                .column(by(Person.class).getFirstName())
+                .column(by(Person.class).getAddress().getTown())
+                .build();
+    }
+
+    @Test
+    public void intColumnsAnswerRangesOnThePrimitives() {
+        assertThat(view.select(by(Person.class).getAge(), greaterThanOrEqualTo(18)), equalTo(asList(billy, sally, nobody)));
+        assertThat(view.count(by(Person.class).getAge(), allOf(greaterThan(17), lessThan(45))), equalTo(2));
+        assertThat(view.count(by(Person.class).getAge(), anyOf(equalTo(17), equalTo(45))), equalTo(2));
+        assertThat(view.count(by(Person.class).getAge(), not(equalTo(30))), equalTo(3));
+    }
+
+    @Test
+    public void unplannedMatchersAreEvaluatedPerRow() {
+        assertThat(view.select(by(Person.class).getFirstName(), startsWith("S")), equalTo(asList(sally)));
+    }
+
+    @Test
+    public void dictionaryColumnsIncludeNull() {
+        int[] positions = view.positions(by(Person.class).getAddress().getTown(), equalTo("Brighton"));
+        assertEquals(2, positions.length);
+        assertEquals(0, positions[0]);
+        assertEquals(2, positions[1]);
+
+        assertThat(view.select(by(Person.class).getAddress().getTown(), nullValue()), equalTo(asList(nobody)));
+    }
+
+    @Test
+    public void aggregatesOverSelectedPositions() {
+        int[] brighton = view.positions(by(Person.class).getAddress().getTown(), equalTo("Brighton"));
+        LongStatistics ages = view.stats(brighton, (long) by(Person.class).getAge());
+
+        assertEquals(2, ages.getCount());
+        assertEquals(75, ages.getSum());
+        assertEquals(30, ages.getMin());
+
+        assertEquals(27.5, view.stats((double) by(Person.class).getAge()).getAverage(), 0.0);
+    }
+
+    @Test
+    public void snapshotIgnoresLaterChanges() {
+        billy.setAge(10);
+
+        assertThat(view.count(by(Person.class).getAge(), lessThan(18)), equalTo(1));
+        assertThat(view.asList(), equalTo(people));
+    }
+
+    @Test
+    public void unknownColumnIsRejected() {
+        try {
+            view.count(by(Person.class).getLastName(), equalTo("Smith"));
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @After
+    public void tearDown() {
+        MethodCapture.clearAndReturn();
+    }
+
+    private static Person person(String name, int age, String town) {
+        Person person = new Person(name, "Smith", age);
+        person.getAddress().setTown(town);
+        return person;
+    }
+}
@@ -2,21 +2,134 @@ package com.logicalpractice.collections;
 
 import static org.junit.Assert.*;
 import static org.hamcrest.Matchers.* ;
+
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.Test;
 
 public class ExpressionTest {
 
+   static class LastName extends Expression<Person,String> {
+      Person root;
+      {
+         root = each(Person.class);
+         root.getLastName();
+      }
+   }
+
+   static class Town extends Expression<Person,String> {
+      Person root;
+      {
+         root = each(Person.class);
+         root.getAddress().getTown();
+      }
+   }
+
+   static class AddressOrTown extends Expression<Person,Object> {
+      Person root;
+
+      AddressOrTown(boolean address, boolean town) {
+         root = each(Person.class);
+         if (address && town) {
+            root.getAddress().getTown();
+         } else if (address) {
+            root.getAddress();
+         } else {
+            root.getFirstName();
+         }
+      }
+   }
+
+   /**
+    * Same calls as AddressOrTown, but its own template.
+    */
+   static class TownOrAddress extends AddressOrTown {
+      TownOrAddress(boolean address, boolean town) {
+         super(address, town);
+      }
+   }
+
+   @SuppressWarnings("rawtypes")
+   static class Element extends Expression<List,Object> {
+      List root;
+
+      Element(int index) {
+         root = each(List.class);
+         root.get(index);
+      }
+   }
+
    @Test
    public void script1() throws Exception {
-      
+
       Person billy = new Person("Billy", "Smith");
-      
+
       Expression<Person,String> testObject = new Expression<Person,String>(){{
          each(Person.class).getFirstName();
       }};
-      
+
       String result = testObject.apply(billy);
-      
+
       assertThat(result, equalTo("Billy"));
    }
+
+   @Test
+   public void laterInstancesReplayTheFirstChainOnSharedProxies() throws Exception {
+      Person billy = new Person("Billy", "Smith");
+      LastName first = new LastName();
+      assertThat(first.apply(billy), equalTo("Smith"));
+
+      LastName second = new LastName();
+      LastName third = new LastName();
+      assertThat(second.root, sameInstance(third.root));
+      assertThat(second.root, not(sameInstance(first.root)));
+      assertThat(second.apply(billy), equalTo("Smith"));
+      assertThat(third.apply(new Person("James", "Jones")), equalTo("Jones"));
+   }
+
+   @Test
+   public void nestedChainsAreShared() throws Exception {
+      Person billy = new Person("Billy", "Smith");
+      billy.getAddress().setTown("Leeds");
+      new Town().apply(billy);
+
+      Town second = new Town();
+      Town third = new Town();
+      assertThat(second.root, sameInstance(third.root));
+      assertThat(second.apply(billy), equalTo("Leeds"));
+      assertThat(third.apply(billy), equalTo("Leeds"));
+   }
+
+   @Test
+   public void longerAndDifferentChainsFallBackToACaptureOfTheirOwn() throws Exception {
+      Person billy = new Person("Billy", "Smith");
+      billy.getAddress().setTown("Leeds");
+
+      assertThat(new AddressOrTown(true, false).apply(billy), sameInstance((Object) billy.getAddress()));
+      assertThat(new AddressOrTown(true, true).apply(billy), equalTo((Object) "Leeds"));
+      assertThat(new AddressOrTown(false, false).apply(billy), equalTo((Object) "Billy"));
+      assertThat(new AddressOrTown(true, false).apply(billy), sameInstance((Object) billy.getAddress()));
+   }
+
+   @Test
+   public void aChainStoppingShortIsNotAnsweredByTheTemplate() throws Exception {
+      Person billy = new Person("Billy", "Smith");
+      billy.getAddress().setTown("Leeds");
+
+      assertThat(new TownOrAddress(true, true).apply(billy), equalTo((Object) "Leeds"));
+      assertThat(new TownOrAddress(true, false).apply(billy), sameInstance((Object) billy.getAddress()));
+   }
+
+   @Test
+   public void argumentsAreCheckedAgainstTheTemplate() throws Exception {
+      List<String> letters = Arrays.asList("a", "b");
+      assertThat(new Element(0).apply(letters), equalTo((Object) "a"));
+
+      Element same = new Element(0);
+      Element other = new Element(1);
+      assertThat(same.root, sameInstance(new Element(0).root));
+      assertThat(same.apply(letters), equalTo((Object) "a"));
+      assertThat(other.apply(letters), equalTo((Object) "b"));
+   }
 }
@@ -0,0 +1,77 @@
+package com.logicalpractice.collections;
+
+import static com.logicalpractice.collections.Selector.by;
+import static com.logicalpractice.collections.Selector.from;
+import static com.logicalpractice.collections.Selector.groupBy;
+import static com.logicalpractice.collections.Selector.indexBy;
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.logicalpractice.collections.support.MethodCapture;
+
+public class IndexTest {
+
+    Person billySmith = new Person("Billy", "Smith", 8);
+    Person billyJones = new Person("Billy", "Jones", 32);
+    Person jamesSmith = new Person("James", "Smith", 70);
+
+    List<Person> testData = asList(billySmith, billyJones, jamesSmith);
+
+    @Test
+    public void groupByKeepsFirstAppearanceOrder() {
+        Map<String, List<Person>> families = groupBy(testData, by(Person.class).getLastName());
+
+        assertThat(families.keySet().iterator().next(), equalTo("Smith"));
+        assertThat(families.get("Smith"), equalTo(asList(billySmith, jamesSmith)));
+        assertThat(families.get("Jones"), equalTo(asList(billyJones)));
+    }
+
+    @Test
+    public void groupByFrom() {
+        Map<String, List<Person>> byName = groupBy(from(testData).getFirstName());
+
+        assertThat(byName.get("Billy"), equalTo(asList(billySmith, billyJones)));
+    }
+
+    @Test
+    public void equalityLookups() {
+        Index<Person, String> index = indexBy(testData, by(Person.class).getLastName());
+
+        assertThat(index.size(), equalTo(3));
+        assertThat(index.get("Smith"), equalTo(asList(billySmith, jamesSmith)));
+        assertThat(index.get("Brown"), equalTo(Collections.<Person>emptyList()));
+        assertThat(index.select(equalTo("Jones")), equalTo(asList(billyJones)));
+        assertThat(index.select(is(equalTo("Jones"))), equalTo(asList(billyJones)));
+    }
+
+    @Test
+    public void otherMatchersAreEvaluatedPerKey() {
+        Index<Person, Integer> index = indexBy(from(testData).getAge());
+
+        assertThat(index.select(greaterThan(30)).size(), equalTo(2));
+    }
+
+    @Test
+    public void nullKeys() {
+        Person noName = new Person(null, null, 1);
+        Index<Person, String> index = indexBy(asList(noName, billySmith), by(Person.class).getLastName());
+
+        assertThat(index.get(null), equalTo(asList(noName)));
+        assertThat(index.select(equalTo((String) null)), equalTo(asList(noName)));
+    }
+
+    @After
+    public void clearAndReturn() {
+        MethodCapture.clearAndReturn();
+    }
+}
@@ -0,0 +1,102 @@
+package com.logicalpractice.collections;
+
+import static com.logicalpractice.collections.Selector.antiJoin;
+import static com.logicalpractice.collections.Selector.by;
+import static com.logicalpractice.collections.Selector.join;
+import static com.logicalpractice.collections.Selector.leftOuterJoin;
+import static com.logicalpractice.collections.Selector.property;
+import static com.logicalpractice.collections.Selector.semiJoin;
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.logicalpractice.collections.support.MethodCapture;
+
+public class JoinTest {
+
+    Person billySmith = person("Billy", "Brighton");
+    Person billyJones = person("Billy", "Leeds");
+    Person jamesSmith = person("James", "Brighton");
+    Person nobody = person("Nobody", null);
+
+    Address brighton = address("Brighton", "BN1");
+    Address york = address("York", "YO1");
+    Address brightonToo = address("Brighton", "BN2");
+
+    List<Person> people = asList(billySmith, billyJones, jamesSmith, nobody);
+    List<Address> addresses = asList(brighton, york, brightonToo);
+
+    @Test
+    public void innerJoinPairsEveryMatch() {
+        List<Pair<Person, Address>> rows = Lists.newArrayList(join(
+                people, property(by(Person.class).getAddress().getTown()),
+                addresses, property(by(Address.class).getTown())));
+
+        assertThat(rows, equalTo(asList(
+                pair(billySmith, brighton), pair(billySmith, brightonToo),
+                pair(jamesSmith, brighton), pair(jamesSmith, brightonToo))));
+    }
+
+    @Test
+    public void innerJoinHashesTheSmallerSide() {
+        List<Address> onlyBrighton = asList(brighton);
+        List<Pair<Person, Address>> rows = Lists.newArrayList(join(
+                people, property(by(Person.class).getAddress().getTown()),
+                onlyBrighton, property(by(Address.class).getTown())));
+
+        assertThat(rows, equalTo(asList(pair(billySmith, brighton), pair(jamesSmith, brighton))));
+
+        List<Pair<Address, Person>> reversed = Lists.newArrayList(join(
+                onlyBrighton, property(by(Address.class).getTown()),
+                people, property(by(Person.class).getAddress().getTown())));
+
+        assertThat(reversed, equalTo(asList(pair(brighton, billySmith), pair(brighton, jamesSmith))));
+    }
+
+    @Test
+    public void leftOuterJoinKeepsUnmatchedLeft() {
+        List<Pair<Person, Address>> rows = Lists.newArrayList(leftOuterJoin(
+                asList(billyJones, nobody, jamesSmith), property(by(Person.class).getAddress().getTown()),
+                addresses, property(by(Address.class).getTown())));
+
+        assertThat(rows, equalTo(asList(
+                pair(billyJones, (Address) null), pair(nobody, (Address) null),
+                pair(jamesSmith, brighton), pair(jamesSmith, brightonToo))));
+    }
+
+    @Test
+    public void semiAndAntiJoins() {
+        assertThat(semiJoin(people, property(by(Person.class).getAddress().getTown()),
+                addresses, property(by(Address.class).getTown())), equalTo(asList(billySmith, jamesSmith)));
+        assertThat(antiJoin(people, property(by(Person.class).getAddress().getTown()),
+                addresses, property(by(Address.class).getTown())), equalTo(asList(billyJones, nobody)));
+    }
+
+    private static <L, R> Pair<L, R> pair(L left, R right) {
+        return new Pair<L, R>(left, right);
+    }
+
+    private static Person person(String name, String town) {
+        Person person = new Person(name, "Smith");
+        person.getAddress().setTown(town);
+        return person;
+    }
+
+    private static Address address(String town, String postcode) {
+        Address address = new Address();
+        address.setTown(town);
+        address.setPostcode(postcode);
+        return address;
+    }
+
+    @After
+    public void clearAndReturn() {
+        MethodCapture.clearAndReturn();
+    }
+}
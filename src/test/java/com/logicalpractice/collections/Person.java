@@ -1,5 +1,8 @@
 package com.logicalpractice.collections;
 
+import com.logicalpractice.collections.metamodel.Metamodel;
+
+@Metamodel
 public class Person {
 
    private String firstName;
@@ -0,0 +1,86 @@
+package com.logicalpractice.collections;
+
+import static com.logicalpractice.collections.Selector.by;
+import static com.logicalpractice.collections.Selector.query;
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import com.logicalpractice.collections.support.MethodCapture;
+
+public class QueryTest {
+
+    List<Person> testData = asList(new Person("Billy", "Smith", 8), new Person("Billy",
+            "Jones", 32), new Person("James", "Smith", 70));
+
+    @Test
+    public void filterProjectAndLimitInOnePass() {
+        List<String> names = query(testData)
+                .where(by(Person.class).getAge()).matching(greaterThan(18))
+                .project(by(Person.class).getFirstName())
+                .list();
+
+        assertThat(names, equalTo(asList("Billy", "James")));
+    }
+
+    @Test
+    public void limitStopsEvaluation() {
+        final AtomicInteger evaluated = new AtomicInteger();
+        Query<Person, Person> query = query(testData).filter(new Predicate<Person>() {
+            public boolean apply(Person input) {
+                evaluated.incrementAndGet();
+                return true;
+            }
+        }).limit(1);
+
+        assertThat(query.list().size(), equalTo(1));
+        assertThat(evaluated.get(), equalTo(1));
+    }
+
+    @Test
+    public void queriesAreReusable() {
+        Query<Person, String> smiths = query(Person.class)
+                .where(by(Person.class).getLastName()).matching(equalTo("Smith"))
+                .project(by(Person.class).getFirstName());
+
+        assertThat(smiths.count(testData), equalTo(2));
+        assertThat(smiths.first(testData), equalTo("Billy"));
+        assertThat(smiths.list(testData.subList(1, 3)), equalTo(asList("James")));
+        assertThat(smiths.limit(0).first(testData), nullValue());
+    }
+
+    @Test
+    public void conditionsCombine() {
+        Query<Person, Integer> query = query(testData)
+                .where(by(Person.class).getLastName()).matching(equalTo("Smith"))
+                .where(by(Person.class).getFirstName()).matching(not(equalTo("Billy")))
+                .project(new Function<Person, Integer>() {
+                    public Integer apply(Person from) {
+                        return from.getAge();
+                    }
+                });
+
+        assertThat(query.list(), equalTo(asList(70)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unboundQueryNeedsItems() {
+        query(Person.class).list();
+    }
+
+    @After
+    public void clearAndReturn() {
+        MethodCapture.clearAndReturn();
+    }
+}
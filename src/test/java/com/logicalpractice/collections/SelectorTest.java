@@ -18,6 +18,7 @@ import static org.junit.Assert.assertThat;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import com.google.common.base.Function;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
@@ -29,13 +30,25 @@ import com.logicalpractice.collections.support.MethodCapture;
 
 public class SelectorTest {
 
+    public static class Position {
+        private final Integer quantity;
+
+        public Position(Integer quantity) {
+            this.quantity = quantity;
+        }
+
+        public Integer getQuantity() {
+            return quantity;
+        }
+    }
+
     List<Person> testData = Arrays.asList(new Person("Billy", "Smith", 8), new Person("Billy",
             "Jones", 32), new Person("James", "Smith", 70));
 
     @Test
     public void selectAllSmiths() throws Exception {
 
-        List<Person> output = newArrayList(select(testData, new Expression<Person, String>() {
+        List<Person> output = newArrayList(Selector.<Person, String>select(testData, new Expression<Person, String>() {
             {
                 each(Person.class).getLastName();
             }
@@ -188,6 +201,292 @@ public class SelectorTest {
         assertThat(count.get(), equalTo(2));
     }
 
+    @Test
+    public void selectIntoDestination() {
+        Set<Person> smiths = select(testData, where(Person.class).getLastName(), equalTo("Smith"), new HashSet<Person>());
+        assertThat(smiths.size(), equalTo(2));
+
+        List<Person> billys = select(from(testData).getFirstName(), equalTo("Billy"), new ArrayList<Person>());
+        assertThat(billys.size(), equalTo(2));
+    }
+
+    @Test
+    public void collectIntoDestination() {
+        SortedSet<String> names = collect(testData, by(Person.class).getLastName(), new TreeSet<String>());
+        assertThat(names.first(), equalTo("Jones"));
+        assertThat(names.size(), equalTo(2));
+    }
+
+    @Test
+    public void collectIntoArray() {
+        String[] presized = new String[3];
+        String[] names = collect(testData, by(Person.class).getFirstName(), presized);
+        assertThat(names == presized, equalTo(true));
+        assertThat(names[2], equalTo("James"));
+
+        String[] tooSmall = collect(testData, by(Person.class).getFirstName(), new String[0]);
+        assertThat(tooSmall.length, equalTo(3));
+
+        String[] large = collect(testData, by(Person.class).getFirstName(), new String[5]);
+        assertThat(large[3], nullValue());
+    }
+
+    @Test
+    public void collectIntoArrayFromUnsizedIterable() {
+        Iterable<Person> unsized = Iterables.concat(testData, testData, testData, testData);
+        Integer[] ages = collect(unsized, by(Person.class).getAge(), new Integer[0]);
+        assertThat(ages.length, equalTo(12));
+        assertThat(ages[11], equalTo(70));
+    }
+
+    @Test
+    public void selectFirstStopsAtTheFirstMatch() {
+        final AtomicInteger evaluated = new AtomicInteger();
+        Person first = selectFirst(testData, new Predicate<Person>() {
+            public boolean apply(Person input) {
+                evaluated.incrementAndGet();
+                return input.getFirstName().equals("Billy");
+            }
+        });
+        assertThat(first.getLastName(), equalTo("Smith"));
+        assertThat(evaluated.get(), equalTo(1));
+
+        assertThat(selectFirst(testData, where(Person.class).getLastName(), equalTo("Jones")).getAge(), equalTo(32));
+        Person james = selectFirst(from(testData).getFirstName(), equalTo("James"));
+        assertThat(james.getAge(), equalTo(70));
+        assertThat(selectFirst(testData, where(Person.class).getLastName(), equalTo("Brown")), nullValue());
+    }
+
+    @Test
+    public void anyAllNone() {
+        assertThat(any(testData, where(Person.class).getAge(), greaterThan(65)), equalTo(true));
+        assertThat(any(from(testData).getAge(), greaterThan(100)), equalTo(false));
+        assertThat(all(testData, where(Person.class).getAge(), greaterThan(1)), equalTo(true));
+        assertThat(all(from(testData).getLastName(), equalTo("Smith")), equalTo(false));
+        assertThat(none(testData, where(Person.class).getLastName(), equalTo("Brown")), equalTo(true));
+        assertThat(none(from(testData).getFirstName(), equalTo("Billy")), equalTo(false));
+        assertThat(all(Collections.<Person>emptyList(), where(Person.class).getAge(), greaterThan(1)), equalTo(true));
+    }
+
+    @Test
+    public void countWithoutMaterialising() {
+        assertThat(count(testData, where(Person.class).getLastName(), equalTo("Smith")), equalTo(2));
+        assertThat(count(from(testData).getFirstName(), equalTo("James")), equalTo(1));
+        assertThat(count(testData, new Expression<Person, Integer>() {{
+            each(Person.class).getAge();
+        }}, lessThan(40)), equalTo(2));
+    }
+
+    @Test
+    public void removeCompactsRandomAccessLists() {
+        List<Person> people = people(1000);
+        List<Person> expected = new ArrayList<Person>(people);
+        for (Iterator<Person> it = expected.iterator(); it.hasNext();) {
+            if (it.next().getLastName().equals("Smith")) {
+                it.remove();
+            }
+        }
+
+        int removed = remove(people, where(Person.class).getLastName(), equalTo("Smith"));
+
+        assertThat(removed, equalTo(334));
+        assertThat(people, equalTo(expected));
+    }
+
+    @Test
+    public void removeIteratesOtherCollections() {
+        List<Person> people = new LinkedList<Person>(people(10));
+
+        List<Person> removed = remove(from(people).getAge(), lessThan(3), new ArrayList<Person>());
+
+        assertThat(people.size(), equalTo(7));
+        assertThat(collect(removed, by(Person.class).getAge()), equalTo((Iterable<Integer>) asList(0, 1, 2)));
+    }
+
+    @Test
+    public void removeCollectsTheRemovedElementsInOrder() {
+        List<Person> people = typedList(people(10), Person.class);
+
+        List<Person> removed = remove(people, where(Person.class).getLastName(), equalTo("Smith"), new ArrayList<Person>());
+
+        assertThat(collect(removed, by(Person.class).getAge()), equalTo((Iterable<Integer>) asList(0, 3, 6, 9)));
+        assertThat(people.size(), equalTo(6));
+        assertThat(remove(people, where(Person.class).getLastName(), equalTo("Smith")), equalTo(0));
+    }
+
+    @Test
+    public void removeFromFixedSizeListFailsUnmodified() {
+        List<Person> people = asList(testData.toArray(new Person[3]));
+        try {
+            remove(people, where(Person.class).getLastName(), equalTo("Jones"));
+        } catch (UnsupportedOperationException e) {
+            assertThat(people, equalTo(testData));
+            return;
+        }
+        throw new AssertionError("expected UnsupportedOperationException");
+    }
+
+    @Test
+    public void removeLeavesTheListConsistentWhenTheMatcherThrows() {
+        List<Person> people = people(10);
+        people.get(5).setLastName(null);
+        try {
+            Selector.<Person, Boolean>remove(people, new Function<Person, Boolean>() {
+                public Boolean apply(Person person) {
+                    return person.getLastName().startsWith("J");
+                }
+            }, equalTo(true));
+        } catch (NullPointerException e) {
+            // Jones removed from the first five
+            assertThat(collect(people, by(Person.class).getAge()), equalTo((Iterable<Integer>) asList(0, 3, 5, 6, 7, 8, 9)));
+            return;
+        }
+        throw new AssertionError("expected NullPointerException");
+    }
+
+    @Test
+    public void removeKeepsEverythingWhenTheFunctionThrowsBeforeAnyMatch() {
+        List<Integer> numbers = new ArrayList<Integer>(asList(1, 2, 3, 4, 5));
+        try {
+            Selector.<Integer, Integer>remove(numbers, new Function<Integer, Integer>() {
+                public Integer apply(Integer number) {
+                    if (number == 4) {
+                        throw new IllegalStateException("four");
+                    }
+                    return number;
+                }
+            }, equalTo(99));
+        } catch (IllegalStateException e) {
+            assertThat(numbers, equalTo(asList(1, 2, 3, 4, 5)));
+            return;
+        }
+        throw new AssertionError("expected IllegalStateException");
+    }
+
+    @Test
+    public void aggregatesOverIntProperties() {
+        assertThat(sum(testData, by(Person.class).getAge()), equalTo(110L));
+        assertThat(min(testData, by(Person.class).getAge()), equalTo(8));
+        assertThat(max(from(testData).getAge()), equalTo(70));
+        assertThat(average(from(testData).getAge()), equalTo(110.0 / 3));
+
+        LongStatistics stats = stats(testData, by(Person.class).getAge());
+        assertThat(stats.getCount(), equalTo(3L));
+        assertThat(stats.getSum(), equalTo(110L));
+        assertThat(stats.getMin(), equalTo(8L));
+        assertThat(stats.getMax(), equalTo(70L));
+    }
+
+    @Test
+    public void aggregatesOverBoxedProperties() {
+        List<Position> positions = asList(new Position(5), new Position(7));
+        assertThat(sum(positions, by(Position.class).getQuantity()), equalTo(12L));
+        assertThat(max(from(positions).getQuantity()), equalTo(7));
+        assertThat(MethodCapture.clearAndReturn(), nullValue());
+    }
+
+    @Test
+    public void aggregatesOfNothing() {
+        List<Person> none = Collections.emptyList();
+        assertThat(sum(none, by(Person.class).getAge()), equalTo(0L));
+        assertThat(Double.isNaN(average(none, by(Person.class).getAge())), equalTo(true));
+        try {
+            min(none, by(Person.class).getAge());
+            throw new AssertionError("expected NoSuchElementException");
+        } catch (NoSuchElementException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void parallelAggregatesMergePartialResults() {
+        setParallelThreshold(100);
+        List<Person> people = people(1000);
+
+        assertThat(parallelSum(people, by(Person.class).getAge()), equalTo(499500L));
+        LongStatistics stats = parallelStats(people, by(Person.class).getAge());
+        assertThat(stats.getCount(), equalTo(1000L));
+        assertThat(stats.getMin(), equalTo(0L));
+        assertThat(stats.getMax(), equalTo(999L));
+        assertThat(parallelStats(people, (double) by(Person.class).getAge()).getSum(), equalTo(499500.0));
+    }
+
+    @Test
+    public void collectIntoPrimitiveArrays() {
+        assertThat(Arrays.equals(collectInt(testData, by(Person.class).getAge()), new int[] {8, 32, 70}), equalTo(true));
+        assertThat(Arrays.equals(collectLong(from(testData).getAge()), new long[] {8, 32, 70}), equalTo(true));
+        assertThat(Arrays.equals(collectDouble(testData, by(Person.class).getAge()), new double[] {8, 32, 70}), equalTo(true));
+        assertThat(collectInt(Collections.<Person>emptyList(), by(Person.class).getAge()).length, equalTo(0));
+    }
+
+    @Test
+    public void collectPrimitivesFromIterablesOfUnknownSize() {
+        Iterable<Person> people = Iterables.concat(people(50), people(50));
+        int[] ages = collectInt(people, new Function<Person, Integer>() {
+            public Integer apply(Person person) {
+                return person.getAge();
+            }
+        });
+
+        assertThat(ages.length, equalTo(100));
+        assertThat(ages[99], equalTo(49));
+    }
+
+    private List<Person> people(int count) {
+        List<Person> people = new ArrayList<Person>(count);
+        for (int i = 0; i < count; i++) {
+            people.add(new Person("Person" + i, i % 3 == 0 ? "Smith" : "Jones", i));
+        }
+        return people;
+    }
+
+    @Test
+    public void parallelSelectKeepsSourceOrder() {
+        setParallelThreshold(16);
+        List<Person> people = typedList(people(1000), Person.class);
+
+        List<Person> smiths = parallelSelect(people, where(Person.class).getLastName(), equalTo("Smith"));
+
+        assertThat(smiths.size(), equalTo(334));
+        for (int i = 0; i < smiths.size(); i++) {
+            assertThat(smiths.get(i).getAge(), equalTo(i * 3));
+        }
+        assertThat(parallelSelect(from(people).getLastName(), equalTo("Jones")).size(), equalTo(666));
+    }
+
+    @Test
+    public void parallelCollectKeepsSourceOrder() {
+        setParallelThreshold(16);
+        List<Person> people = people(1000);
+
+        List<Integer> ages = parallelCollect(people, by(Person.class).getAge());
+
+        assertThat(ages.size(), equalTo(1000));
+        for (int i = 0; i < ages.size(); i++) {
+            assertThat(ages.get(i), equalTo(i));
+        }
+    }
+
+    @Test
+    public void parallelRemoveCompactsTheList() {
+        setParallelThreshold(16);
+        List<Person> people = people(1000);
+
+        int removed = parallelRemove(people, where(Person.class).getLastName(), equalTo("Smith"));
+
+        assertThat(removed, equalTo(334));
+        assertThat(people.size(), equalTo(666));
+        assertThat(size(select(people, where(Person.class).getLastName(), equalTo("Smith"))), equalTo(0));
+        assertThat(people.get(0).getAge(), equalTo(1));
+        assertThat(people.get(665).getAge(), equalTo(998));
+    }
+
+    @Test
+    public void parallelSelectBelowThresholdRunsSequentially() {
+        List<Person> output = parallelSelect(testData, where(Person.class).getLastName(), equalTo("Smith"));
+        assertThat(output.size(), equalTo(2));
+    }
+
     @Test
     public void typeOfIterableTypedList(){
         assertThat(typeOfIterable(TypedUtils.typedList(Arrays.asList("a","b","b"),String.class)),equalTo(String.class));
@@ -211,5 +510,6 @@ public class SelectorTest {
     @After
     public void clearAndReturn() {
         MethodCapture.clearAndReturn();
+        setParallelThreshold(8192);
     }
 }
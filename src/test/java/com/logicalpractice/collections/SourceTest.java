@@ -0,0 +1,116 @@
+package com.logicalpractice.collections;
+
+import static com.logicalpractice.collections.Selector.capture;
+import static com.logicalpractice.collections.Selector.source;
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.base.Function;
+import com.logicalpractice.collections.support.MethodCapture;
+
+public class SourceTest {
+
+    static final Function<Person, String> LAST_NAME;
+    static {
+        Capture<Person> person = capture(Person.class);
+        LAST_NAME = person.freeze(person.each().getLastName());
+    }
+
+    List<Person> testData = asList(new Person("Billy", "Smith", 8), new Person("Billy",
+            "Jones", 32), new Person("James", "Smith", 70));
+
+    @Test
+    public void selectCollectAndCount() {
+        Source<Person> people = source(testData);
+
+        assertThat(names(people.select(people.each().getLastName(), equalTo("Smith"))),
+                equalTo(asList("Billy Smith", "James Smith")));
+        assertThat(people.collect(people.each().getFirstName()), equalTo(asList("Billy", "Billy", "James")));
+        assertEquals(2, people.count(people.each().getAge(), greaterThan(18)));
+        assertThat(MethodCapture.clearAndReturn(), nullValue());
+    }
+
+    @Test
+    public void clausesCanBeNested() {
+        final Source<Person> people = source(testData, Person.class);
+        Capture<Person> other = capture(Person.class);
+
+        String pending = other.each().getFirstName();
+        List<Person> smiths = people.select(people.each().getLastName(), equalTo("Smith"));
+        Function<Person, String> firstName = other.freeze(pending);
+
+        assertEquals(2, smiths.size());
+        assertEquals("James", firstName.apply(smiths.get(1)));
+    }
+
+    @Test
+    public void frozenClauseIsSharedBetweenThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(new Callable<Integer>() {
+                    public Integer call() {
+                        int smiths = 0;
+                        for (int j = 0; j < 1000; j++) {
+                            for (Person person : testData) {
+                                if ("Smith".equals(LAST_NAME.apply(person))) {
+                                    smiths++;
+                                }
+                            }
+                        }
+                        return smiths;
+                    }
+                }));
+            }
+            for (Future<Integer> result : results) {
+                assertEquals(2000, result.get().intValue());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void freezeWithoutClauseFails() {
+        try {
+            capture(Person.class).freeze("x");
+            fail("expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void finalTypesCannotBeCaptured() {
+        capture(String.class);
+    }
+
+    @After
+    public void tearDown() {
+        MethodCapture.clearAndReturn();
+    }
+
+    private static List<String> names(Iterable<Person> people) {
+        List<String> names = new ArrayList<String>();
+        for (Person person : people) {
+            names.add(person.getFullName());
+        }
+        return names;
+    }
+}
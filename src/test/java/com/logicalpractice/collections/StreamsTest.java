@@ -0,0 +1,92 @@
+package com.logicalpractice.collections;
+
+import static com.logicalpractice.collections.Selector.by;
+import static com.logicalpractice.collections.Selector.from;
+import static com.logicalpractice.collections.Selector.select;
+import static com.logicalpractice.collections.Selector.where;
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.logicalpractice.collections.support.MethodCapture;
+import com.logicalpractice.collections.typed.Typed;
+import com.logicalpractice.collections.typed.TypedUtils;
+
+public class StreamsTest {
+
+    List<Person> testData = asList(new Person("Billy", "Smith", 8), new Person("Billy",
+            "Jones", 32), new Person("James", "Smith", 70));
+
+    @Test
+    public void typedSpliteratorSplitsLikeTheWrappedList() {
+        List<Person> people = TypedUtils.typedList(new ArrayList<Person>(testData), Person.class);
+
+        Spliterator<Person> spliterator = people.spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+        assertEquals(3, spliterator.getExactSizeIfKnown());
+        assertThat(spliterator, instanceOf(Typed.class));
+
+        Spliterator<Person> prefix = spliterator.trySplit();
+        assertEquals(3, prefix.getExactSizeIfKnown() + spliterator.getExactSizeIfKnown());
+        assertEquals(Person.class, ((Typed<?>) prefix).type());
+    }
+
+    @Test
+    public void adaptersInAParallelStream() {
+        List<Person> people = new ArrayList<Person>();
+        for (int i = 0; i < 1000; i++) {
+            people.addAll(testData);
+        }
+        Predicate<Person> adults = Streams.<Person, Integer>predicate(where(Person.class).getAge(), greaterThan(18));
+        Function<Person, String> lastName = Streams.<Person, String>function(by(Person.class).getLastName());
+
+        List<String> names = StreamSupport.stream(TypedUtils.typedList(people, Person.class).spliterator(), true)
+                .filter(adults)
+                .map(lastName)
+                .collect(Collectors.<String>toList());
+
+        assertEquals(2000, names.size());
+        assertEquals(1000, Collections.frequency(names, "Jones"));
+        assertThat(names.subList(0, 2), equalTo(asList("Jones", "Smith")));
+    }
+
+    @Test
+    public void collectorsFromClauses() {
+        List<String> firstNames = testData.parallelStream()
+                .collect(Streams.<Person, String>toList(by(Person.class).getFirstName()));
+        assertThat(firstNames, equalTo(asList("Billy", "Billy", "James")));
+
+        List<Person> typed = testData.stream()
+                .filter(Streams.<Person, String>predicate(Selector.<Person, String>property(by(Person.class).getLastName()), equalTo("Smith")))
+                .collect(Streams.toTypedList(Person.class));
+        assertEquals(Person.class, ((Typed<?>) typed).type());
+
+        // the typed result works with from() even when empty
+        List<Person> none = new ArrayList<Person>();
+        List<Person> empty = none.stream().collect(Streams.toTypedList(Person.class));
+        Iterable<Person> older = select(from(empty).getAge(), greaterThan(1));
+        assertFalse(older.iterator().hasNext());
+    }
+
+    @After
+    public void tearDown() {
+        MethodCapture.clearAndReturn();
+    }
+}
@@ -0,0 +1,159 @@
+package com.logicalpractice.collections.metamodel;
+
+import static com.logicalpractice.collections.Selector.by;
+import static com.logicalpractice.collections.Selector.collect;
+import static com.logicalpractice.collections.Selector.property;
+import static com.logicalpractice.collections.Selector.remove;
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.base.Function;
+import com.logicalpractice.collections.Person;
+import com.logicalpractice.collections.Person_;
+import com.logicalpractice.collections.Selector;
+import com.logicalpractice.collections.support.MethodCapture;
+import com.logicalpractice.collections.typed.IndexedList;
+import com.logicalpractice.collections.typed.TypedUtils;
+
+public class MetamodelTest {
+
+   List<Person> people = new ArrayList<Person>(asList(
+         person("Billy", "Smith", 8, "Leeds"),
+         person("Billy", "Jones", 32, "York"),
+         person("James", "Smith", 70, "Leeds")));
+
+   @Test
+   public void propertiesPlugIntoSelector() {
+      Iterable<Person> smiths = Selector.<Person, String>select(people, Person_.lastName, equalTo("Smith"));
+      assertThat(names(smiths), equalTo(asList("Billy Smith", "James Smith")));
+
+      List<String> towns = collect(people, Person_.address.town, new ArrayList<String>());
+      assertThat(towns, equalTo(asList("Leeds", "York", "Leeds")));
+
+      assertEquals(1, remove(people, Person_.age, greaterThan(60)));
+      assertEquals(2, people.size());
+   }
+
+   @Test
+   public void equalToTheCapturedChain() {
+      Function<Person, String> town = property(by(Person.class).getAddress().getTown());
+      assertEquals(town, Person_.address.town);
+      assertEquals(town.hashCode(), Person_.address.town.hashCode());
+      assertEquals("Person.getAddress().getTown()", Person_.address.town.toString());
+   }
+
+   @Test
+   public void usesIndexesBuiltFromCapturedClauses() {
+      IndexedList<Person> indexed = TypedUtils.indexedList(new ArrayList<Person>(), Person.class)
+            .indexOn(by(Person.class).getLastName());
+      indexed.addAll(people);
+
+      List<Person> smiths = indexed.lookup(Person_.lastName, equalTo("Smith"));
+      assertNotNull("index used", smiths);
+      assertEquals(2, smiths.size());
+   }
+
+   @Test
+   public void primitivesReadWithoutBoxing() {
+      assertEquals(32, Person_.age.getInt(people.get(1)));
+      assertEquals(32L, Person_.age.getLong(people.get(1)));
+      assertEquals(Integer.valueOf(32), Person_.age.get(people.get(1)));
+   }
+
+   @Test
+   public void selfReferenceIsAPlainProperty() throws IOException {
+      String generated = compile("Node",
+            "package sample;\n"
+            + "@com.logicalpractice.collections.metamodel.Metamodel\n"
+            + "public class Node {\n"
+            + "   public Node getParent() { return null; }\n"
+            + "   public boolean isLeaf() { return true; }\n"
+            + "}\n");
+      assertThat(generated, containsString("Property<sample.Node, sample.Node> parent"));
+      assertThat(generated, containsString("Property<sample.Node, java.lang.Boolean> leaf"));
+   }
+
+   @Test
+   public void genericTypesAreRejected() throws IOException {
+      assertEquals(null, compile("Box",
+            "package sample;\n"
+            + "@com.logicalpractice.collections.metamodel.Metamodel\n"
+            + "public class Box<T> {\n"
+            + "   public T getValue() { return null; }\n"
+            + "}\n"));
+   }
+
+   @After
+   public void tearDown() {
+      MethodCapture.clearAndReturn();
+   }
+
+   /**
+    * @return the generated metamodel source, null if compilation failed
+    */
+   private static String compile(String name, final String source) throws IOException {
+      JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+      StandardJavaFileManager files = compiler.getStandardFileManager(null, null, null);
+      File output = File.createTempFile("metamodel", "");
+      assertTrue(output.delete() && output.mkdir());
+      files.setLocation(StandardLocation.CLASS_OUTPUT, asList(output));
+      files.setLocation(StandardLocation.SOURCE_OUTPUT, asList(output));
+
+      JavaFileObject file = new SimpleJavaFileObject(URI.create("string:///sample/" + name + ".java"), JavaFileObject.Kind.SOURCE) {
+         @Override
+         public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return source;
+         }
+      };
+      StringWriter messages = new StringWriter();
+      boolean compiled = compiler.getTask(messages, files, null,
+            asList("-classpath", System.getProperty("java.class.path"), "-processor", MetamodelProcessor.class.getName()),
+            null, asList(file)).call();
+      files.close();
+      if (!compiled) {
+         assertThat(messages.toString(), containsString("@Metamodel is not supported on generic types"));
+         return null;
+      }
+      File generated = new File(output, "sample/" + name + "_.java");
+      assertTrue(messages.toString(), generated.isFile());
+      return new String(Files.readAllBytes(generated.toPath()), "UTF-8");
+   }
+
+   private static Person person(String first, String last, int age, String town) {
+      Person person = new Person(first, last, age);
+      person.getAddress().setTown(town);
+      return person;
+   }
+
+   private static List<String> names(Iterable<Person> people) {
+      List<String> names = new ArrayList<String>();
+      for (Person person : people) {
+         names.add(person.getFullName());
+      }
+      return names;
+   }
+}
@@ -0,0 +1,143 @@
+package com.logicalpractice.collections.support;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.logicalpractice.collections.Person;
+
+public class AccessorTest {
+
+   static class PackageClass {
+      String secret() {
+         return "secret";
+      }
+   }
+
+   @SuppressWarnings("unchecked")
+   private static <F, T> Accessor<F, T> compileCurrent() {
+      return ((CapturingProxy<F, T>) MethodCapture.clearAndReturn()).compile();
+   }
+
+   @Test
+   public void generatedAccessorFollowsChain() throws Exception {
+      MethodCapture.capture(Person.class).getAddress().getTown();
+      Accessor<Person, String> accessor = compileCurrent();
+
+      Person person = new Person("Billy", "Smith");
+      person.getAddress().setTown("Brighton");
+
+      assertThat(accessor, not(instanceOf(ReflectiveAccessor.class)));
+      assertThat(accessor.get(person), equalTo("Brighton"));
+      assertThat(accessor.toString(), equalTo("Person.getAddress().getTown()"));
+   }
+
+   @Test
+   public void generatedAccessorBoxesPrimitives() throws Exception {
+      MethodCapture.capture(Person.class).getAge();
+      Accessor<Person, Integer> accessor = compileCurrent();
+
+      assertThat(accessor.get(new Person("Billy", "Smith", 8)), equalTo(8));
+   }
+
+   @Test
+   public void primitiveResultsAreReadWithoutBoxing() throws Exception {
+      MethodCapture.capture(Person.class).getAge();
+      Accessor<Person, Integer> accessor = compileCurrent();
+      Person person = new Person("Billy", "Smith", 8);
+
+      assertThat(accessor.getInt(person), equalTo(8));
+      assertThat(accessor.getLong(person), equalTo(8L));
+      assertThat(accessor.getDouble(person), equalTo(8.0));
+      assertThat(accessor.getClass().getDeclaredMethod("getLong", Object.class).getDeclaringClass(),
+            equalTo((Object) accessor.getClass()));
+   }
+
+   @Test
+   public void boxedResultsAreUnboxedForAggregation() throws Exception {
+      MethodCapture.capture(List.class).get(0);
+      Accessor<List<Object>, Object> accessor = compileCurrent();
+
+      assertThat(accessor.getLong(Arrays.<Object>asList(3.7)), equalTo(3L));
+      assertThat(accessor.getDouble(Arrays.<Object>asList(3)), equalTo(3.0));
+   }
+
+   @Test
+   public void generatedAccessorPassesArguments() throws Exception {
+      MethodCapture.capture(List.class).get(1);
+      Accessor<List<String>, Object> accessor = compileCurrent();
+
+      assertThat(accessor.get(Arrays.asList("a", "b")), equalTo((Object) "b"));
+      assertThat(accessor.getChain().getArguments(0)[0], equalTo((Object) 1));
+   }
+
+   @Test
+   public void packageMethodsAreCalledFromTheSamePackage() throws Exception {
+      MethodCapture.capture(PackageClass.class).secret();
+      Accessor<PackageClass, String> accessor = compileCurrent();
+
+      assertThat(accessor.get(new PackageClass()), equalTo("secret"));
+   }
+
+   @Test
+   public void emptyChainIsIdentity() throws Exception {
+      MethodCapture.capture(Person.class);
+      Accessor<Person, Person> accessor = compileCurrent();
+      Person person = new Person();
+
+      assertThat(accessor.get(person), equalTo(person));
+   }
+
+   @Test(expected = NullPointerException.class)
+   public void exceptionsAreNotWrapped() throws Exception {
+      MethodCapture.capture(Person.class).getFirstName();
+      Accessor<Person, String> accessor = compileCurrent();
+      accessor.get(null);
+   }
+
+   @Test
+   public void chainsWithTheSameMethodsAreEqual() throws Exception {
+      MethodCapture.capture(Person.class).getLastName();
+      CapturedChain first = compileCurrent().getChain();
+      MethodCapture.capture(Person.class).getLastName();
+      CapturedChain second = compileCurrent().getChain();
+
+      assertThat(first, equalTo(second));
+      assertThat(first.hashCode(), equalTo(second.hashCode()));
+      assertThat(first.getResultType(), not(nullValue()));
+   }
+
+   @Test
+   public void repeatedCapturesShareTheCompiledAccessor() throws Exception {
+      MethodCapture.capture(Person.class).getAddress().getTown();
+      Accessor<Person, String> first = compileCurrent();
+      MethodCapture.capture(Person.class).getAddress().getTown();
+      Accessor<Person, String> second = compileCurrent();
+
+      assertThat(first == second, equalTo(true));
+   }
+
+   @Test
+   public void differentArgumentsAreNotShared() throws Exception {
+      MethodCapture.capture(List.class).get(0);
+      Accessor<List<String>, Object> first = compileCurrent();
+      MethodCapture.capture(List.class).get(1);
+      Accessor<List<String>, Object> second = compileCurrent();
+
+      assertThat(first, not(equalTo(second)));
+      assertThat(second.get(Arrays.asList("a", "b")), equalTo((Object) "b"));
+   }
+
+   @After
+   public void clearAndReturn() {
+      MethodCapture.clearAndReturn();
+   }
+}
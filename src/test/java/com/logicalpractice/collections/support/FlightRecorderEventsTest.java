@@ -0,0 +1,109 @@
+package com.logicalpractice.collections.support;
+
+import static com.logicalpractice.collections.Selector.by;
+import static com.logicalpractice.collections.Selector.select;
+import static com.logicalpractice.collections.Selector.where;
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.After;
+import org.junit.Test;
+
+import com.logicalpractice.collections.Person;
+import com.logicalpractice.collections.typed.IndexedList;
+import com.logicalpractice.collections.typed.TypedUtils;
+
+public class FlightRecorderEventsTest {
+
+   public static class NeverCaptured {
+      public String getName() {
+         return "never";
+      }
+   }
+
+   List<Person> people = asList(new Person("Billy", "Smith", 8), new Person("James", "Smith", 70));
+
+   @Test
+   public void recordsQueriesAndClassGeneration() throws Exception {
+      Recording recording = new Recording();
+      recording.enable("com.logicalpractice.collections.Query");
+      recording.enable("com.logicalpractice.collections.ClassGeneration");
+      recording.start();
+      try {
+         assertTrue(Instrumentation.isRecording());
+         select(people, where(Person.class).getLastName(), equalTo("Smith"));
+         by(NeverCaptured.class).getName();
+         MethodCapture.clearAndReturn();
+      } finally {
+         recording.stop();
+      }
+      assertFalse(Instrumentation.isRecording());
+
+      File file = File.createTempFile("events", ".jfr");
+      file.deleteOnExit();
+      recording.dump(file.toPath());
+      recording.close();
+
+      List<String> generated = new ArrayList<String>();
+      int queries = 0;
+      for (RecordedEvent event : RecordingFile.readAllEvents(file.toPath())) {
+         String name = event.getEventType().getName();
+         if (name.equals("com.logicalpractice.collections.Query")) {
+            queries++;
+            assertEquals("Person.getLastName()", event.getString("chain"));
+            assertEquals("select", event.getString("operation"));
+            assertEquals(2, event.getLong("sourceSize"));
+            assertEquals(2, event.getLong("scanned"));
+            assertEquals(2, event.getLong("matched"));
+         } else if (name.equals("com.logicalpractice.collections.ClassGeneration")) {
+            generated.add(event.getString("kind") + " " + event.getClass("type").getName());
+         }
+      }
+      assertEquals(1, queries);
+      assertTrue(generated.toString(), generated.contains("capture proxy " + NeverCaptured.class.getName()));
+   }
+
+   @Test
+   public void indexLookupsReportTheSourceSize() throws Exception {
+      IndexedList<Person> indexed = TypedUtils.indexedList(new ArrayList<Person>(people), Person.class)
+            .indexOn(by(Person.class).getLastName());
+      Recording recording = new Recording();
+      recording.enable("com.logicalpractice.collections.Query");
+      recording.start();
+      try {
+         select(indexed, where(Person.class).getLastName(), equalTo("Smith"));
+      } finally {
+         recording.stop();
+      }
+      File file = File.createTempFile("events", ".jfr");
+      file.deleteOnExit();
+      recording.dump(file.toPath());
+      recording.close();
+
+      int queries = 0;
+      for (RecordedEvent event : RecordingFile.readAllEvents(file.toPath())) {
+         if (event.getEventType().getName().equals("com.logicalpractice.collections.Query")) {
+            queries++;
+            assertEquals(2, event.getLong("sourceSize"));
+            assertEquals(0, event.getLong("scanned"));
+            assertEquals(2, event.getLong("matched"));
+         }
+      }
+      assertEquals(1, queries);
+   }
+
+   @After
+   public void tearDown() {
+      MethodCapture.clearAndReturn();
+   }
+}
@@ -0,0 +1,68 @@
+package com.logicalpractice.collections.support;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.anyOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class MatcherValuesTest {
+
+   @Test
+   public void equalToValue() {
+      assertThat(MatcherValues.equalToValue(equalTo("Smith")), equalTo((Object) "Smith"));
+      assertThat(MatcherValues.equalToValue(is(equalTo("Smith"))), equalTo((Object) "Smith"));
+      assertThat(MatcherValues.equalToValue(greaterThan(1)), equalTo(MatcherValues.NOT_EQUALITY));
+      assertThat(MatcherValues.equalToValue(equalTo(new int[] {1})), equalTo(MatcherValues.NOT_EQUALITY));
+   }
+
+   @Test
+   public void comparisons() {
+      assertThat(plan(greaterThan(5)), equalTo("[(5, +inf)]"));
+      assertThat(plan(greaterThanOrEqualTo(5)), equalTo("[[5, +inf)]"));
+      assertThat(plan(lessThan(5)), equalTo("[(-inf, 5)] + null"));
+      assertThat(plan(lessThanOrEqualTo(5)), equalTo("[(-inf, 5]] + null"));
+      assertThat(plan(equalTo(5)), equalTo("[[5, 5]]"));
+   }
+
+   @Test
+   public void combinations() {
+      assertThat(plan(allOf(greaterThan(1), lessThan(10))), equalTo("[(1, 10)]"));
+      assertThat(plan(anyOf(lessThan(1), greaterThan(10))), equalTo("[(-inf, 1), (10, +inf)] + null"));
+      assertThat(plan(not(equalTo(3))), equalTo("[(-inf, 3), (3, +inf)] + null"));
+      assertThat(plan(allOf(notNullValue(), not(anyOf(equalTo(1), equalTo(2))))), equalTo("[(-inf, 1), (1, 2), (2, +inf)]"));
+      assertThat(plan(anyOf(lessThanOrEqualTo(5), greaterThan(5))), equalTo("[(-inf, +inf)] + null"));
+      assertThat(plan(allOf(greaterThan(5), lessThan(5))), equalTo("[]"));
+      assertThat(plan(nullValue()), equalTo("[] + null"));
+   }
+
+   @Test
+   public void unknownMatchers() {
+      assertThat(plan(allOf(greaterThan("a"), containsString("b"))), equalTo("[(a, +inf)] (superset)"));
+      assertThat(MatcherValues.ranges(anyOf(greaterThan("a"), containsString("b"))), nullValue());
+      assertThat(MatcherValues.ranges(not(allOf(greaterThan("a"), containsString("b")))), nullValue());
+      assertThat(MatcherValues.ranges(equalTo(Arrays.asList(1))), nullValue());
+   }
+
+   @Test
+   @SuppressWarnings("unchecked")
+   public void mixedOperandTypesAreNotPlanned() {
+      assertThat(MatcherValues.ranges(anyOf(greaterThan(1), greaterThan(2L))), nullValue());
+   }
+
+   private static String plan(org.hamcrest.Matcher<?> matcher) {
+      return MatcherValues.ranges(matcher).toString();
+   }
+}
@@ -10,6 +10,8 @@ import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 
+import java.lang.reflect.Proxy;
+
 import org.junit.After;
 import org.junit.Test;
 
@@ -34,11 +36,18 @@ public class MethodCaptureTest {
    }
    
    static class NoDefaultConstructorClass{
+      static int constructed ;
       NoDefaultConstructorClass(String value1){
          assert value1 != null ;
+         constructed++ ;
       }
    }
 
+   interface SomeInterface {
+      NormalClass normal();
+      int count();
+   }
+
    /**
     * Test method for {@link com.logicalpractice.collections.support.MethodCapture#capture(java.lang.Class)}.
     */
@@ -68,9 +77,29 @@ public class MethodCaptureTest {
       assertThat(impl.thing(), not(equalTo(new NormalClass().thing())));
    }
 
-   @Test(expected=IllegalArgumentException.class)
+   @Test
    public void captureNoDefaultConstructor() throws Exception {
-      MethodCapture.capture(NoDefaultConstructorClass.class);
+      NoDefaultConstructorClass impl = MethodCapture.capture(NoDefaultConstructorClass.class);
+      assertThat(impl, not(nullValue()));
+      assertThat(NoDefaultConstructorClass.constructed, equalTo(0));
+   }
+
+   @Test
+   public void captureInterface() throws Exception {
+      SomeInterface impl = MethodCapture.capture(SomeInterface.class);
+      assertThat(Proxy.isProxyClass(impl.getClass()), equalTo(true));
+      assertThat(impl.count(), equalTo(0));
+      assertThat(impl.normal(), not(nullValue()));
+      assertThat(MethodCapture.clearAndReturn().getChain().length(), equalTo(2));
+   }
+
+   @Test
+   public void proxyClassesAreReused() throws Exception {
+      NormalClass first = MethodCapture.capture(NormalClass.class);
+      MethodCapture.clearAndReturn();
+      NormalClass second = MethodCapture.capture(NormalClass.class);
+      assertThat(first.getClass() == second.getClass(), equalTo(true));
+      assertThat(first == second, equalTo(false));
    }
    
    @After
@@ -0,0 +1,93 @@
+package com.logicalpractice.collections.support;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ProxyPregeneratorTest {
+
+   public static class Pregenerated {
+      public String getName() {
+         return "real";
+      }
+   }
+
+   public interface Named {
+      String getName();
+   }
+
+   File output;
+
+   @Before
+   public void setUp() throws IOException {
+      output = File.createTempFile("proxies", "");
+      assertTrue(output.delete() && output.mkdir());
+   }
+
+   @Test
+   public void writesClassesAndNativeImageConfig() throws Exception {
+      List<Class<?>> types = new ArrayList<Class<?>>();
+      types.add(Pregenerated.class);
+      types.add(Named.class);
+      List<File> written = ProxyPregenerator.generate(output, types);
+
+      String name = Pregenerated.class.getName() + "$$CaptureProxy";
+      assertEquals(asList(new File(output, name.replace('.', File.separatorChar) + ".class")), written);
+
+      File config = new File(output, ProxyPregenerator.CONFIG_DIRECTORY);
+      String reflect = read(new File(config, "reflect-config.json"));
+      assertThat(reflect, containsString("\"name\":\"" + name + "\""));
+      assertThat(reflect, containsString("\"name\":\"" + Pregenerated.class.getName() + "\""));
+      assertThat(reflect, containsString("\"name\":\"java.lang.Object\""));
+      assertThat(read(new File(config, "proxy-config.json")),
+            containsString("{\"interfaces\":[\"" + Named.class.getName() + "\"]}"));
+   }
+
+   @Test
+   public void pregeneratedClassIsUsed() throws Exception {
+      ProxyPregenerator.generate(output, new ArrayList<Class<?>>(asList(Pregenerated.class)));
+
+      // a fresh class loader, so that nothing generated by this test run can be found
+      List<URL> urls = new ArrayList<URL>();
+      urls.add(output.toURI().toURL());
+      for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+         urls.add(new File(entry).toURI().toURL());
+      }
+      URLClassLoader loader = new URLClassLoader(urls.toArray(new URL[urls.size()]), null);
+      try {
+         Class<?> type = loader.loadClass(Pregenerated.class.getName());
+         Class<?> handlerType = loader.loadClass(CapturingProxy.class.getName());
+         Object handler = handlerType.getConstructor(Class.class).newInstance(type);
+         Method newProxy = loader.loadClass(CaptureProxies.class.getName())
+               .getDeclaredMethod("newProxy", Class.class, loader.loadClass("net.sf.cglib.proxy.MethodInterceptor"));
+         newProxy.setAccessible(true);
+         Object proxy = newProxy.invoke(null, type, handler);
+
+         assertEquals(output.toURI().toURL(), proxy.getClass().getProtectionDomain().getCodeSource().getLocation());
+         assertEquals(null, type.getMethod("getName").invoke(proxy));
+         Object chain = handlerType.getMethod("getChain").invoke(handler);
+         assertThat(chain.toString(), equalTo("Pregenerated.getName()"));
+      } finally {
+         loader.close();
+      }
+   }
+
+   private static String read(File file) throws IOException {
+      return new String(Files.readAllBytes(file.toPath()), "UTF-8");
+   }
+}
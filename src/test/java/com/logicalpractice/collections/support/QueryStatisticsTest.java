@@ -0,0 +1,250 @@
+package com.logicalpractice.collections.support;
+
+import static com.logicalpractice.collections.Selector.all;
+import static com.logicalpractice.collections.Selector.any;
+import static com.logicalpractice.collections.Selector.by;
+import static com.logicalpractice.collections.Selector.collect;
+import static com.logicalpractice.collections.Selector.collectInt;
+import static com.logicalpractice.collections.Selector.count;
+import static com.logicalpractice.collections.Selector.groupBy;
+import static com.logicalpractice.collections.Selector.indexBy;
+import static com.logicalpractice.collections.Selector.max;
+import static com.logicalpractice.collections.Selector.none;
+import static com.logicalpractice.collections.Selector.parallelCollect;
+import static com.logicalpractice.collections.Selector.parallelRemove;
+import static com.logicalpractice.collections.Selector.parallelSelect;
+import static com.logicalpractice.collections.Selector.remove;
+import static com.logicalpractice.collections.Selector.select;
+import static com.logicalpractice.collections.Selector.selectFirst;
+import static com.logicalpractice.collections.Selector.stats;
+import static com.logicalpractice.collections.Selector.sum;
+import static com.logicalpractice.collections.Selector.where;
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.hamcrest.Matcher;
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.base.Function;
+import com.logicalpractice.collections.Person;
+import com.logicalpractice.collections.Query;
+import com.logicalpractice.collections.Selector;
+import com.logicalpractice.collections.typed.Searchable;
+
+public class QueryStatisticsTest {
+
+   List<Person> people = new ArrayList<Person>(asList(
+         new Person("Billy", "Smith", 8),
+         new Person("Billy", "Jones", 32),
+         new Person("James", "Smith", 70)));
+
+   @Test
+   public void disabledByDefault() {
+      assertNull(Instrumentation.getMetrics());
+      select(people, where(Person.class).getLastName(), equalTo("Smith"));
+   }
+
+   @Test
+   public void recordsEachChain() {
+      QueryStatistics statistics = QueryStatistics.install();
+
+      select(people, where(Person.class).getLastName(), equalTo("Smith"));
+      select(people, where(Person.class).getLastName(), equalTo("Jones"));
+      collect(people, by(Person.class).getFirstName());
+      remove(people, where(Person.class).getAge(), greaterThan(60));
+
+      ChainStatistics lastName = statistics.get("Person.getLastName()");
+      assertEquals(2, lastName.getCalls());
+      assertEquals(6, lastName.getScanned());
+      assertEquals(3, lastName.getMatched());
+      assertTrue(lastName.getP99Nanos() >= lastName.getMedianNanos());
+      assertTrue(lastName.getP99Nanos() <= lastName.getMaxNanos());
+
+      assertEquals(3, statistics.get("Person.getFirstName()").getMatched());
+
+      ChainStatistics age = statistics.get("Person.getAge()");
+      assertEquals(3, age.getScanned());
+      assertEquals(1, age.getMatched());
+   }
+
+   @Test
+   public void recordsFailures() {
+      QueryStatistics statistics = QueryStatistics.install();
+      people.add(null);
+      try {
+         select(people, where(Person.class).getLastName(), equalTo("Smith"));
+         fail("expected the null element to fail");
+      } catch (RuntimeException e) {
+         // expected
+      }
+      ChainStatistics lastName = statistics.get("Person.getLastName()");
+      assertEquals(0, lastName.getCalls());
+      assertEquals(1, lastName.getFailures());
+   }
+
+   @Test
+   public void chainsDifferingOnlyInArgumentsShareAnEntry() {
+      QueryStatistics statistics = QueryStatistics.install();
+      List<List<String>> rows = asList(asList("a", "b", "c"), asList("d", "e", "f"));
+
+      for (int i = 0; i < 3; i++) {
+         collect(rows, by(List.class).get(i));
+      }
+
+      assertEquals(1, statistics.getChains().size());
+      ChainStatistics element = statistics.get("List.get(?)");
+      assertEquals(3, element.getCalls());
+      assertEquals(6, element.getScanned());
+   }
+
+   @Test
+   public void recordsShortCircuitingOperations() {
+      QueryStatistics statistics = QueryStatistics.install();
+
+      selectFirst(people, where(Person.class).getLastName(), equalTo("Jones"));
+      any(people, where(Person.class).getLastName(), equalTo("Smith"));
+      none(people, where(Person.class).getLastName(), equalTo("Brown"));
+      all(people, where(Person.class).getLastName(), equalTo("Smith"));
+      count(people, where(Person.class).getLastName(), equalTo("Smith"));
+
+      ChainStatistics lastName = statistics.get("Person.getLastName()");
+      assertEquals(5, lastName.getCalls());
+      assertEquals(2 + 1 + 3 + 2 + 3, lastName.getScanned());
+      assertEquals(1 + 1 + 0 + 1 + 2, lastName.getMatched());
+   }
+
+   @Test
+   public void recordsAggregations() {
+      QueryStatistics statistics = QueryStatistics.install();
+
+      sum(people, by(Person.class).getAge());
+      max(people, by(Person.class).getAge());
+      stats(people, by(Person.class).getAge());
+      collectInt(people, by(Person.class).getAge());
+
+      ChainStatistics age = statistics.get("Person.getAge()");
+      assertEquals(4, age.getCalls());
+      assertEquals(12, age.getScanned());
+
+      people.add(null);
+      try {
+         sum(people, by(Person.class).getAge());
+         fail("expected the null element to fail");
+      } catch (RuntimeException e) {
+         // expected
+      }
+      assertEquals(1, age.getFailures());
+   }
+
+   @Test
+   public void recordsGroupingAndIndexing() {
+      QueryStatistics statistics = QueryStatistics.install();
+
+      groupBy(people, by(Person.class).getLastName());
+      indexBy(people, by(Person.class).getFirstName());
+
+      assertEquals(3, statistics.get("Person.getLastName()").getScanned());
+      assertEquals(3, statistics.get("Person.getFirstName()").getScanned());
+   }
+
+   @Test
+   public void recordsParallelOperations() {
+      int threshold = Selector.getParallelThreshold();
+      Selector.setParallelThreshold(1);
+      try {
+         QueryStatistics statistics = QueryStatistics.install();
+
+         parallelSelect(people, where(Person.class).getLastName(), equalTo("Smith"));
+         parallelCollect(people, by(Person.class).getFirstName());
+         parallelRemove(people, where(Person.class).getAge(), greaterThan(60));
+
+         assertEquals(2, statistics.get("Person.getLastName()").getMatched());
+         assertEquals(3, statistics.get("Person.getFirstName()").getScanned());
+         assertEquals(1, statistics.get("Person.getAge()").getMatched());
+      } finally {
+         Selector.setParallelThreshold(threshold);
+      }
+   }
+
+   @Test
+   public void recordsQueries() {
+      QueryStatistics statistics = QueryStatistics.install();
+      Query<Person, String> query = Selector.query(Person.class)
+            .where(by(Person.class).getLastName()).matching(equalTo("Smith"))
+            .project(by(Person.class).getFirstName());
+
+      assertEquals(asList("Billy", "James"), query.list(people));
+      assertEquals("Billy", query.first(people));
+      assertEquals(2, query.count(people));
+
+      ChainStatistics lastName = statistics.get("Person.getLastName()");
+      assertEquals(3, lastName.getCalls());
+      assertEquals(7, lastName.getScanned());
+      assertEquals(5, lastName.getMatched());
+      assertNull(statistics.get("Person.getFirstName()"));
+   }
+
+   @Test
+   public void recordsFailedLookups() {
+      QueryStatistics statistics = QueryStatistics.install();
+      try {
+         select(new Unsearchable<Person>(people), where(Person.class).getLastName(), equalTo("Smith"));
+         fail("expected the lookup to fail");
+      } catch (UnsupportedOperationException e) {
+         // expected
+      }
+      assertEquals(1, statistics.get("Person.getLastName()").getFailures());
+   }
+
+   @Test
+   public void exposedThroughJmx() throws Exception {
+      QueryStatistics.install();
+      select(people, where(Person.class).getLastName(), equalTo("Smith"));
+
+      CompositeData[] chains = (CompositeData[]) ManagementFactory.getPlatformMBeanServer()
+            .getAttribute(new ObjectName(QueryStatistics.OBJECT_NAME), "Chains");
+
+      assertEquals(1, chains.length);
+      assertThat(chains[0].get("chain"), equalTo((Object) "Person.getLastName()"));
+      assertThat(chains[0].get("matched"), equalTo((Object) 2L));
+   }
+
+   @Test
+   public void histogramBucketsBoundTheirValues() {
+      for (long nanos : new long[] {0, 1, 7, 8, 15, 16, 17, 1000, 123456789L, Long.MAX_VALUE}) {
+         int bucket = ChainStatistics.bucketOf(nanos);
+         assertTrue(nanos + " <= bound", nanos <= ChainStatistics.upperBound(bucket));
+         assertTrue(nanos + " > previous bound", bucket == 0 || nanos > ChainStatistics.upperBound(bucket - 1));
+      }
+   }
+
+   static class Unsearchable<T> extends ArrayList<T> implements Searchable<T> {
+      Unsearchable(List<T> elements) {
+         super(elements);
+      }
+
+      public <V> List<T> lookup(Function<T, V> function, Matcher<V> matcher) {
+         throw new UnsupportedOperationException("index unavailable");
+      }
+   }
+
+   @After
+   public void tearDown() {
+      QueryStatistics.uninstall();
+      MethodCapture.clearAndReturn();
+   }
+}
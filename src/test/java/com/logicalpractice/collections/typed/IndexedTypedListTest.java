@@ -0,0 +1,214 @@
+package com.logicalpractice.collections.typed;
+
+import static com.logicalpractice.collections.Selector.by;
+import static com.logicalpractice.collections.Selector.from;
+import static com.logicalpractice.collections.Selector.select;
+import static com.logicalpractice.collections.Selector.where;
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.anyOf;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.RandomAccess;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Function;
+import com.logicalpractice.collections.Person;
+import com.logicalpractice.collections.support.MethodCapture;
+
+public class IndexedTypedListTest {
+
+   Person billySmith = new Person("Billy", "Smith", 8);
+   Person billyJones = new Person("Billy", "Jones", 32);
+   Person jamesSmith = new Person("James", "Smith", 70);
+
+   IndexedList<Person> people;
+
+   @Before
+   public void setUp() {
+      people = TypedUtils.indexedList(new ArrayList<Person>(asList(billySmith, billyJones, jamesSmith)), Person.class)
+            .indexOn(by(Person.class).getLastName());
+   }
+
+   @Test
+   public void equalityIsAnsweredByTheIndex() {
+      assertThat(people, instanceOf(RandomAccess.class));
+      assertThat(people.lookup(Indexes.<Person, String>currentAccessor(by(Person.class).getLastName()), equalTo("Smith")),
+            equalTo(asList(billySmith, jamesSmith)));
+      assertThat(select(people, where(Person.class).getLastName(), equalTo("Jones")), equalTo((Iterable<Person>) asList(billyJones)));
+      Iterable<Person> browns = select(from(people).getLastName(), equalTo("Brown"));
+      assertThat(browns, equalTo((Iterable<Person>) Collections.<Person>emptyList()));
+   }
+
+   @Test
+   public void unindexedSelectionsScan() {
+      assertThat(people.lookup(Indexes.<Person, Integer>currentAccessor(by(Person.class).getAge()), equalTo(8)), nullValue());
+      assertThat(people.lookup(Indexes.<Person, String>currentAccessor(by(Person.class).getLastName()), greaterThan("A")), nullValue());
+      assertThat(select(people, where(Person.class).getFirstName(), equalTo("James")), equalTo((Iterable<Person>) asList(jamesSmith)));
+   }
+
+   @Test
+   public void mutationsAreIndexed() {
+      Person maryJones = new Person("Mary", "Jones", 40);
+      people.add(maryJones);
+      people.remove(billySmith);
+      assertThat(smiths(), equalTo(asList(jamesSmith)));
+      assertThat(select(people, where(Person.class).getLastName(), equalTo("Jones")), equalTo((Iterable<Person>) asList(billyJones, maryJones)));
+
+      people.add(0, billySmith);
+      assertThat(smiths(), equalTo(asList(billySmith, jamesSmith)));
+
+      people.set(0, maryJones);
+      assertThat(smiths(), equalTo(asList(jamesSmith)));
+
+      people.clear();
+      assertThat(smiths(), equalTo(Collections.<Person>emptyList()));
+   }
+
+   @Test
+   public void iteratorsAndViewsKeepIndexesCurrent() {
+      Iterator<Person> it = people.iterator();
+      it.next();
+      it.remove();
+      assertThat(smiths(), equalTo(asList(jamesSmith)));
+
+      people.subList(0, 1).clear();
+      assertThat(smiths(), equalTo(asList(jamesSmith)));
+      assertThat(people.size(), equalTo(1));
+
+      ListIterator<Person> listIterator = people.listIterator();
+      listIterator.next();
+      listIterator.set(billySmith);
+      assertThat(smiths(), equalTo(asList(billySmith)));
+   }
+
+   @Test
+   public void linkedListsAndSets() {
+      IndexedList<Person> linked = TypedUtils.indexedList(new LinkedList<Person>(people), Person.class)
+            .indexOn(by(Person.class).getFirstName());
+      assertThat(linked instanceof RandomAccess, equalTo(false));
+      assertThat(select(linked, where(Person.class).getFirstName(), equalTo("Billy")), equalTo((Iterable<Person>) asList(billySmith, billyJones)));
+
+      IndexedSet<Person> set = TypedUtils.indexedSet(new HashSet<Person>(people), Person.class)
+            .indexOn(by(Person.class).getFirstName());
+      set.remove(billyJones);
+      assertThat(select(set, where(Person.class).getFirstName(), equalTo("Billy")), equalTo((Iterable<Person>) asList(billySmith)));
+   }
+
+   @Test
+   public void rangesAreAnsweredBySortedIndexes() {
+      Person unknown = new Person("Nobody", null, 50);
+      people.add(unknown);
+      people.sortedIndexOn(by(Person.class).getAge()).sortedIndexOn(by(Person.class).getLastName());
+
+      Function<Person, Integer> age = Indexes.currentAccessor(by(Person.class).getAge());
+      assertThat(people.lookup(age, greaterThanOrEqualTo(32)), equalTo(asList(billyJones, jamesSmith, unknown)));
+      assertThat(people.lookup(age, allOf(greaterThan(8), lessThan(70))), equalTo(asList(billyJones, unknown)));
+      assertThat(people.lookup(age, anyOf(lessThan(10), greaterThan(60))), equalTo(asList(billySmith, jamesSmith)));
+      assertThat(select(people, where(Person.class).getAge(), not(equalTo(32))), equalTo((Iterable<Person>) asList(billySmith, jamesSmith, unknown)));
+
+      Function<Person, String> lastName = Indexes.currentAccessor(by(Person.class).getLastName());
+      assertThat(people.lookup(lastName, lessThan("Smith")), equalTo(asList(billyJones, unknown)));
+      assertThat(people.lookup(lastName, nullValue(String.class)), equalTo(asList(unknown)));
+
+      people.remove(billyJones);
+      assertThat(people.lookup(age, greaterThan(8)), equalTo(asList(jamesSmith, unknown)));
+   }
+
+   @Test
+   public void rangesKeepCollectionOrder() {
+      people.sortedIndexOn(by(Person.class).getAge());
+      Person sally = new Person("Sally", "Brown", 40);
+      Person tom = new Person("Tom", "Brown", 9);
+      people.add(sally);
+      people.add(tom);
+      people.remove(billySmith);
+
+      assertThat(select(people, where(Person.class).getAge(), greaterThan(8)),
+            equalTo((Iterable<Person>) asList(billyJones, jamesSmith, sally, tom)));
+      assertThat(select(people, where(Person.class).getAge(), anyOf(lessThan(10), greaterThan(60))),
+            equalTo((Iterable<Person>) asList(jamesSmith, tom)));
+   }
+
+   @Test
+   public void rangesOfASortedSetFollowItsComparator() {
+      IndexedSet<Person> set = TypedUtils.indexedSet(new TreeSet<Person>(new Comparator<Person>() {
+         public int compare(Person left, Person right) {
+            return left.getFirstName().compareTo(right.getFirstName());
+         }
+      }), Person.class).sortedIndexOn(by(Person.class).getAge());
+      Person sally = new Person("Sally", "Brown", 40);
+      set.add(sally);
+      set.add(jamesSmith);
+      set.add(billyJones);
+
+      assertThat(select(set, where(Person.class).getAge(), greaterThan(8)),
+            equalTo((Iterable<Person>) asList(billyJones, jamesSmith, sally)));
+   }
+
+   @Test
+   public void concurrentLookupsShareOneRebuild() throws Exception {
+      final IndexedList<Person> many = TypedUtils.indexedList(new ArrayList<Person>(), Person.class)
+            .sortedIndexOn(by(Person.class).getAge());
+      for (int i = 0; i < 20000; i++) {
+         many.add(new Person("P" + i, "Smith", i % 100));
+      }
+      final Function<Person, Integer> age = Indexes.currentAccessor(by(Person.class).getAge());
+      for (int round = 0; round < 20; round++) {
+         // a replacement marks the index stale, every reader then finds it so at once
+         many.set(0, new Person("P0", "Smith", 0));
+         final CountDownLatch start = new CountDownLatch(1);
+         List<Future<Integer>> sizes = new ArrayList<Future<Integer>>();
+         ExecutorService readers = Executors.newFixedThreadPool(4);
+         try {
+            for (int t = 0; t < 4; t++) {
+               sizes.add(readers.submit(new Callable<Integer>() {
+                  public Integer call() throws Exception {
+                     start.await();
+                     return many.lookup(age, lessThan(10)).size();
+                  }
+               }));
+            }
+            start.countDown();
+            for (Future<Integer> size : sizes) {
+               assertThat(size.get(), equalTo(2000));
+            }
+         } finally {
+            readers.shutdown();
+         }
+      }
+   }
+
+   private List<Person> smiths() {
+      return (List<Person>) select(people, where(Person.class).getLastName(), equalTo("Smith"));
+   }
+
+   @After
+   public void clearAndReturn() {
+      MethodCapture.clearAndReturn();
+   }
+}
@@ -0,0 +1,129 @@
+package com.logicalpractice.collections.typed;
+
+import static com.logicalpractice.collections.Selector.by;
+import static com.logicalpractice.collections.Selector.from;
+import static com.logicalpractice.collections.Selector.select;
+import static com.logicalpractice.collections.Selector.where;
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.logicalpractice.collections.Person;
+import com.logicalpractice.collections.Selector;
+import com.logicalpractice.collections.support.MethodCapture;
+
+public class RecordStoreTest {
+
+   List<Person> source = asList(
+         new Person("Billy", "Smith", 8),
+         new Person("Billy", "Jones", 32),
+         new Person("James", "Smith", 70));
+
+   RecordStore.Builder<Person> builder;
+
+   @Before
+   public void setUp() {
+      builder = TypedUtils.recordStore(Person.class)
+            .column(by(Person.class).getAge())
+            .column(by(Person.class).getFirstName())
+            .column(by(Person.class).getLastName())
+            .materializer(new RecordStore.Materializer<Person>() {
+               public Person materialize(RecordStore.Record record) {
+                  return new Person((String) record.get(1), (String) record.get(2), record.getInt(0));
+               }
+            });
+   }
+
+   @Test
+   public void iteratesMaterializedElements() {
+      RecordStore<Person> people = builder.build(source);
+
+      assertEquals(3, people.size());
+      assertThat(names(people), equalTo(asList("Billy Smith", "Billy Jones", "James Smith")));
+      assertEquals(70, people.get(2).getAge());
+   }
+
+   @Test
+   public void selectionsScanTheBuffer() {
+      RecordStore<Person> people = builder.build(source);
+
+      Iterable<Person> adults = select(people, where(Person.class).getAge(), allOf(greaterThan(18), lessThan(100)));
+      assertThat(names(adults), equalTo(asList("Billy Jones", "James Smith")));
+
+      Iterable<Person> smiths = select(from(people).getLastName(), equalTo("Smith"));
+      assertThat(names(smiths), equalTo(asList("Billy Smith", "James Smith")));
+
+      Iterable<Person> jameses = select(people, where(Person.class).getFirstName(), startsWith("J"));
+      assertThat(names(jameses), equalTo(asList("James Smith")));
+   }
+
+   @Test
+   public void undeclaredPropertiesAreScannedOnMaterializedElements() {
+      RecordStore<Person> people = builder.build(source);
+
+      Iterable<Person> found = select(people, where(Person.class).getFullName(), equalTo("Billy Jones"));
+      assertThat(names(found), equalTo(asList("Billy Jones")));
+   }
+
+   @Test
+   public void mapsRecordsFromAFile() throws Exception {
+      File file = File.createTempFile("people", ".records");
+      file.deleteOnExit();
+      List<Person> many = new ArrayList<Person>();
+      for (int i = 0; i < 10000; i++) {
+         many.add(new Person("Person", "Number" + (i % 10), i));
+      }
+      RecordStore<Person> people = builder.build(many, file);
+
+      assertEquals(10000, people.size());
+      assertEquals(10000L * (4 + 4 + 4), file.length());
+      assertEquals(5, people.positions(Selector.<Person, Integer>property(by(Person.class).getAge()), greaterThan(9994)).length);
+      assertThat(people.get(1234).getLastName(), equalTo("Number4"));
+   }
+
+   @Test
+   public void aFailedBuildLeavesTheFileEmpty() throws Exception {
+      File file = File.createTempFile("people", ".records");
+      file.deleteOnExit();
+      List<Person> many = new ArrayList<Person>();
+      for (int i = 0; i < 10000; i++) {
+         many.add(new Person("Person", "Number" + (i % 10), i));
+      }
+      builder.build(many, file);
+      many.add(null);
+      try {
+         builder.build(many, file);
+         fail("expected the null element to fail the build");
+      } catch (RuntimeException e) {
+         // expected
+      }
+      assertEquals(0, file.length());
+   }
+
+   @After
+   public void tearDown() {
+      MethodCapture.clearAndReturn();
+   }
+
+   private static List<String> names(Iterable<Person> people) {
+      List<String> names = new ArrayList<String>();
+      for (Person person : people) {
+         names.add(person.getFullName());
+      }
+      return names;
+   }
+}
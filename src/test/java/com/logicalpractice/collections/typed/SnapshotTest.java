@@ -0,0 +1,121 @@
+package com.logicalpractice.collections.typed;
+
+import static com.logicalpractice.collections.Selector.by;
+import static com.logicalpractice.collections.Selector.property;
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Function;
+import com.logicalpractice.collections.Address;
+import com.logicalpractice.collections.Person;
+import com.logicalpractice.collections.support.MethodCapture;
+
+public class SnapshotTest {
+
+   static final SnapshotCodec<Person> CODEC = new SnapshotCodec<Person>() {
+      public void write(Person person, DataOutput out) throws IOException {
+         out.writeUTF(person.getFirstName());
+         out.writeUTF(person.getLastName());
+         out.writeInt(person.getAge());
+      }
+
+      public Person read(DataInput in) throws IOException {
+         return new Person(in.readUTF(), in.readUTF(), in.readInt());
+      }
+   };
+
+   File file;
+
+   @Before
+   public void setUp() throws IOException {
+      file = File.createTempFile("people", ".snapshot");
+      file.deleteOnExit();
+   }
+
+   @Test
+   public void restoresElementsAndIndexes() throws IOException {
+      IndexedList<Person> people = TypedUtils.indexedList(new ArrayList<Person>(), Person.class)
+            .indexOn(by(Person.class).getLastName())
+            .sortedIndexOn(by(Person.class).getAge());
+      people.addAll(asList(new Person("Billy", "Smith", 8), new Person("Billy", "Jones", 32), new Person("James", "Smith", 70)));
+
+      TypedUtils.writeSnapshot(people, CODEC, file);
+      IndexedList<Person> reloaded = TypedUtils.readSnapshot(file, Person.class, CODEC);
+
+      assertEquals(Person.class, reloaded.type());
+      assertThat(names(reloaded), equalTo(asList("Billy Smith", "Billy Jones", "James Smith")));
+
+      Function<Person, String> lastName = property(by(Person.class).getLastName());
+      List<Person> smiths = reloaded.lookup(lastName, equalTo("Smith"));
+      assertNotNull("index was restored", smiths);
+      assertThat(names(smiths), equalTo(asList("Billy Smith", "James Smith")));
+      assertEquals(reloaded.get(2), smiths.get(1));
+
+      Function<Person, Integer> age = property(by(Person.class).getAge());
+      List<Person> over = reloaded.lookup(age, greaterThan(10));
+      assertNotNull("sorted index was restored", over);
+      assertThat(names(over), equalTo(asList("Billy Jones", "James Smith")));
+
+      reloaded.add(new Person("Sally", "Smith", 40));
+      assertEquals(3, reloaded.lookup(lastName, equalTo("Smith")).size());
+   }
+
+   @Test
+   public void plainTypedListHasNoIndexes() throws IOException {
+      List<Person> people = TypedUtils.typedList(asList(new Person("Billy", "Smith", 8)), Person.class);
+
+      TypedUtils.writeSnapshot(people, CODEC, file);
+      IndexedList<Person> reloaded = TypedUtils.readSnapshot(file, Person.class, CODEC);
+
+      assertThat(names(reloaded), equalTo(asList("Billy Smith")));
+      Function<Person, String> lastName = property(by(Person.class).getLastName());
+      assertEquals(null, reloaded.lookup(lastName, equalTo("Smith")));
+   }
+
+   @Test
+   public void rejectsSnapshotOfAnotherType() throws IOException {
+      TypedUtils.writeSnapshot(TypedUtils.typedList(asList(new Person("Billy", "Smith", 8)), Person.class), CODEC, file);
+      try {
+         TypedUtils.readSnapshot(file, Address.class, new SnapshotCodec<Address>() {
+            public void write(Address element, DataOutput out) {
+            }
+
+            public Address read(DataInput in) {
+               return new Address();
+            }
+         });
+         fail("expected IOException");
+      } catch (IOException e) {
+         // expected
+      }
+   }
+
+   @After
+   public void tearDown() {
+      MethodCapture.clearAndReturn();
+   }
+
+   private static List<String> names(Iterable<Person> people) {
+      List<String> names = new ArrayList<String>();
+      for (Person person : people) {
+         names.add(person.getFullName());
+      }
+      return names;
+   }
+}